@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http;
+
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.auth.Action;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permission;
+import com.artipie.http.auth.Permissions;
+import com.artipie.nuget.AstoRepository;
+import com.artipie.nuget.Repository;
+import com.artipie.nuget.http.content.PackageContent;
+import com.artipie.nuget.http.index.ServiceIndex;
+import com.artipie.nuget.http.metadata.PackageMetadata;
+import com.artipie.nuget.http.publish.PackagePublish;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of finding resource by request path.
+ * Compares prebuilt route table with route graph built for every request.
+ * Run with `mvn -Pbench test-compile` and {@link #main(String...)}
+ * from test classpath.
+ *
+ * @since 1.3
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RoutingBench {
+
+    /**
+     * Request paths.
+     */
+    private static final String[] PATHS = {
+        "/index.json",
+        "/package",
+        "/content/newtonsoft.json/index.json",
+        "/content/newtonsoft.json/12.0.3/newtonsoft.json.12.0.3.nupkg",
+        "/registrations/newtonsoft.json/index.json",
+        "/unknown/path",
+    };
+
+    /**
+     * Base URL.
+     */
+    private URL url;
+
+    /**
+     * Repository.
+     */
+    private Repository repository;
+
+    /**
+     * Prebuilt routes.
+     */
+    private RouteTable table;
+
+    /**
+     * Request counter, used to rotate paths.
+     */
+    private int counter;
+
+    @Setup
+    public void setup() throws Exception {
+        this.url = new URL("http://localhost:8080/nuget");
+        this.repository = new AstoRepository(new InMemoryStorage());
+        this.table = this.routes();
+    }
+
+    @Benchmark
+    public Resource prebuilt() {
+        return this.table.resource(this.path());
+    }
+
+    @Benchmark
+    public Resource perRequest() {
+        return this.routes().resource(this.path());
+    }
+
+    /**
+     * Main.
+     *
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(RoutingBench.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+    /**
+     * Next request path.
+     *
+     * @return Path.
+     */
+    private String path() {
+        this.counter = (this.counter + 1) % RoutingBench.PATHS.length;
+        return RoutingBench.PATHS[this.counter];
+    }
+
+    /**
+     * Build route graph the same way as {@link NuGet} does.
+     *
+     * @return Routes table.
+     */
+    private RouteTable routes() {
+        final PackagePublish publish = new PackagePublish(this.repository);
+        final PackageContent content = new PackageContent(this.url, this.repository);
+        final PackageMetadata metadata = new PackageMetadata(this.repository, content);
+        return new RouteTable(
+            new ServiceIndex(
+                Arrays.asList(
+                    new RouteService(this.url, publish, "PackagePublish/2.0.0"),
+                    new RouteService(this.url, metadata, "RegistrationsBaseUrl/Versioned"),
+                    new RouteService(this.url, content, "PackageBaseAddress/3.0.0")
+                )
+            ),
+            RoutingBench.auth(publish, Action.Standard.WRITE),
+            RoutingBench.auth(content, Action.Standard.READ),
+            RoutingBench.auth(metadata, Action.Standard.READ)
+        );
+    }
+
+    /**
+     * Create route supporting basic authentication.
+     *
+     * @param route Route requiring authentication.
+     * @param action Action.
+     * @return Authenticated route.
+     */
+    private static Route auth(final Route route, final Action action) {
+        return new BasicAuthRoute(
+            route,
+            new Permission.ByName(Permissions.FREE, action),
+            Authentication.ANONYMOUS
+        );
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import com.artipie.nuget.Downloads;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of search query latency depending on number of index shards.
+ * Index is filled with synthetic packages with distinct ids, queries are broad
+ * prefix queries matching large part of packages and fuzzy query of mistyped id.
+ * Run with `mvn -Pbench test-compile` and {@link #main(String...)}
+ * from test classpath.
+ *
+ * @since 1.3
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SearchBench {
+
+    /**
+     * Words to build package ids and descriptions from.
+     */
+    private static final String[] WORDS = {
+        "microsoft", "extensions", "logging", "json", "http", "client", "azure",
+        "storage", "data", "sql", "core", "abstractions", "configuration", "tools",
+    };
+
+    /**
+     * Number of packages in index.
+     */
+    @Param({"200000"})
+    public int packages;
+
+    /**
+     * Number of index shards.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    /**
+     * Pool to search shards in.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Index.
+     */
+    private SearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.pool = new ForkJoinPool(this.shards);
+        this.index = new SearchIndex(Downloads.NONE, this.shards, this.pool);
+        final Random random = new Random(this.packages);
+        for (int num = 0; num < this.packages; num += 1) {
+            final String first = SearchBench.WORDS[random.nextInt(SearchBench.WORDS.length)];
+            final String second = SearchBench.WORDS[random.nextInt(SearchBench.WORDS.length)];
+            final Entry entry = new Entry(
+                new PackageId(String.format("%s.%s.p%d", first, second, num)),
+                new Version(String.format("1.%d.0", random.nextInt(10))),
+                "",
+                String.format("Package %s %s", second, first),
+                "Someone",
+                first,
+                Collections.emptyList()
+            );
+            this.index.restore(Collections.singletonList(entry));
+            for (final String term : entry.terms()) {
+                this.index.post(term, Collections.singleton(entry.id().normalized()));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    public Hits broadPrefix() {
+        return this.index.search(new SearchQuery("m", 0, 20, false, false));
+    }
+
+    @Benchmark
+    public Hits twoTerms() {
+        return this.index.search(new SearchQuery("microsoft json", 0, 20, false, false));
+    }
+
+    @Benchmark
+    public Hits fuzzyId() {
+        return this.index.search(
+            new SearchQuery("microsoft.jsn.p4242", 0, 20, false, false, "", true)
+        );
+    }
+
+    @Benchmark
+    public Hits allPackages() {
+        return this.index.search(new SearchQuery("", 0, 20, true, true));
+    }
+
+    /**
+     * Main.
+     *
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(SearchBench.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
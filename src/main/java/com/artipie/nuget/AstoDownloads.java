@@ -0,0 +1,350 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.nuget.metadata.NuspecField;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * Package downloads counters persisted in {@link Storage}.
+ * Downloads are counted in memory with striped lock-free counters
+ * and are flushed to storage in batches by {@link #flush()}.
+ * Every node persists its own totals to `.downloads/{node}.json`,
+ * totals of all nodes are summed on flush, so counts survive restarts
+ * and are merged across nodes without any locking.
+ *
+ * @since 1.3
+ */
+public final class AstoDownloads implements Downloads {
+
+    /**
+     * Root key of downloads data.
+     */
+    private static final Key ROOT = new Key.From(".downloads");
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Node identifier, should be stable across restarts.
+     */
+    private final String node;
+
+    /**
+     * Downloads not yet flushed to storage: package id to version to counter.
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> pending;
+
+    /**
+     * Totals of all nodes stored in storage: package id to version to count.
+     */
+    private volatile Map<String, Map<String, Long>> totals;
+
+    /**
+     * Last flush.
+     */
+    private CompletableFuture<Void> last;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param node Node identifier, should be stable across restarts.
+     */
+    public AstoDownloads(final Storage storage, final String node) {
+        this.storage = storage;
+        this.node = node;
+        this.pending = new ConcurrentHashMap<>();
+        this.totals = Collections.emptyMap();
+        this.last = CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void increment(final NuspecField id, final NuspecField version) {
+        final String pkg = id.normalized();
+        ConcurrentMap<String, LongAdder> versions = this.pending.get(pkg);
+        if (versions == null) {
+            versions = this.pending.computeIfAbsent(pkg, key -> new ConcurrentHashMap<>());
+        }
+        final String vers = version.normalized();
+        LongAdder counter = versions.get(vers);
+        if (counter == null) {
+            counter = versions.computeIfAbsent(vers, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Override
+    public long count(final NuspecField id, final NuspecField version) {
+        final String pkg = id.normalized();
+        final String vers = version.normalized();
+        long count = this.totals.getOrDefault(pkg, Collections.emptyMap())
+            .getOrDefault(vers, 0L);
+        final Map<String, LongAdder> versions = this.pending.get(pkg);
+        if (versions != null) {
+            final LongAdder counter = versions.get(vers);
+            if (counter != null) {
+                count += counter.sum();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Load totals of all nodes from storage.
+     *
+     * @return Completion of load operation.
+     */
+    public CompletionStage<Void> load() {
+        return this.storage.list(AstoDownloads.ROOT).thenCompose(
+            keys -> {
+                final List<CompletableFuture<Map<String, Map<String, Long>>>> all = keys.stream()
+                    .map(key -> this.read(key).toCompletableFuture())
+                    .collect(Collectors.toList());
+                return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]))
+                    .thenAccept(
+                        nothing -> {
+                            final Map<String, Map<String, Long>> sum = new HashMap<>();
+                            for (final CompletableFuture<Map<String, Map<String, Long>>> counts
+                                : all) {
+                                AstoDownloads.add(sum, counts.join());
+                            }
+                            this.totals = sum;
+                        }
+                    );
+            }
+        );
+    }
+
+    /**
+     * Flush downloads counted in memory to storage as single batch
+     * and reload totals of all nodes.
+     * Flushes never run concurrently, next flush starts after previous one completes.
+     *
+     * @return Completion of flush operation.
+     */
+    public synchronized CompletionStage<Void> flush() {
+        this.last = this.last.handle((nothing, err) -> nothing).thenCompose(
+            nothing -> this.flushNow()
+        );
+        return this.last;
+    }
+
+    /**
+     * Flush downloads to storage periodically.
+     *
+     * @param scheduler Scheduler to run flushes.
+     * @param period Period between flushes.
+     * @param unit Period time unit.
+     * @return Scheduled flushes, may be cancelled to stop flushing.
+     */
+    public ScheduledFuture<?> schedule(
+        final ScheduledExecutorService scheduler, final long period, final TimeUnit unit
+    ) {
+        return scheduler.scheduleAtFixedRate(this::flush, period, period, unit);
+    }
+
+    /**
+     * Flush downloads counted in memory to storage.
+     *
+     * @return Completion of flush operation.
+     */
+    private CompletableFuture<Void> flushNow() {
+        final Map<String, Map<String, Long>> deltas = this.drain();
+        final CompletableFuture<Void> saved;
+        if (deltas.isEmpty()) {
+            saved = CompletableFuture.completedFuture(null);
+        } else {
+            final Map<String, Map<String, Long>> counted = AstoDownloads.copy(this.totals);
+            AstoDownloads.add(counted, deltas);
+            this.totals = counted;
+            final Key key = new Key.From(
+                AstoDownloads.ROOT, String.format("%s.json", this.node)
+            );
+            saved = this.storage.exists(key).thenCompose(
+                exists -> {
+                    final CompletionStage<Map<String, Map<String, Long>>> own;
+                    if (exists) {
+                        own = this.read(key);
+                    } else {
+                        own = CompletableFuture.completedFuture(Collections.emptyMap());
+                    }
+                    return own;
+                }
+            ).thenCompose(
+                own -> {
+                    final Map<String, Map<String, Long>> updated = AstoDownloads.copy(own);
+                    AstoDownloads.add(updated, deltas);
+                    return this.storage.save(
+                        key,
+                        new Content.From(
+                            AstoDownloads.json(updated).toString()
+                                .getBytes(StandardCharsets.UTF_8)
+                        )
+                    );
+                }
+            ).whenComplete(
+                (nothing, err) -> {
+                    if (err != null) {
+                        this.restore(deltas);
+                    }
+                }
+            );
+        }
+        return saved.handle((nothing, err) -> err).thenCompose(
+            err -> this.load().thenApply(
+                nothing -> {
+                    if (err != null) {
+                        throw new CompletionException(err);
+                    }
+                    return nothing;
+                }
+            )
+        );
+    }
+
+    /**
+     * Take all counted downloads out of in-memory counters.
+     * Exactly the amount read is subtracted from every counter, so downloads
+     * counted concurrently with drain stay in counters for the next one.
+     *
+     * @return Downloads counted since previous drain.
+     */
+    private Map<String, Map<String, Long>> drain() {
+        final Map<String, Map<String, Long>> deltas = new HashMap<>();
+        for (final Map.Entry<String, ConcurrentMap<String, LongAdder>> pkg
+            : this.pending.entrySet()) {
+            for (final Map.Entry<String, LongAdder> vers : pkg.getValue().entrySet()) {
+                final long count = vers.getValue().sum();
+                if (count != 0) {
+                    vers.getValue().add(-count);
+                    deltas.computeIfAbsent(pkg.getKey(), key -> new HashMap<>())
+                        .put(vers.getKey(), count);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Return downloads that failed to flush back to in-memory counters.
+     *
+     * @param deltas Downloads failed to flush.
+     */
+    private void restore(final Map<String, Map<String, Long>> deltas) {
+        for (final Map.Entry<String, Map<String, Long>> pkg : deltas.entrySet()) {
+            for (final Map.Entry<String, Long> vers : pkg.getValue().entrySet()) {
+                this.pending.computeIfAbsent(pkg.getKey(), key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(vers.getKey(), key -> new LongAdder())
+                    .add(vers.getValue());
+            }
+        }
+    }
+
+    /**
+     * Read downloads counts from storage.
+     *
+     * @param key Key to read counts from.
+     * @return Counts.
+     */
+    private CompletionStage<Map<String, Map<String, Long>>> read(final Key key) {
+        return this.storage.value(key)
+            .thenCompose(content -> new PublisherAs(content).string(StandardCharsets.UTF_8))
+            .thenApply(
+                str -> {
+                    final JsonObject json = Json.createReader(new StringReader(str)).readObject();
+                    return json.entrySet().stream().collect(
+                        Collectors.toMap(
+                            Map.Entry::getKey,
+                            pkg -> pkg.getValue().asJsonObject().entrySet().stream().collect(
+                                Collectors.toMap(
+                                    Map.Entry::getKey,
+                                    vers -> ((JsonNumber) vers.getValue()).longValue()
+                                )
+                            )
+                        )
+                    );
+                }
+            );
+    }
+
+    /**
+     * Add downloads counts to target counts.
+     *
+     * @param target Target counts to add to.
+     * @param counts Counts to add.
+     */
+    private static void add(
+        final Map<String, Map<String, Long>> target,
+        final Map<String, Map<String, Long>> counts
+    ) {
+        for (final Map.Entry<String, Map<String, Long>> pkg : counts.entrySet()) {
+            final Map<String, Long> versions = target.computeIfAbsent(
+                pkg.getKey(), key -> new HashMap<>()
+            );
+            for (final Map.Entry<String, Long> vers : pkg.getValue().entrySet()) {
+                versions.merge(vers.getKey(), vers.getValue(), Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Mutable copy of downloads counts.
+     *
+     * @param counts Counts to copy.
+     * @return Copy of counts.
+     */
+    private static Map<String, Map<String, Long>> copy(
+        final Map<String, Map<String, Long>> counts
+    ) {
+        final Map<String, Map<String, Long>> copy = new HashMap<>();
+        AstoDownloads.add(copy, counts);
+        return copy;
+    }
+
+    /**
+     * Downloads counts in JSON.
+     *
+     * @param counts Counts.
+     * @return JSON object.
+     */
+    private static JsonValue json(final Map<String, Map<String, Long>> counts) {
+        final JsonObjectBuilder json = Json.createObjectBuilder();
+        for (final Map.Entry<String, Map<String, Long>> pkg : counts.entrySet()) {
+            final JsonObjectBuilder versions = Json.createObjectBuilder();
+            for (final Map.Entry<String, Long> vers : pkg.getValue().entrySet()) {
+                versions.add(vers.getKey(), vers.getValue());
+            }
+            json.add(pkg.getKey(), versions);
+        }
+        return json.build();
+    }
+}
@@ -7,13 +7,22 @@ package com.artipie.nuget;
 
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
 import com.artipie.asto.Storage;
-import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.nuget.metadata.Nuspec;
+import com.artipie.nuget.metadata.NuspecField;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
 import javax.json.Json;
 
 /**
@@ -29,13 +38,155 @@ public final class AstoRepository implements Repository {
      */
     private final Storage storage;
 
+    /**
+     * Executor for blocking parsing and hashing of packages.
+     */
+    private final Executor executor;
+
+    /**
+     * Group commit of package uploads.
+     */
+    private final GroupCommit<Upload> commits;
+
+    /**
+     * Optimistically updated versions indexes, empty if indexes are updated under package lock.
+     */
+    private final Optional<OptimisticVersions> optimistic;
+
+    /**
+     * Content-addressed storage of package bytes, empty if packages are stored in place.
+     */
+    private final Optional<Blobs> blobs;
+
+    /**
+     * Listener of published packages.
+     */
+    private final PackageListener listener;
+
+    /**
+     * Log of published package versions.
+     */
+    private final PublishLog log;
+
     /**
      * Ctor.
      *
      * @param storage Storage to store all repository data.
      */
     public AstoRepository(final Storage storage) {
+        this(storage, BlockingExecutor.SHARED);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage to store all repository data.
+     * @param executor Executor for blocking parsing and hashing of packages.
+     */
+    public AstoRepository(final Storage storage, final Executor executor) {
+        this(storage, executor, new PackageLock.Distributed(storage));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage to store all repository data.
+     * @param executor Executor for blocking parsing and hashing of packages.
+     * @param lock Lock guarding modifications of package.
+     */
+    public AstoRepository(
+        final Storage storage, final Executor executor, final PackageLock lock
+    ) {
+        this(storage, executor, lock, PackageListener.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage to store all repository data.
+     * @param executor Executor for blocking parsing and hashing of packages.
+     * @param lock Lock guarding modifications of package.
+     * @param listener Listener of published packages.
+     */
+    public AstoRepository(
+        final Storage storage,
+        final Executor executor,
+        final PackageLock lock,
+        final PackageListener listener
+    ) {
+        this(storage, executor, lock, Optional.empty(), Optional.empty(), listener);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage to store all repository data.
+     * @param executor Executor for blocking parsing and hashing of packages.
+     * @param lock Lock guarding modifications of package.
+     * @param index Conditional writes over the same storage,
+     *  used to update versions indexes optimistically after package lock is released.
+     *  Package files are still moved under package lock, so each publish takes the lock
+     *  as before, but holds it only while files are moved. Files are removed
+     *  if the index update fails.
+     */
+    public AstoRepository(
+        final Storage storage,
+        final Executor executor,
+        final PackageLock lock,
+        final ConditionalStorage index
+    ) {
+        this(
+            storage, executor, lock, Optional.of(index), Optional.empty(), PackageListener.NONE
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage to store all repository data.
+     * @param executor Executor for blocking parsing and hashing of packages.
+     * @param lock Lock guarding modifications of package.
+     * @param blobs Content-addressed storage of package bytes.
+     */
+    public AstoRepository(
+        final Storage storage,
+        final Executor executor,
+        final PackageLock lock,
+        final Blobs blobs
+    ) {
+        this(
+            storage, executor, lock, Optional.empty(), Optional.of(blobs), PackageListener.NONE
+        );
+    }
+
+    /**
+     * Ctor accepting all options of the repository.
+     *
+     * @param storage Storage to store all repository data.
+     * @param executor Executor for blocking parsing and hashing of packages.
+     * @param lock Lock guarding modifications of package.
+     * @param index Conditional writes over the same storage used to update versions
+     *  indexes optimistically, empty to update them under package lock.
+     * @param blobs Content-addressed storage of package bytes,
+     *  empty to store packages in place.
+     * @param listener Listener of published packages.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public AstoRepository(
+        final Storage storage,
+        final Executor executor,
+        final PackageLock lock,
+        final Optional<ConditionalStorage> index,
+        final Optional<Blobs> blobs,
+        final PackageListener listener
+    ) {
         this.storage = storage;
+        this.executor = executor;
+        this.commits = new GroupCommit<>(lock, this::publish, this::reindex);
+        this.optimistic = index.map(OptimisticVersions::new);
+        this.blobs = blobs;
+        this.listener = listener;
+        this.log = new PublishLog(storage);
     }
 
     @Override
@@ -46,57 +197,365 @@ public final class AstoRepository implements Repository {
                 if (exists) {
                     result = this.storage.value(key).thenApply(Optional::of);
                 } else {
-                    result = CompletableFuture.completedFuture(Optional.empty());
+                    result = this.blobs.map(blob -> blob.content(this.storage, key))
+                        .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
+                }
+                return result;
+            }
+        );
+    }
+
+    @Override
+    public CompletionStage<Optional<Long>> size(final Key key) {
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<Long>> result;
+                if (exists) {
+                    result = this.storage.metadata(key).thenApply(
+                        meta -> meta.read(Meta.OP_SIZE).map(size -> size)
+                    );
+                } else {
+                    result = this.blobs.map(blob -> blob.size(this.storage, key))
+                        .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
                 }
                 return result;
             }
         );
     }
 
+    /**
+     * Add package.
+     * Upload is received into staging area and then moved to a staged key
+     * with the time it was received completely, so {@link UploadSweeper} measures
+     * age of upload from the end of long transfer, not from its start.
+     * Staged upload is deleted if it fails to publish, e.g. if it fails to parse
+     * or if the version already exists.
+     *
+     * @param content Package content.
+     * @return Completion of adding package.
+     */
     @Override
     public CompletionStage<Void> add(final Content content) {
-        final Key key = new Key.From(UUID.randomUUID().toString());
-        return this.storage.save(key, content).thenCompose(
-            saved -> this.storage.value(key)
-                .thenCompose(
-                    val -> new ContentAsStream<Nuspec>(val).process(
-                        input -> new Nupkg(input).nuspec()
-                    )
-                ).thenCompose(
-                    nuspec -> {
-                        final PackageIdentity id =
-                            new PackageIdentity(nuspec.id(), nuspec.version());
-                        return this.storage.list(id.rootKey()).thenCompose(
-                            existing -> {
-                                if (!existing.isEmpty()) {
-                                    throw new PackageVersionAlreadyExistsException(id.toString());
-                                }
-                                final PackageKeys pkey = new PackageKeys(nuspec.id());
-                                return this.storage.exclusively(
-                                    pkey.rootKey(),
-                                    target -> CompletableFuture.allOf(
-                                        this.storage.value(key)
-                                            .thenCompose(val -> new Hash(val).save(target, id)),
-                                        this.storage.save(
-                                            new PackageIdentity(nuspec.id(), nuspec.version())
-                                                .nuspecKey(),
-                                            new Content.From(nuspec.bytes())
-                                        )
-                                    )
-                                        .thenCompose(nothing -> target.move(key, id.nupkgKey()))
-                                        .thenCompose(nothing -> this.versions(pkey))
-                                        .thenApply(vers -> vers.add(nuspec.version()))
-                                        .thenCompose(
-                                            vers -> vers.save(
-                                                target,
-                                                pkey.versionsKey()
-                                            )
-                                        )
-                                );
+        final Key received = UploadSweeper.key(System.currentTimeMillis());
+        return this.storage.save(received, content).thenCompose(
+            saved -> {
+                final Key staged = UploadSweeper.key(System.currentTimeMillis());
+                return this.storage.move(received, staged)
+                    .thenCompose(moved -> this.submit(staged))
+                    .handle((nothing, error) -> Optional.ofNullable(error))
+                    .thenCompose(
+                        error -> {
+                            final CompletionStage<Void> result;
+                            if (error.isPresent()) {
+                                result = this.discard(received)
+                                    .thenCompose(nothing -> this.discard(staged))
+                                    .thenApply(
+                                        nothing -> {
+                                            throw AstoRepository.wrapped(error.get());
+                                        }
+                                    );
+                            } else {
+                                result = CompletableFuture.completedFuture(null);
+                            }
+                            return result;
+                        }
+                    );
+            }
+        );
+    }
+
+    /**
+     * Parse staged upload and submit it to be published.
+     *
+     * @param staged Key of staged upload.
+     * @return Completion of publish operation.
+     */
+    private CompletionStage<Void> submit(final Key staged) {
+        return this.storage.value(staged)
+            .thenCompose(
+                val -> new ContentAsBlockingStream<Nuspec>(val, this.executor).process(
+                    input -> new Nupkg(input).nuspec()
+                )
+            ).thenCompose(
+                nuspec -> this.commits.submit(
+                    new PackageKeys(nuspec.id()).rootKey(),
+                    new Upload(staged, nuspec)
+                )
+            );
+    }
+
+    /**
+     * Move uploaded packages to their places and add their versions to versions index
+     * with single index update. Should run exclusively for the package.
+     * Upload of version which already exists fails only its own item.
+     * Listener is notified of published versions after index is updated.
+     * Versions index updated optimistically is left to {@link #reindex(List)}.
+     *
+     * @param target Storage to use.
+     * @param batch Uploads of same package.
+     * @return Completion of publish operation.
+     */
+    private CompletionStage<Void> publish(
+        final Storage target, final List<GroupCommit.Item<Upload>> batch
+    ) {
+        final Set<Key> seen = new HashSet<>();
+        final List<CompletableFuture<Optional<NuspecField>>> moved =
+            new ArrayList<>(batch.size());
+        for (final GroupCommit.Item<Upload> item : batch) {
+            final Nuspec nuspec = item.value().nuspec;
+            final PackageIdentity id = new PackageIdentity(nuspec.id(), nuspec.version());
+            final CompletableFuture<Optional<NuspecField>> result;
+            if (seen.add(id.nupkgKey())) {
+                result = this.move(target, item.value()).handle(
+                    (version, err) -> {
+                        final Optional<NuspecField> outcome;
+                        if (err == null) {
+                            outcome = version;
+                        } else {
+                            item.fail(err);
+                            outcome = Optional.empty();
+                        }
+                        return outcome;
+                    }
+                ).toCompletableFuture();
+            } else {
+                item.fail(new PackageVersionAlreadyExistsException(id.toString()));
+                result = CompletableFuture.completedFuture(Optional.empty());
+            }
+            moved.add(result);
+        }
+        final PackageKeys pkey = new PackageKeys(batch.get(0).value().nuspec.id());
+        return CompletableFuture.allOf(moved.toArray(new CompletableFuture<?>[0])).thenCompose(
+            nothing -> {
+                final List<NuspecField> added = new ArrayList<>(batch.size());
+                final List<Nuspec> published = new ArrayList<>(batch.size());
+                for (int idx = 0; idx < batch.size(); idx += 1) {
+                    final Optional<NuspecField> version = moved.get(idx).join();
+                    if (version.isPresent()) {
+                        added.add(version.get());
+                        published.add(batch.get(idx).value().nuspec);
+                    }
+                }
+                final CompletionStage<Void> indexed;
+                if (added.isEmpty() || this.optimistic.isPresent()) {
+                    indexed = CompletableFuture.completedFuture(null);
+                } else {
+                    indexed = this.versions(pkey).thenApply(AstoRepository.adding(added))
+                        .thenCompose(vers -> vers.save(target, pkey.versionsKey()))
+                        .thenRun(() -> published.forEach(this.listener::published));
+                }
+                return indexed;
+            }
+        );
+    }
+
+    /**
+     * Add versions of published uploads to versions index optimistically.
+     * Runs after package lock is released, so next uploads of the package
+     * are moved while the index is updated. Does nothing if versions index
+     * is updated under package lock. If the index update fails, package files
+     * of the uploads are removed, so failed publish may be retried.
+     *
+     * @param published Uploads of same package moved to their places.
+     * @return Completion of index update.
+     */
+    private CompletionStage<Void> reindex(final List<GroupCommit.Item<Upload>> published) {
+        final CompletionStage<Void> indexed;
+        if (published.isEmpty() || !this.optimistic.isPresent()) {
+            indexed = CompletableFuture.completedFuture(null);
+        } else {
+            final List<NuspecField> added = new ArrayList<>(published.size());
+            for (final GroupCommit.Item<Upload> item : published) {
+                added.add(item.value().nuspec.version());
+            }
+            indexed = this.optimistic.get().update(
+                new PackageKeys(published.get(0).value().nuspec.id()).versionsKey(),
+                AstoRepository.adding(added)
+            ).handle((versions, error) -> Optional.ofNullable(error)).thenCompose(
+                error -> {
+                    final CompletionStage<Void> result;
+                    if (error.isPresent()) {
+                        result = this.withdraw(published).handle(
+                            (nothing, ignored) -> {
+                                throw AstoRepository.wrapped(error.get());
                             }
                         );
+                    } else {
+                        published.forEach(item -> this.listener.published(item.value().nuspec));
+                        result = CompletableFuture.completedFuture(null);
                     }
+                    return result;
+                }
+            );
+        }
+        return indexed;
+    }
+
+    /**
+     * Remove package files of published uploads which were not added to versions index.
+     *
+     * @param published Uploads moved to their places.
+     * @return Completion of removal.
+     */
+    private CompletionStage<Void> withdraw(final List<GroupCommit.Item<Upload>> published) {
+        final List<CompletableFuture<Void>> removed = new ArrayList<>(published.size() * 4);
+        for (final GroupCommit.Item<Upload> item : published) {
+            final PackageIdentity id = new PackageIdentity(
+                item.value().nuspec.id(), item.value().nuspec.version()
+            );
+            for (final Key key : Arrays.asList(id.nupkgKey(), id.hashKey(), id.nuspecKey())) {
+                removed.add(this.discard(key).toCompletableFuture());
+            }
+            this.blobs.ifPresent(
+                blob -> removed.add(
+                    blob.delete(this.storage, id.nupkgKey()).toCompletableFuture()
                 )
+            );
+        }
+        return CompletableFuture.allOf(removed.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Change of versions index adding versions to it.
+     *
+     * @param added Versions to add.
+     * @return Change of versions index.
+     */
+    private static UnaryOperator<Versions> adding(final List<NuspecField> added) {
+        return vers -> {
+            Versions updated = vers;
+            for (final NuspecField version : added) {
+                updated = updated.add(version);
+            }
+            return updated;
+        };
+    }
+
+    /**
+     * Delete value by key if it exists, ignoring failure to delete.
+     *
+     * @param key Key.
+     * @return Completion of delete operation.
+     */
+    private CompletionStage<Void> discard(final Key key) {
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Void> deleted;
+                if (exists) {
+                    deleted = this.storage.delete(key);
+                } else {
+                    deleted = CompletableFuture.completedFuture(null);
+                }
+                return deleted;
+            }
+        ).exceptionally(err -> null);
+    }
+
+    /**
+     * Wrap error to rethrow it from completion stage.
+     *
+     * @param error Error, possibly already wrapped.
+     * @return Completion exception.
+     */
+    private static CompletionException wrapped(final Throwable error) {
+        final CompletionException wrapped;
+        if (error instanceof CompletionException) {
+            wrapped = (CompletionException) error;
+        } else {
+            wrapped = new CompletionException(error);
+        }
+        return wrapped;
+    }
+
+    /**
+     * Move uploaded package to its place, saving its hash and nuspec.
+     * Existing version is found by point lookup of its `.nupkg` key,
+     * the check is atomic as long as it runs exclusively for the package.
+     * Version is added to {@link PublishLog} before files are moved.
+     *
+     * @param target Storage to use.
+     * @param upload Uploaded package.
+     * @return Version of moved package, empty if the upload failed.
+     */
+    private CompletionStage<Optional<NuspecField>> move(
+        final Storage target, final Upload upload
+    ) {
+        final PackageIdentity id =
+            new PackageIdentity(upload.nuspec.id(), upload.nuspec.version());
+        return this.exists(target, id.nupkgKey()).thenCompose(
+            exists -> {
+                if (exists) {
+                    throw new PackageVersionAlreadyExistsException(id.toString());
+                }
+                return this.log.append(id).thenCompose(
+                    logged -> CompletableFuture.allOf(
+                        this.blobs.map(blob -> this.store(target, upload, id, blob))
+                            .orElseGet(() -> this.move(target, upload, id))
+                            .toCompletableFuture(),
+                        target.save(id.nuspecKey(), new Content.From(upload.nuspec.bytes()))
+                            .toCompletableFuture()
+                    )
+                );
+            }
+        ).thenApply(nothing -> Optional.of(upload.nuspec.version()));
+    }
+
+    /**
+     * Move uploaded package bytes in place of `.nupkg` file, saving its hash.
+     *
+     * @param target Storage to use.
+     * @param upload Uploaded package.
+     * @param id Package identity.
+     * @return Completion of move operation.
+     */
+    private CompletionStage<Void> move(
+        final Storage target, final Upload upload, final PackageIdentity id
+    ) {
+        return target.value(upload.key)
+            .thenCompose(val -> new Hash(val, this.executor).save(target, id))
+            .thenCompose(nothing -> target.move(upload.key, id.nupkgKey()));
+    }
+
+    /**
+     * Store uploaded package bytes as content-addressed blob, saving its hash.
+     *
+     * @param target Storage to use.
+     * @param upload Uploaded package.
+     * @param id Package identity.
+     * @param blob Content-addressed storage of package bytes.
+     * @return Completion of store operation.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private CompletionStage<Void> store(
+        final Storage target, final Upload upload, final PackageIdentity id, final Blobs blob
+    ) {
+        return target.value(upload.key)
+            .thenCompose(val -> new Hash(val, this.executor).bytes())
+            .thenCompose(
+                digest -> target.save(
+                    id.hashKey(), new Content.From(Base64.getEncoder().encode(digest))
+                ).thenCompose(nothing -> blob.put(target, upload.key, digest, id.nupkgKey()))
+            );
+    }
+
+    /**
+     * Check if package file exists, either in place or as a reference to blob.
+     *
+     * @param target Storage to use.
+     * @param nupkg Key of `.nupkg` file.
+     * @return True if package file exists.
+     */
+    private CompletionStage<Boolean> exists(final Storage target, final Key nupkg) {
+        return target.exists(nupkg).thenCompose(
+            exists -> {
+                final CompletionStage<Boolean> result;
+                if (exists || !this.blobs.isPresent()) {
+                    result = CompletableFuture.completedFuture(exists);
+                } else {
+                    result = this.blobs.get().exists(target, nupkg);
+                }
+                return result;
+            }
         );
     }
 
@@ -108,7 +567,7 @@ public final class AstoRepository implements Repository {
                 final CompletionStage<Versions> versions;
                 if (exists) {
                     versions = this.storage.value(key).thenCompose(
-                        val -> new ContentAsStream<Versions>(val)
+                        val -> new ContentAsBlockingStream<Versions>(val, this.executor)
                             .process(input -> new Versions(Json.createReader(input).readObject()))
                     );
                 } else {
@@ -129,8 +588,40 @@ public final class AstoRepository implements Repository {
                     );
                 }
                 return this.storage.value(identity.nuspecKey())
-                    .thenCompose(val -> new ContentAsStream<Nuspec>(val).process(Nuspec.Xml::new));
+                    .thenCompose(
+                        val -> new ContentAsBlockingStream<Nuspec>(val, this.executor)
+                            .process(Nuspec.Xml::new)
+                    );
             }
         );
     }
+
+    /**
+     * Uploaded package waiting for publish.
+     *
+     * @since 1.3
+     */
+    private static final class Upload {
+
+        /**
+         * Key of uploaded package.
+         */
+        private final Key key;
+
+        /**
+         * Package nuspec.
+         */
+        private final Nuspec nuspec;
+
+        /**
+         * Ctor.
+         *
+         * @param key Key of uploaded package.
+         * @param nuspec Package nuspec.
+         */
+        Upload(final Key key, final Nuspec nuspec) {
+            this.key = key;
+            this.nuspec = nuspec;
+        }
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Content-addressed storage of package blobs.
+ * Package bytes are stored once under `.blobs/sha512/{hex}` key,
+ * where `hex` is hex encoded SHA-512 digest of the bytes.
+ * Package of the feed references the blob by `{nupkg}.ref` key
+ * next to the place of `.nupkg` file, reference holds the digest.
+ * Blob storage may be shared by feeds backed by different storages,
+ * identical packages published to any of them are stored once.
+ *
+ * @since 1.3
+ */
+public final class Blobs {
+
+    /**
+     * Root key of blobs.
+     */
+    private static final Key ROOT = new Key.From(".blobs", "sha512");
+
+    /**
+     * Storage of blobs.
+     */
+    private final Storage storage;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage of blobs.
+     */
+    public Blobs(final Storage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Store uploaded bytes as blob and reference it from the package.
+     * Upload is removed from source storage: if blob with same digest exists,
+     * bytes are not written at all.
+     *
+     * @param source Storage of uploaded bytes and references.
+     * @param upload Key of uploaded bytes.
+     * @param digest SHA-512 digest of uploaded bytes.
+     * @param nupkg Key of `.nupkg` file of the package.
+     * @return Completion of store operation.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public CompletionStage<Void> put(
+        final Storage source, final Key upload, final byte[] digest, final Key nupkg
+    ) {
+        final String hex = Blobs.hex(digest);
+        final Key blob = new Key.From(Blobs.ROOT, hex);
+        return this.storage.exists(blob).thenCompose(
+            exists -> {
+                final CompletionStage<Void> stored;
+                if (exists) {
+                    stored = CompletableFuture.completedFuture(null);
+                } else {
+                    stored = source.value(upload)
+                        .thenCompose(content -> this.storage.save(blob, content));
+                }
+                return stored;
+            }
+        ).thenCompose(
+            nothing -> source.save(
+                Blobs.ref(nupkg), new Content.From(hex.getBytes(StandardCharsets.US_ASCII))
+            )
+        ).thenCompose(nothing -> source.delete(upload));
+    }
+
+    /**
+     * Remove reference of package to blob if it exists.
+     * Blob itself is kept, other packages may reference it.
+     *
+     * @param source Storage of references.
+     * @param nupkg Key of `.nupkg` file of the package.
+     * @return Completion of remove operation.
+     */
+    public CompletionStage<Void> delete(final Storage source, final Key nupkg) {
+        final Key ref = Blobs.ref(nupkg);
+        return source.exists(ref).thenCompose(
+            exists -> {
+                final CompletionStage<Void> deleted;
+                if (exists) {
+                    deleted = source.delete(ref);
+                } else {
+                    deleted = CompletableFuture.completedFuture(null);
+                }
+                return deleted;
+            }
+        );
+    }
+
+    /**
+     * Check if package references a blob.
+     *
+     * @param source Storage of references.
+     * @param nupkg Key of `.nupkg` file of the package.
+     * @return True if reference exists.
+     */
+    public CompletionStage<Boolean> exists(final Storage source, final Key nupkg) {
+        return source.exists(Blobs.ref(nupkg));
+    }
+
+    /**
+     * Read content of blob referenced by package.
+     *
+     * @param source Storage of references.
+     * @param nupkg Key of `.nupkg` file of the package.
+     * @return Content, empty if package does not reference a blob.
+     */
+    public CompletionStage<Optional<Content>> content(final Storage source, final Key nupkg) {
+        return this.referenced(source, nupkg, this.storage::value);
+    }
+
+    /**
+     * Read size of blob referenced by package.
+     *
+     * @param source Storage of references.
+     * @param nupkg Key of `.nupkg` file of the package.
+     * @return Size, empty if package does not reference a blob or storage does not know size.
+     */
+    public CompletionStage<Optional<Long>> size(final Storage source, final Key nupkg) {
+        return this.referenced(
+            source, nupkg,
+            blob -> this.storage.metadata(blob).thenApply(
+                meta -> meta.read(Meta.OP_SIZE).<Long>map(size -> size).orElse(-1L)
+            )
+        ).thenApply(size -> size.filter(value -> value >= 0));
+    }
+
+    /**
+     * Read something from blob referenced by package.
+     *
+     * @param source Storage of references.
+     * @param nupkg Key of `.nupkg` file of the package.
+     * @param read Read of blob by its key.
+     * @param <T> Result type.
+     * @return Result of read, empty if package does not reference a blob.
+     */
+    private <T> CompletionStage<Optional<T>> referenced(
+        final Storage source, final Key nupkg, final Function<Key, CompletionStage<T>> read
+    ) {
+        final Key ref = Blobs.ref(nupkg);
+        return source.exists(ref).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<T>> result;
+                if (exists) {
+                    result = source.value(ref)
+                        .thenCompose(content -> new PublisherAs(content).asciiString())
+                        .thenCompose(hex -> read.apply(new Key.From(Blobs.ROOT, hex.trim())))
+                        .thenApply(Optional::of);
+                } else {
+                    result = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Key of blob reference.
+     *
+     * @param nupkg Key of `.nupkg` file of the package.
+     * @return Reference key.
+     */
+    private static Key ref(final Key nupkg) {
+        return new Key.From(String.format("%s.ref", nupkg.string()));
+    }
+
+    /**
+     * Hex encoded digest.
+     *
+     * @param digest Digest bytes.
+     * @return Hex string.
+     */
+    private static String hex(final byte[] digest) {
+        final StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (final byte part : digest) {
+            hex.append(String.format("%02x", part));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor for blocking work, such as parsing and hashing of packages.
+ * Keeps blocking work away from common fork-join pool and storage threads.
+ * By default it runs tasks in virtual threads when they are supported by JVM,
+ * otherwise in pool with bounded number of threads.
+ * Counts tasks waiting for execution and tasks being executed.
+ * Components constructed without executor use {@link #SHARED} instance,
+ * so they share single pool and its counters. Executor created with default
+ * pool owns it and shuts it down on {@link #close()}, executor wrapping given one
+ * and the shared instance do not.
+ *
+ * @since 1.3
+ */
+public final class BlockingExecutor implements Executor, AutoCloseable {
+
+    /**
+     * Executor shared by components constructed without executor, never closed.
+     */
+    public static final BlockingExecutor SHARED = new BlockingExecutor(
+        BlockingExecutor.threads(Runtime.getRuntime().availableProcessors() * 2), false
+    );
+
+    /**
+     * Time idle pool threads are kept alive, seconds.
+     */
+    private static final long KEEP_ALIVE = 60L;
+
+    /**
+     * Origin executor.
+     */
+    private final Executor origin;
+
+    /**
+     * Tasks waiting for execution.
+     */
+    private final LongAdder waiting;
+
+    /**
+     * Tasks being executed.
+     */
+    private final LongAdder executing;
+
+    /**
+     * Whether origin executor is owned and shut down on close.
+     */
+    private final boolean owned;
+
+    /**
+     * Ctor.
+     */
+    public BlockingExecutor() {
+        this(BlockingExecutor.threads(Runtime.getRuntime().availableProcessors() * 2), true);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin executor to run tasks, not shut down on close.
+     */
+    public BlockingExecutor(final Executor origin) {
+        this(origin, false);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin executor to run tasks.
+     * @param owned Whether origin executor is shut down on close.
+     */
+    private BlockingExecutor(final Executor origin, final boolean owned) {
+        this.origin = origin;
+        this.owned = owned;
+        this.waiting = new LongAdder();
+        this.executing = new LongAdder();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        this.waiting.increment();
+        try {
+            this.origin.execute(
+                () -> {
+                    this.waiting.decrement();
+                    this.executing.increment();
+                    try {
+                        task.run();
+                    } finally {
+                        this.executing.decrement();
+                    }
+                }
+            );
+        } catch (final RejectedExecutionException ex) {
+            this.waiting.decrement();
+            throw ex;
+        }
+    }
+
+    /**
+     * Shut down owned pool, tasks already submitted are completed.
+     * Does nothing for executor wrapping given one and for the shared instance.
+     */
+    @Override
+    public void close() {
+        if (this.owned && this.origin instanceof ExecutorService) {
+            ((ExecutorService) this.origin).shutdown();
+        }
+    }
+
+    /**
+     * Number of tasks waiting for execution.
+     *
+     * @return Queue depth.
+     */
+    public long pending() {
+        return this.waiting.sum();
+    }
+
+    /**
+     * Number of tasks being executed.
+     *
+     * @return Running tasks count.
+     */
+    public long running() {
+        return this.executing.sum();
+    }
+
+    /**
+     * Executor running every task in new virtual thread if JVM supports them,
+     * otherwise pool with bounded number of daemon threads.
+     *
+     * @param max Maximum number of pool threads.
+     * @return Executor.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static Executor threads(final int max) {
+        Executor executor;
+        try {
+            executor = (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+        // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final ReflectiveOperationException | RuntimeException ex) {
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                max, max,
+                BlockingExecutor.KEEP_ALIVE, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new Daemons()
+            );
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    /**
+     * Factory of named daemon threads.
+     *
+     * @since 1.3
+     */
+    private static final class Daemons implements ThreadFactory {
+
+        /**
+         * Threads counter.
+         */
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(
+                task, String.format("nuget-blocking-%d", Daemons.COUNTER.incrementAndGet())
+            );
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.nuget.metadata.Nuspec;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Repository that coalesces concurrent identical metadata reads.
+ * All concurrent callers reading versions or nuspec of the same package
+ * share single origin read. Nothing is cached after the read completes.
+ * Package content is not coalesced: every caller streams its own origin read,
+ * so whole packages are never held in memory.
+ *
+ * @since 1.3
+ */
+public final class CoalescingRepository implements Repository {
+
+    /**
+     * Origin repository.
+     */
+    private final Repository origin;
+
+    /**
+     * Versions reads in flight.
+     */
+    private final SingleFlight<Key, Versions> versions;
+
+    /**
+     * Nuspec reads in flight.
+     */
+    private final SingleFlight<Key, Nuspec> nuspecs;
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin repository.
+     */
+    public CoalescingRepository(final Repository origin) {
+        this.origin = origin;
+        this.versions = new SingleFlight<>();
+        this.nuspecs = new SingleFlight<>();
+    }
+
+    @Override
+    public CompletionStage<Optional<Content>> content(final Key key) {
+        return this.origin.content(key);
+    }
+
+    @Override
+    public CompletionStage<Optional<Long>> size(final Key key) {
+        return this.origin.size(key);
+    }
+
+    @Override
+    public CompletionStage<Void> add(final Content content) {
+        return this.origin.add(content);
+    }
+
+    @Override
+    public CompletionStage<Versions> versions(final PackageKeys id) {
+        return this.versions.call(id.versionsKey(), () -> this.origin.versions(id));
+    }
+
+    @Override
+    public CompletionStage<Nuspec> nuspec(final PackageIdentity identity) {
+        return this.nuspecs.call(identity.nuspecKey(), () -> this.origin.nuspec(identity));
+    }
+}
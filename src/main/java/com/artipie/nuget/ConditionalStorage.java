@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Storage supporting conditional writes: value is written only if it was not changed
+ * since it was read.
+ *
+ * @since 1.3
+ */
+public interface ConditionalStorage {
+
+    /**
+     * Read value with its revision.
+     *
+     * @param key Key.
+     * @return Value, empty if there is no value by the key.
+     */
+    CompletionStage<Optional<Value>> read(Key key);
+
+    /**
+     * Write value if current revision of the key is the expected one.
+     *
+     * @param key Key.
+     * @param expected Expected revision, empty if there should be no value by the key.
+     * @param bytes Value to write.
+     * @return True if value was written, false if revision did not match.
+     */
+    CompletionStage<Boolean> write(Key key, Optional<String> expected, byte[] bytes);
+
+    /**
+     * Value with its revision.
+     *
+     * @since 1.3
+     */
+    final class Value {
+
+        /**
+         * Value bytes.
+         */
+        private final byte[] data;
+
+        /**
+         * Revision.
+         */
+        private final String rev;
+
+        /**
+         * Ctor.
+         *
+         * @param data Value bytes.
+         * @param rev Revision.
+         */
+        public Value(final byte[] data, final String rev) {
+            this.data = Arrays.copyOf(data, data.length);
+            this.rev = rev;
+        }
+
+        /**
+         * Value bytes.
+         *
+         * @return Bytes.
+         */
+        public byte[] bytes() {
+            return Arrays.copyOf(this.data, this.data.length);
+        }
+
+        /**
+         * Value revision.
+         *
+         * @return Revision.
+         */
+        public String revision() {
+            return this.rev;
+        }
+    }
+
+    /**
+     * Conditional writes over {@link Storage} without native support of them.
+     * Revision is SHA-256 hash of value, current revisions of keys are kept in memory
+     * and write swaps expected revision for the new one with atomic compare-and-set
+     * before saving the value, so no lock is taken. Revision is restored if save fails.
+     * Writes are conditional only within this instance: storage shared by several
+     * processes needs an implementation backed by native conditional writes.
+     *
+     * @since 1.3
+     */
+    final class InProcess implements ConditionalStorage {
+
+        /**
+         * Revision of absent value.
+         */
+        private static final String ABSENT = "";
+
+        /**
+         * Storage.
+         */
+        private final Storage storage;
+
+        /**
+         * Current revisions by key.
+         */
+        private final ConcurrentMap<String, String> revisions;
+
+        /**
+         * Ctor.
+         *
+         * @param storage Storage.
+         */
+        public InProcess(final Storage storage) {
+            this.storage = storage;
+            this.revisions = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public CompletionStage<Optional<Value>> read(final Key key) {
+            return this.storage.exists(key).thenCompose(
+                exists -> {
+                    final CompletionStage<Optional<Value>> value;
+                    if (exists) {
+                        value = this.storage.value(key)
+                            .thenCompose(content -> new PublisherAs(content).bytes())
+                            .thenApply(
+                                bytes -> Optional.of(new Value(bytes, InProcess.hash(bytes)))
+                            );
+                    } else {
+                        value = CompletableFuture.completedFuture(Optional.empty());
+                    }
+                    return value;
+                }
+            );
+        }
+
+        @Override
+        public CompletionStage<Boolean> write(
+            final Key key, final Optional<String> expected, final byte[] bytes
+        ) {
+            final String previous = expected.orElse(InProcess.ABSENT);
+            final String next = InProcess.hash(bytes);
+            return this.revision(key).thenCompose(
+                ignored -> {
+                    final CompletionStage<Boolean> written;
+                    if (this.revisions.replace(key.string(), previous, next)) {
+                        written = this.storage.save(key, new Content.From(bytes)).handle(
+                            (nothing, err) -> {
+                                if (err != null) {
+                                    this.revisions.replace(key.string(), next, previous);
+                                    throw new CompletionException(err);
+                                }
+                                return true;
+                            }
+                        );
+                    } else {
+                        written = CompletableFuture.completedFuture(false);
+                    }
+                    return written;
+                }
+            );
+        }
+
+        /**
+         * Current revision of the key, read from storage on first access.
+         *
+         * @param key Key.
+         * @return Revision, {@link #ABSENT} if there is no value by the key.
+         */
+        private CompletionStage<String> revision(final Key key) {
+            final String rev = this.revisions.get(key.string());
+            final CompletionStage<String> result;
+            if (rev == null) {
+                result = this.read(key).thenApply(
+                    value -> {
+                        this.revisions.putIfAbsent(
+                            key.string(), value.map(Value::revision).orElse(InProcess.ABSENT)
+                        );
+                        return this.revisions.get(key.string());
+                    }
+                );
+            } else {
+                result = CompletableFuture.completedFuture(rev);
+            }
+            return result;
+        }
+
+        /**
+         * Revision of value.
+         *
+         * @param bytes Value bytes.
+         * @return Hex encoded SHA-256 hash.
+         */
+        private static String hash(final byte[] bytes) {
+            try {
+                return new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(bytes))
+                    .toString(16);
+            } catch (final NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 is not supported", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+
+/**
+ * Content processed as blocking {@link InputStream} in given executor.
+ * Unlike {@link com.artipie.asto.streams.ContentAsStream} it does not use
+ * common fork-join pool, the stream is read only by executor thread and
+ * content chunks are requested as the stream is read.
+ *
+ * @param <T> Result type.
+ * @since 1.3
+ */
+final class ContentAsBlockingStream<T> {
+
+    /**
+     * Number of chunks requested from content ahead of reading.
+     */
+    private static final int PREFETCH = 4;
+
+    /**
+     * Content.
+     */
+    private final Publisher<ByteBuffer> content;
+
+    /**
+     * Executor for blocking processing.
+     */
+    private final Executor executor;
+
+    /**
+     * Ctor.
+     *
+     * @param content Content.
+     * @param executor Executor for blocking processing.
+     */
+    ContentAsBlockingStream(final Publisher<ByteBuffer> content, final Executor executor) {
+        this.content = content;
+        this.executor = executor;
+    }
+
+    /**
+     * Process content as input stream.
+     * Content not read by the processor is cancelled when processing is finished.
+     *
+     * @param processor Processor of the stream.
+     * @return Result of processing.
+     */
+    CompletionStage<T> process(final Function<InputStream, T> processor) {
+        return CompletableFuture.supplyAsync(
+            () -> {
+                try (ChunksStream input = new ChunksStream(
+                    Flowable.fromPublisher(this.content)
+                        .blockingIterable(ContentAsBlockingStream.PREFETCH)
+                        .iterator()
+                )) {
+                    return processor.apply(input);
+                }
+            },
+            this.executor
+        );
+    }
+
+    /**
+     * Input stream reading chunks of bytes.
+     *
+     * @since 1.3
+     */
+    private static final class ChunksStream extends InputStream {
+
+        /**
+         * Chunks.
+         */
+        private final Iterator<ByteBuffer> chunks;
+
+        /**
+         * Current chunk.
+         */
+        private ByteBuffer chunk;
+
+        /**
+         * Ctor.
+         *
+         * @param chunks Chunks.
+         */
+        ChunksStream(final Iterator<ByteBuffer> chunks) {
+            super();
+            this.chunks = chunks;
+            this.chunk = ByteBuffer.allocate(0);
+        }
+
+        @Override
+        public int read() {
+            final int result;
+            if (this.next()) {
+                result = this.chunk.get() & 0xFF;
+            } else {
+                result = -1;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int off, final int len) {
+            final int result;
+            if (len == 0) {
+                result = 0;
+            } else if (this.next()) {
+                result = Math.min(len, this.chunk.remaining());
+                this.chunk.get(bytes, off, result);
+            } else {
+                result = -1;
+            }
+            return result;
+        }
+
+        @Override
+        public int available() {
+            return this.chunk.remaining();
+        }
+
+        @Override
+        public void close() {
+            if (this.chunks instanceof Disposable) {
+                ((Disposable) this.chunks).dispose();
+            }
+        }
+
+        /**
+         * Move to next chunk having remaining bytes, if current one is read.
+         *
+         * @return True if there are bytes to read.
+         */
+        private boolean next() {
+            while (!this.chunk.hasRemaining() && this.chunks.hasNext()) {
+                this.chunk = this.chunks.next().duplicate();
+            }
+            return this.chunk.hasRemaining();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.nuget.metadata.NuspecField;
+
+/**
+ * Package downloads counters.
+ *
+ * @since 1.3
+ */
+public interface Downloads {
+
+    /**
+     * Counters that count nothing.
+     */
+    Downloads NONE = new Downloads() {
+        @Override
+        public void increment(final NuspecField id, final NuspecField version) {
+            // nothing to count
+        }
+
+        @Override
+        public long count(final NuspecField id, final NuspecField version) {
+            return 0L;
+        }
+    };
+
+    /**
+     * Count single download of package version.
+     *
+     * @param id Package id.
+     * @param version Package version.
+     */
+    void increment(NuspecField id, NuspecField version);
+
+    /**
+     * Number of downloads of package version.
+     *
+     * @param id Package id.
+     * @param version Package version.
+     * @return Downloads count.
+     */
+    long count(NuspecField id, NuspecField version);
+}
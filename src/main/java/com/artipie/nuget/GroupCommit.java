@@ -0,0 +1,262 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit of package modifications.
+ * Items submitted for same package while previous commit of the package is running
+ * are committed together as single batch, with single lock acquisition.
+ * No timer is involved: a batch starts right away when package is idle,
+ * so single publish is not delayed.
+ * Every item is completed individually after the batch is committed:
+ * commit may fail single item with {@link Item#fail(Throwable)},
+ * other items are completed with the batch result.
+ * Part of commit which does not need the lock, such as optimistic update,
+ * runs for items which did not fail after the lock is released,
+ * so the next batch of the package does not wait for it.
+ *
+ * @param <T> Item type.
+ * @since 1.3
+ */
+final class GroupCommit<T> {
+
+    /**
+     * Lock guarding modifications of package.
+     */
+    private final PackageLock lock;
+
+    /**
+     * Commit of batch of items, runs exclusively for package.
+     */
+    private final BiFunction<Storage, List<Item<T>>, CompletionStage<Void>> commit;
+
+    /**
+     * Commit of items which did not fail, runs after the lock is released.
+     */
+    private final Function<List<Item<T>>, CompletionStage<Void>> unlocked;
+
+    /**
+     * Queues of items waiting for commit by package key.
+     */
+    private final ConcurrentMap<String, Queue<T>> queues;
+
+    /**
+     * Ctor.
+     *
+     * @param lock Lock guarding modifications of package.
+     * @param commit Commit of batch of items, runs exclusively for package.
+     */
+    GroupCommit(
+        final PackageLock lock,
+        final BiFunction<Storage, List<Item<T>>, CompletionStage<Void>> commit
+    ) {
+        this(lock, commit, batch -> CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param lock Lock guarding modifications of package.
+     * @param commit Commit of batch of items, runs exclusively for package.
+     * @param unlocked Commit of items which did not fail, runs after the lock is released.
+     */
+    GroupCommit(
+        final PackageLock lock,
+        final BiFunction<Storage, List<Item<T>>, CompletionStage<Void>> commit,
+        final Function<List<Item<T>>, CompletionStage<Void>> unlocked
+    ) {
+        this.lock = lock;
+        this.commit = commit;
+        this.unlocked = unlocked;
+        this.queues = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Submit item for commit.
+     *
+     * @param pkg Root key of package.
+     * @param value Item to commit.
+     * @return Completion of item commit.
+     */
+    CompletionStage<Void> submit(final Key pkg, final T value) {
+        final Item<T> item = new Item<>(value);
+        final boolean[] start = new boolean[1];
+        this.queues.compute(
+            pkg.string(),
+            (key, existing) -> {
+                final Queue<T> queue;
+                if (existing == null) {
+                    queue = new Queue<>();
+                } else {
+                    queue = existing;
+                }
+                queue.items.add(item);
+                if (!queue.running) {
+                    queue.running = true;
+                    start[0] = true;
+                }
+                return queue;
+            }
+        );
+        if (start[0]) {
+            this.drain(pkg);
+        }
+        return item.result;
+    }
+
+    /**
+     * Commit batches of items queued for package until the queue is empty.
+     *
+     * @param pkg Root key of package.
+     */
+    private void drain(final Key pkg) {
+        final List<Item<T>> batch = new ArrayList<>(0);
+        this.queues.compute(
+            pkg.string(),
+            (key, queue) -> {
+                final Queue<T> result;
+                if (queue.items.isEmpty()) {
+                    result = null;
+                } else {
+                    batch.addAll(queue.items);
+                    queue.items.clear();
+                    result = queue;
+                }
+                return result;
+            }
+        );
+        if (!batch.isEmpty()) {
+            CompletableFuture.completedFuture(null)
+                .thenCompose(
+                    nothing -> this.lock.exclusively(
+                        pkg, target -> this.commit.apply(target, batch)
+                    )
+                ).whenComplete(
+                    (nothing, err) -> {
+                        this.drain(pkg);
+                        final CompletionStage<Void> done;
+                        if (err == null) {
+                            done = CompletableFuture.completedFuture(null).thenCompose(
+                                ignored -> this.unlocked.apply(
+                                    batch.stream().filter(item -> item.error == null)
+                                        .collect(Collectors.toList())
+                                )
+                            );
+                        } else {
+                            final CompletableFuture<Void> failed = new CompletableFuture<>();
+                            failed.completeExceptionally(err);
+                            done = failed;
+                        }
+                        done.whenComplete(
+                            (ignored, error) -> {
+                                for (final Item<T> item : batch) {
+                                    item.complete(error);
+                                }
+                            }
+                        );
+                    }
+                );
+        }
+    }
+
+    /**
+     * Item submitted for commit.
+     *
+     * @param <T> Item type.
+     * @since 1.3
+     */
+    static final class Item<T> {
+
+        /**
+         * Item value.
+         */
+        private final T value;
+
+        /**
+         * Completion of item commit.
+         */
+        private final CompletableFuture<Void> result;
+
+        /**
+         * Failure of this item only.
+         */
+        private volatile Throwable error;
+
+        /**
+         * Ctor.
+         *
+         * @param value Item value.
+         */
+        Item(final T value) {
+            this.value = value;
+            this.result = new CompletableFuture<>();
+        }
+
+        /**
+         * Item value.
+         *
+         * @return Value.
+         */
+        T value() {
+            return this.value;
+        }
+
+        /**
+         * Fail commit of this item only.
+         * Item is completed with the failure when whole batch is committed.
+         *
+         * @param err Failure.
+         */
+        void fail(final Throwable err) {
+            this.error = err;
+        }
+
+        /**
+         * Complete item after batch commit.
+         *
+         * @param err Failure of batch commit, null if batch was committed.
+         */
+        private void complete(final Throwable err) {
+            if (this.error != null) {
+                this.result.completeExceptionally(this.error);
+            } else if (err != null) {
+                this.result.completeExceptionally(err);
+            } else {
+                this.result.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Queue of items of package.
+     *
+     * @param <T> Item type.
+     * @since 1.3
+     */
+    private static final class Queue<T> {
+
+        /**
+         * Items waiting for commit.
+         */
+        private final List<Item<T>> items = new ArrayList<>(1);
+
+        /**
+         * Is commit running.
+         */
+        private boolean running;
+    }
+}
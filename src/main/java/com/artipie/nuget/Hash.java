@@ -9,9 +9,15 @@ import com.artipie.asto.Content;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.ext.Digests;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import org.reactivestreams.Publisher;
 
 /**
@@ -26,6 +32,12 @@ public final class Hash {
      */
     private final Publisher<ByteBuffer> value;
 
+    /**
+     * Executor to calculate hash in, if hash should not be calculated
+     * by thread publishing the bytes.
+     */
+    private final Optional<Executor> executor;
+
     /**
      * Ctor.
      *
@@ -33,6 +45,18 @@ public final class Hash {
      */
     public Hash(final Publisher<ByteBuffer> value) {
         this.value = value;
+        this.executor = Optional.empty();
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param value Bytes to calculate hash code value from.
+     * @param executor Executor for blocking hash calculation.
+     */
+    public Hash(final Publisher<ByteBuffer> value, final Executor executor) {
+        this.value = value;
+        this.executor = Optional.of(executor);
     }
 
     /**
@@ -43,12 +67,44 @@ public final class Hash {
      * @return Completion of save operation.
      */
     public CompletionStage<Void> save(final Storage storage, final PackageIdentity identity) {
-        return
-            new ContentDigest(this.value, Digests.SHA512).bytes().thenCompose(
-                bytes -> storage.save(
-                    identity.hashKey(),
-                    new Content.From(Base64.getEncoder().encode(bytes))
-                )
+        return this.bytes().thenCompose(
+            bytes -> storage.save(
+                identity.hashKey(),
+                new Content.From(Base64.getEncoder().encode(bytes))
+            )
         );
     }
+
+    /**
+     * Calculate SHA-512 digest of bytes.
+     *
+     * @return Digest.
+     */
+    public CompletionStage<byte[]> bytes() {
+        return this.executor.map(
+            exec -> new ContentAsBlockingStream<byte[]>(this.value, exec).process(Hash::digest)
+        ).orElseGet(() -> new ContentDigest(this.value, Digests.SHA512).bytes());
+    }
+
+    /**
+     * Calculate SHA-512 digest of stream.
+     *
+     * @param input Input stream.
+     * @return Digest.
+     */
+    private static byte[] digest(final InputStream input) {
+        final MessageDigest digest = Digests.SHA512.get();
+        // @checkstyle MagicNumberCheck (1 line)
+        final byte[] buf = new byte[8192];
+        try {
+            int read = input.read(buf);
+            while (read >= 0) {
+                digest.update(buf, 0, read);
+                read = input.read(buf);
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return digest.digest();
+    }
 }
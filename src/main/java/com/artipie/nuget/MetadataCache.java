@@ -0,0 +1,342 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache of metadata loaded from upstream.
+ * Loaded value is fresh for fresh period, then it is stale for stale period:
+ * stale value is returned immediately while single background load refreshes it,
+ * failed refresh keeps stale value. Absent value is cached as negative entry
+ * for negative period and is not served stale. Load errors are not cached.
+ * Concurrent loads of the same key share single upstream load.
+ * Number of cached entries is bounded, least recently used entries are evicted
+ * above the bound and expired entries are dropped as cache is used.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @since 1.3
+ */
+public final class MetadataCache<K, V> {
+
+    /**
+     * Default fresh period.
+     */
+    private static final Duration FRESH = Duration.ofMinutes(10);
+
+    /**
+     * Default stale period.
+     */
+    private static final Duration STALE = Duration.ofHours(24);
+
+    /**
+     * Default negative period.
+     */
+    private static final Duration NEGATIVE = Duration.ofMinutes(5);
+
+    /**
+     * Default maximum number of cached entries.
+     */
+    private static final long MAX_SIZE = 100_000L;
+
+    /**
+     * Fresh period.
+     */
+    private final Duration fresh;
+
+    /**
+     * Stale period.
+     */
+    private final Duration stale;
+
+    /**
+     * Negative period.
+     */
+    private final Duration negative;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Cached entries.
+     */
+    private final Cache<K, Cached<V>> entries;
+
+    /**
+     * Loads in flight.
+     */
+    private final SingleFlight<K, Optional<V>> loads;
+
+    /**
+     * Fresh and negative entries served.
+     */
+    private final LongAdder fresher;
+
+    /**
+     * Stale entries served.
+     */
+    private final LongAdder staler;
+
+    /**
+     * Values loaded by callers waiting for them.
+     */
+    private final LongAdder missed;
+
+    /**
+     * Background refreshes started.
+     */
+    private final LongAdder refreshed;
+
+    /**
+     * Ctor.
+     */
+    public MetadataCache() {
+        this(MetadataCache.FRESH, MetadataCache.STALE, MetadataCache.NEGATIVE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param fresh Period loaded value is served without refresh.
+     * @param stale Period after fresh one stale value is served while it is refreshed.
+     * @param negative Period absent value is served without load.
+     */
+    public MetadataCache(final Duration fresh, final Duration stale, final Duration negative) {
+        this(fresh, stale, negative, MetadataCache.MAX_SIZE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param fresh Period loaded value is served without refresh.
+     * @param stale Period after fresh one stale value is served while it is refreshed.
+     * @param negative Period absent value is served without load.
+     * @param size Maximum number of cached entries.
+     */
+    public MetadataCache(
+        final Duration fresh, final Duration stale, final Duration negative, final long size
+    ) {
+        this(fresh, stale, negative, size, Clock.systemUTC());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param fresh Period loaded value is served without refresh.
+     * @param stale Period after fresh one stale value is served while it is refreshed.
+     * @param negative Period absent value is served without load.
+     * @param clock Clock.
+     */
+    public MetadataCache(
+        final Duration fresh,
+        final Duration stale,
+        final Duration negative,
+        final Clock clock
+    ) {
+        this(fresh, stale, negative, MetadataCache.MAX_SIZE, clock);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param fresh Period loaded value is served without refresh.
+     * @param stale Period after fresh one stale value is served while it is refreshed.
+     * @param negative Period absent value is served without load.
+     * @param size Maximum number of cached entries.
+     * @param clock Clock.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public MetadataCache(
+        final Duration fresh,
+        final Duration stale,
+        final Duration negative,
+        final long size,
+        final Clock clock
+    ) {
+        this.fresh = fresh;
+        this.stale = stale;
+        this.negative = negative;
+        this.clock = clock;
+        final Duration ttl = fresh.plus(stale);
+        this.entries = CacheBuilder.newBuilder()
+            .maximumSize(size)
+            .expireAfterWrite(
+                Collections.max(Arrays.asList(ttl, negative)).toNanos(), TimeUnit.NANOSECONDS
+            )
+            .ticker(
+                new Ticker() {
+                    @Override
+                    public long read() {
+                        final Instant now = clock.instant();
+                        return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+                    }
+                }
+            )
+            .build();
+        this.loads = new SingleFlight<>();
+        this.fresher = new LongAdder();
+        this.staler = new LongAdder();
+        this.missed = new LongAdder();
+        this.refreshed = new LongAdder();
+    }
+
+    /**
+     * Get cached value or load it.
+     *
+     * @param key Key.
+     * @param loader Loader of value, empty value means upstream does not have it.
+     * @return Value, empty if upstream does not have it.
+     */
+    public CompletionStage<Optional<V>> get(
+        final K key,
+        final Supplier<? extends CompletionStage<Optional<V>>> loader
+    ) {
+        final Cached<V> cached = this.entries.getIfPresent(key);
+        final Instant now = this.clock.instant();
+        final CompletionStage<Optional<V>> result;
+        if (cached != null && now.isBefore(cached.fresh)) {
+            this.fresher.increment();
+            result = CompletableFuture.completedFuture(cached.value);
+        } else if (cached != null && now.isBefore(cached.stale)) {
+            this.staler.increment();
+            this.loads.call(
+                key,
+                () -> {
+                    this.refreshed.increment();
+                    return this.load(key, loader);
+                }
+            );
+            result = CompletableFuture.completedFuture(cached.value);
+        } else {
+            this.missed.increment();
+            result = this.loads.call(key, () -> this.load(key, loader));
+        }
+        return result;
+    }
+
+    /**
+     * Drop cached value, so next get loads it.
+     *
+     * @param key Key.
+     */
+    public void invalidate(final K key) {
+        this.entries.invalidate(key);
+    }
+
+    /**
+     * Number of fresh and negative entries served without load.
+     *
+     * @return Hits count.
+     */
+    public long hits() {
+        return this.fresher.sum();
+    }
+
+    /**
+     * Number of stale entries served while being refreshed.
+     *
+     * @return Stale serves count.
+     */
+    public long stale() {
+        return this.staler.sum();
+    }
+
+    /**
+     * Number of gets waiting for value to be loaded.
+     *
+     * @return Misses count.
+     */
+    public long misses() {
+        return this.missed.sum();
+    }
+
+    /**
+     * Number of background refreshes of stale entries.
+     *
+     * @return Refreshes count.
+     */
+    public long refreshes() {
+        return this.refreshed.sum();
+    }
+
+    /**
+     * Load value and cache it.
+     *
+     * @param key Key.
+     * @param loader Loader.
+     * @return Loaded value.
+     */
+    private CompletionStage<Optional<V>> load(
+        final K key,
+        final Supplier<? extends CompletionStage<Optional<V>>> loader
+    ) {
+        return loader.get().thenApply(
+            value -> {
+                final Instant now = this.clock.instant();
+                if (value.isPresent()) {
+                    final Instant until = now.plus(this.fresh);
+                    this.entries.put(key, new Cached<>(value, until, until.plus(this.stale)));
+                } else {
+                    final Instant until = now.plus(this.negative);
+                    this.entries.put(key, new Cached<>(value, until, until));
+                }
+                return value;
+            }
+        );
+    }
+
+    /**
+     * Cached value.
+     *
+     * @param <V> Value type.
+     * @since 1.3
+     */
+    private static final class Cached<V> {
+
+        /**
+         * Value.
+         */
+        private final Optional<V> value;
+
+        /**
+         * Time value is fresh until.
+         */
+        private final Instant fresh;
+
+        /**
+         * Time value may be served stale until.
+         */
+        private final Instant stale;
+
+        /**
+         * Ctor.
+         *
+         * @param value Value.
+         * @param fresh Time value is fresh until.
+         * @param stale Time value may be served stale until.
+         */
+        Cached(final Optional<V> value, final Instant fresh, final Instant stale) {
+            this.value = value;
+            this.fresh = fresh;
+            this.stale = stale;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.UnaryOperator;
+import javax.json.Json;
+import javax.json.JsonReader;
+
+/**
+ * Versions index updated optimistically:
+ * index is read with its revision, changed and written only if revision is still the same,
+ * update is retried from reading if the index was changed concurrently.
+ *
+ * @since 1.3
+ */
+public final class OptimisticVersions {
+
+    /**
+     * Default maximum number of update attempts.
+     */
+    private static final int ATTEMPTS = 16;
+
+    /**
+     * Storage with conditional writes.
+     */
+    private final ConditionalStorage storage;
+
+    /**
+     * Maximum number of update attempts.
+     */
+    private final int attempts;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage with conditional writes.
+     */
+    public OptimisticVersions(final ConditionalStorage storage) {
+        this(storage, OptimisticVersions.ATTEMPTS);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage with conditional writes.
+     * @param attempts Maximum number of update attempts.
+     */
+    public OptimisticVersions(final ConditionalStorage storage, final int attempts) {
+        this.storage = storage;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Update versions index.
+     *
+     * @param key Versions index key.
+     * @param change Change of versions, may be applied more than once on conflicts.
+     * @return Updated versions.
+     */
+    public CompletionStage<Versions> update(
+        final Key key, final UnaryOperator<Versions> change
+    ) {
+        return this.update(key, change, 1);
+    }
+
+    /**
+     * Update versions index.
+     *
+     * @param key Versions index key.
+     * @param change Change of versions.
+     * @param attempt Number of current attempt.
+     * @return Updated versions.
+     */
+    private CompletionStage<Versions> update(
+        final Key key, final UnaryOperator<Versions> change, final int attempt
+    ) {
+        return this.storage.read(key).thenCompose(
+            current -> {
+                final Versions updated = change.apply(
+                    current.map(value -> OptimisticVersions.versions(value.bytes()))
+                        .orElseGet(Versions::new)
+                );
+                return this.storage.write(
+                    key, current.map(ConditionalStorage.Value::revision), updated.bytes()
+                ).thenCompose(
+                    written -> {
+                        final CompletionStage<Versions> result;
+                        if (written) {
+                            result = CompletableFuture.completedFuture(updated);
+                        } else if (attempt < this.attempts) {
+                            result = this.update(key, change, attempt + 1);
+                        } else {
+                            final CompletableFuture<Versions> failed = new CompletableFuture<>();
+                            failed.completeExceptionally(
+                                new IllegalStateException(
+                                    String.format(
+                                        "Failed to update '%s' after %d attempts",
+                                        key.string(), attempt
+                                    )
+                                )
+                            );
+                            result = failed;
+                        }
+                        return result;
+                    }
+                );
+            }
+        );
+    }
+
+    /**
+     * Parse versions.
+     *
+     * @param bytes Versions JSON bytes.
+     * @return Versions.
+     */
+    private static Versions versions(final byte[] bytes) {
+        try (JsonReader reader = Json.createReader(new ByteArrayInputStream(bytes))) {
+            return new Versions(reader.readObject());
+        }
+    }
+}
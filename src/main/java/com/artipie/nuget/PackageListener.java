@@ -0,0 +1,28 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.nuget.metadata.Nuspec;
+
+/**
+ * Listener of packages published to repository.
+ *
+ * @since 1.3
+ */
+public interface PackageListener {
+
+    /**
+     * Listener that ignores everything.
+     */
+    PackageListener NONE = nuspec -> { };
+
+    /**
+     * Package version was published to repository.
+     * Called after the version was added to versions index.
+     *
+     * @param nuspec Nuspec of published package version.
+     */
+    void published(Nuspec nuspec);
+}
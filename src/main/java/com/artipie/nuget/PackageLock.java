@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Lock guarding modifications of single package.
+ *
+ * @since 1.3
+ */
+public interface PackageLock {
+
+    /**
+     * Run operation exclusively for package.
+     *
+     * @param pkg Root key of package.
+     * @param operation Operation to run with storage.
+     * @param <T> Operation result type.
+     * @return Operation result.
+     */
+    <T> CompletionStage<T> exclusively(
+        Key pkg, Function<Storage, CompletionStage<T>> operation
+    );
+
+    /**
+     * Lock held in process memory, for single node deployments.
+     * Operations on same package are queued and run one after another,
+     * operations on different packages never wait for each other.
+     *
+     * @since 1.3
+     */
+    final class InProcess implements PackageLock {
+
+        /**
+         * Storage.
+         */
+        private final Storage storage;
+
+        /**
+         * Completion of last queued operation by package key.
+         */
+        private final ConcurrentMap<String, CompletableFuture<Void>> tails;
+
+        /**
+         * Ctor.
+         *
+         * @param storage Storage.
+         */
+        public InProcess(final Storage storage) {
+            this.storage = storage;
+            this.tails = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public <T> CompletionStage<T> exclusively(
+            final Key pkg, final Function<Storage, CompletionStage<T>> operation
+        ) {
+            final String key = pkg.string();
+            final CompletableFuture<Void> done = new CompletableFuture<>();
+            final CompletableFuture<Void> previous = this.tails.put(key, done);
+            final CompletableFuture<Void> ready;
+            if (previous == null) {
+                ready = CompletableFuture.completedFuture(null);
+            } else {
+                ready = previous;
+            }
+            return ready.thenCompose(nothing -> operation.apply(this.storage)).whenComplete(
+                (res, err) -> {
+                    this.tails.remove(key, done);
+                    done.complete(null);
+                }
+            );
+        }
+
+        /**
+         * Number of packages having operations running or queued.
+         *
+         * @return Packages count.
+         */
+        public int locked() {
+            return this.tails.size();
+        }
+    }
+
+    /**
+     * Lock provided by storage, for clustered deployments
+     * with many nodes sharing same storage.
+     * Fails operation if package is locked by another operation.
+     *
+     * @since 1.3
+     */
+    final class Distributed implements PackageLock {
+
+        /**
+         * Storage.
+         */
+        private final Storage storage;
+
+        /**
+         * Ctor.
+         *
+         * @param storage Storage.
+         */
+        public Distributed(final Storage storage) {
+            this.storage = storage;
+        }
+
+        @Override
+        public <T> CompletionStage<T> exclusively(
+            final Key pkg, final Function<Storage, CompletionStage<T>> operation
+        ) {
+            return this.storage.exclusively(pkg, operation);
+        }
+    }
+}
@@ -0,0 +1,568 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.nuget.http.StreamedContent;
+import com.artipie.nuget.metadata.Nuspec;
+import com.artipie.nuget.metadata.NuspecField;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import javax.json.Json;
+import javax.json.JsonObject;
+
+/**
+ * Repository proxying upstream NuGet feed, such as nuget.org.
+ * Package files missing in local repository are fetched from upstream
+ * package base address found in upstream service index, fetched packages
+ * are added to local repository, so they are stored in the same layout
+ * as pushed ones and are read locally afterwards.
+ * Versions of package are local versions together with versions listed by upstream.
+ * Nuspec of version listed upstream but not fetched yet has id and version only,
+ * that is enough for registration leaf, so package is fetched only when its
+ * content, size or hash is requested.
+ * Upstream versions listings are kept in metadata cache: package unknown upstream
+ * is cached as negative entry, so its files are not requested from upstream
+ * until the entry expires, and stale listing is served while it is refreshed.
+ * Concurrent misses of the same package share single upstream fetch.
+ * Upstream connection is closed once response is consumed or its consumer fails.
+ * Response bodies are streamed in executor separate from upstream requests executor,
+ * by default single one shared by all proxies, so streaming writer never waits
+ * for demand from tasks queued behind it in upstream requests executor,
+ * which may be shared with local repository.
+ *
+ * @since 1.3
+ */
+public final class ProxyRepository implements Repository {
+
+    /**
+     * Type of upstream package base address resource.
+     */
+    private static final String BASE_ADDRESS = "PackageBaseAddress/3.0.0";
+
+    /**
+     * Upstream connect timeout, milliseconds.
+     */
+    private static final int CONNECT_TIMEOUT = 10_000;
+
+    /**
+     * Upstream read timeout, milliseconds.
+     */
+    private static final int READ_TIMEOUT = 60_000;
+
+    /**
+     * Executor streaming upstream response bodies of proxies constructed without one.
+     */
+    private static final BlockingExecutor STREAMS = new BlockingExecutor();
+
+    /**
+     * Upstream service index URL.
+     */
+    private final URL index;
+
+    /**
+     * Local repository.
+     */
+    private final Repository local;
+
+    /**
+     * Executor for blocking upstream requests.
+     */
+    private final Executor executor;
+
+    /**
+     * Executor for streaming upstream response bodies.
+     */
+    private final Executor streams;
+
+    /**
+     * Upstream package base address, resolved once.
+     */
+    private final AtomicReference<CompletableFuture<String>> base;
+
+    /**
+     * Package fetches in flight by package key.
+     */
+    private final SingleFlight<Key, Boolean> fetches;
+
+    /**
+     * Upstream versions listings by versions key.
+     */
+    private final MetadataCache<Key, Versions> listings;
+
+    /**
+     * Ctor.
+     *
+     * @param index Upstream service index URL.
+     * @param storage Storage for fetched packages.
+     */
+    public ProxyRepository(final URL index, final Storage storage) {
+        this(index, new AstoRepository(storage), BlockingExecutor.SHARED);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param index Upstream service index URL.
+     * @param local Local repository to add fetched packages to.
+     * @param executor Executor for blocking upstream requests.
+     */
+    public ProxyRepository(final URL index, final Repository local, final Executor executor) {
+        this(index, local, executor, new MetadataCache<>());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param index Upstream service index URL.
+     * @param local Local repository to add fetched packages to.
+     * @param executor Executor for blocking upstream requests.
+     * @param listings Cache of upstream versions listings.
+     */
+    public ProxyRepository(
+        final URL index,
+        final Repository local,
+        final Executor executor,
+        final MetadataCache<Key, Versions> listings
+    ) {
+        this(index, local, executor, ProxyRepository.STREAMS, listings);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param index Upstream service index URL.
+     * @param local Local repository to add fetched packages to.
+     * @param executor Executor for blocking upstream requests.
+     * @param streams Executor for streaming upstream response bodies.
+     * @param listings Cache of upstream versions listings.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public ProxyRepository(
+        final URL index,
+        final Repository local,
+        final Executor executor,
+        final Executor streams,
+        final MetadataCache<Key, Versions> listings
+    ) {
+        this.index = index;
+        this.local = local;
+        this.executor = executor;
+        this.streams = streams;
+        this.base = new AtomicReference<>();
+        this.fetches = new SingleFlight<>();
+        this.listings = listings;
+    }
+
+    @Override
+    public CompletionStage<Optional<Content>> content(final Key key) {
+        return this.local.content(key).thenCompose(
+            existing -> {
+                final CompletionStage<Optional<Content>> result;
+                final Optional<PackageIdentity> identity = ProxyRepository.identity(key);
+                if (existing.isPresent() || !identity.isPresent()) {
+                    result = CompletableFuture.completedFuture(existing);
+                } else {
+                    result = this.fetch(identity.get()).thenCompose(
+                        fetched -> this.local.content(key)
+                    );
+                }
+                return result;
+            }
+        );
+    }
+
+    @Override
+    public CompletionStage<Optional<Long>> size(final Key key) {
+        return this.local.size(key).thenCompose(
+            existing -> {
+                final CompletionStage<Optional<Long>> result;
+                final Optional<PackageIdentity> identity = ProxyRepository.identity(key);
+                if (existing.isPresent() || !identity.isPresent()) {
+                    result = CompletableFuture.completedFuture(existing);
+                } else {
+                    result = this.fetch(identity.get()).thenCompose(
+                        fetched -> this.local.size(key)
+                    );
+                }
+                return result;
+            }
+        );
+    }
+
+    @Override
+    public CompletionStage<Void> add(final Content content) {
+        return this.local.add(content);
+    }
+
+    @Override
+    public CompletionStage<Versions> versions(final PackageKeys id) {
+        return this.local.versions(id).thenCombine(
+            this.listing(id).exceptionally(error -> Optional.empty()),
+            (versions, upstream) -> {
+                final Set<String> known = new HashSet<>();
+                for (final NuspecField version : versions.all()) {
+                    known.add(version.normalized());
+                }
+                Versions merged = versions;
+                for (final NuspecField version : upstream.map(Versions::all)
+                    .orElseGet(Collections::emptyList)) {
+                    if (known.add(version.normalized())) {
+                        merged = merged.add(version);
+                    }
+                }
+                return merged;
+            }
+        );
+    }
+
+    @Override
+    public CompletionStage<Nuspec> nuspec(final PackageIdentity identity) {
+        final List<String> parts = identity.rootKey().parts();
+        return this.local.size(identity.nuspecKey()).thenCompose(
+            existing -> {
+                final CompletionStage<Boolean> listed;
+                if (existing.isPresent()) {
+                    listed = CompletableFuture.completedFuture(false);
+                } else {
+                    listed = this.listing(new PackageKeys(parts.get(0)))
+                        .exceptionally(error -> Optional.empty())
+                        .thenApply(
+                            upstream -> upstream.map(Versions::all)
+                                .orElseGet(Collections::emptyList)
+                                .stream()
+                                .anyMatch(version -> version.normalized().equals(parts.get(1)))
+                        );
+                }
+                return listed;
+            }
+        ).thenCompose(
+            listed -> {
+                final CompletionStage<Nuspec> nuspec;
+                if (listed) {
+                    nuspec = CompletableFuture.completedFuture(
+                        new Nuspec.Xml(
+                            String.format(
+                                String.join(
+                                    "",
+                                    "<?xml version=\"1.0\" encoding=\"utf-8\"?>",
+                                    "<package><metadata><id>%s</id><version>%s</version>",
+                                    "</metadata></package>"
+                                ),
+                                parts.get(0), parts.get(1)
+                            ).getBytes(StandardCharsets.UTF_8)
+                        )
+                    );
+                } else {
+                    nuspec = this.local.nuspec(identity);
+                }
+                return nuspec;
+            }
+        );
+    }
+
+    /**
+     * Fetch package from upstream and add it to local repository.
+     * Package is not requested if upstream does not list its id.
+     * Package added concurrently by someone else counts as fetched.
+     *
+     * @param identity Package identity.
+     * @return Completion with true if package was found upstream.
+     */
+    private CompletionStage<Boolean> fetch(final PackageIdentity identity) {
+        return this.fetches.call(
+            identity.nupkgKey(),
+            () -> this.listing(
+                new PackageKeys(identity.rootKey().parts().get(0))
+            ).thenCompose(
+                listed -> {
+                    final CompletionStage<Boolean> fetched;
+                    if (listed.isPresent()) {
+                        fetched = this.address().thenCompose(
+                            address -> this.get(
+                                String.format("%s/%s", address, identity.nupkgKey().string()),
+                                nupkg -> this.add(identity, nupkg)
+                            )
+                        );
+                    } else {
+                        fetched = CompletableFuture.completedFuture(false);
+                    }
+                    return fetched;
+                }
+            )
+        );
+    }
+
+    /**
+     * Add package fetched from upstream to local repository.
+     * Package added concurrently by someone else counts as added.
+     *
+     * @param identity Package identity.
+     * @param nupkg Package content, empty if upstream does not have it.
+     * @return Completion with true if package was added.
+     */
+    private CompletionStage<Boolean> add(
+        final PackageIdentity identity, final Optional<Content> nupkg
+    ) {
+        final CompletionStage<Boolean> added;
+        if (nupkg.isPresent()) {
+            added = this.local.add(nupkg.get()).handle(
+                (nothing, error) -> {
+                    if (error != null && !ProxyRepository.exists(error)) {
+                        throw new IllegalStateException(
+                            String.format("Failed to add package %s", identity),
+                            error
+                        );
+                    }
+                    return true;
+                }
+            );
+        } else {
+            added = CompletableFuture.completedFuture(false);
+        }
+        return added;
+    }
+
+    /**
+     * Versions of package listed by upstream, from cache if possible.
+     *
+     * @param id Package keys.
+     * @return Upstream versions, empty if upstream does not know the package.
+     */
+    private CompletionStage<Optional<Versions>> listing(final PackageKeys id) {
+        return this.listings.get(
+            id.versionsKey(),
+            () -> this.address().thenCompose(
+                address -> this.get(
+                    String.format("%s/%s", address, id.versionsKey().string()),
+                    content -> content.map(
+                        data -> new PublisherAs(data).asciiString().thenApply(
+                            json -> Optional.of(
+                                new Versions(
+                                    Json.createReader(new StringReader(json)).readObject()
+                                )
+                            )
+                        )
+                    ).orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()))
+                )
+            )
+        );
+    }
+
+    /**
+     * Upstream package base address without trailing slash.
+     * Address is resolved from upstream service index on first use,
+     * failed resolution is retried on next use.
+     *
+     * @return Package base address.
+     */
+    private CompletionStage<String> address() {
+        final CompletableFuture<String> fresh = new CompletableFuture<>();
+        CompletableFuture<String> address = this.base.get();
+        if (address == null || address.isCompletedExceptionally()) {
+            if (this.base.compareAndSet(address, fresh)) {
+                this.resolve().whenComplete(
+                    (value, error) -> {
+                        if (error == null) {
+                            fresh.complete(value);
+                        } else {
+                            fresh.completeExceptionally(error);
+                        }
+                    }
+                );
+            }
+            address = this.base.get();
+        }
+        return address;
+    }
+
+    /**
+     * Resolve package base address from upstream service index.
+     *
+     * @return Package base address.
+     */
+    private CompletionStage<String> resolve() {
+        return this.get(
+            this.index.toString(),
+            content -> new PublisherAs(
+                content.orElseThrow(
+                    () -> new IllegalStateException(
+                        String.format("Upstream service index not found: %s", this.index)
+                    )
+                )
+            ).asciiString()
+        ).thenApply(
+            json -> Json.createReader(new StringReader(json)).readObject()
+                .getJsonArray("resources")
+                .getValuesAs(JsonObject.class)
+                .stream()
+                .filter(
+                    resource -> resource.getString("@type", "")
+                        .startsWith(ProxyRepository.BASE_ADDRESS)
+                )
+                .map(resource -> resource.getString("@id"))
+                .map(id -> id.replaceAll("/+$", ""))
+                .findFirst()
+                .orElseThrow(
+                    () -> new IllegalStateException(
+                        String.format(
+                            "Upstream service index %s has no %s resource",
+                            this.index, ProxyRepository.BASE_ADDRESS
+                        )
+                    )
+                )
+        );
+    }
+
+    /**
+     * Get resource from upstream and consume it.
+     * Response body is streamed from connection when content is read,
+     * connection is closed when consumer completes or fails, so it is closed
+     * even if content is never read.
+     *
+     * @param url Resource URL.
+     * @param consumer Consumer of content, empty if upstream responds with not found status.
+     * @param <T> Result type.
+     * @return Result of consumer.
+     */
+    private <T> CompletionStage<T> get(
+        final String url,
+        final Function<Optional<Content>, CompletionStage<T>> consumer
+    ) {
+        return CompletableFuture.supplyAsync(() -> ProxyRepository.connect(url), this.executor)
+            .thenCompose(
+                conn -> CompletableFuture.completedFuture(conn)
+                    .thenApply(this::body)
+                    .thenCompose(consumer)
+                    .whenComplete((result, error) -> conn.disconnect())
+            );
+    }
+
+    /**
+     * Body of upstream response.
+     *
+     * @param conn Connection with response received.
+     * @return Content, empty if upstream responded with not found status.
+     */
+    private Optional<Content> body(final HttpURLConnection conn) {
+        final int status;
+        try {
+            status = conn.getResponseCode();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        final Optional<Content> content;
+        if (status == HttpURLConnection.HTTP_OK) {
+            content = Optional.of(
+                new Content.From(
+                    new StreamedContent(
+                        out -> {
+                            try (InputStream input = conn.getInputStream()) {
+                                final byte[] buf = new byte[8192];
+                                int read = input.read(buf);
+                                while (read >= 0) {
+                                    out.write(buf, 0, read);
+                                    read = input.read(buf);
+                                }
+                            }
+                        },
+                        this.streams
+                    )
+                )
+            );
+        } else if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+            content = Optional.empty();
+        } else {
+            throw new IllegalStateException(
+                String.format("Upstream responded %d to %s", status, conn.getURL())
+            );
+        }
+        return content;
+    }
+
+    /**
+     * Connect to upstream and receive response status.
+     * Connection is closed if response is not received.
+     *
+     * @param url Resource URL.
+     * @return Connection with response received.
+     */
+    private static HttpURLConnection connect(final String url) {
+        final HttpURLConnection conn;
+        try {
+            conn = (HttpURLConnection) new URL(url).openConnection();
+        } catch (final MalformedURLException ex) {
+            throw new IllegalArgumentException(ex);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        try {
+            conn.setConnectTimeout(ProxyRepository.CONNECT_TIMEOUT);
+            conn.setReadTimeout(ProxyRepository.READ_TIMEOUT);
+            conn.getResponseCode();
+        } catch (final IOException ex) {
+            conn.disconnect();
+            throw new UncheckedIOException(ex);
+        }
+        return conn;
+    }
+
+    /**
+     * Package identity of package file key.
+     *
+     * @param key Key.
+     * @return Identity if key is a key of package file: package, hash or nuspec.
+     */
+    private static Optional<PackageIdentity> identity(final Key key) {
+        final List<String> parts = key.parts();
+        Optional<PackageIdentity> identity = Optional.empty();
+        if (parts.size() == 3) {
+            final String pkg = String.format("%s.%s.nupkg", parts.get(0), parts.get(1));
+            final String file = parts.get(2);
+            if (file.equals(pkg) || file.equals(String.format("%s.sha512", pkg))
+                || file.equals(String.format("%s.nuspec", parts.get(0)))) {
+                identity = Optional.of(
+                    new PackageIdentity(new PackageId(parts.get(0)), new Version(parts.get(1)))
+                );
+            }
+        }
+        return identity;
+    }
+
+    /**
+     * Check if error means package version is already in local repository.
+     *
+     * @param error Error.
+     * @return True if package already exists.
+     */
+    private static boolean exists(final Throwable error) {
+        Throwable cause = error;
+        while (cause != null && !(cause instanceof PackageVersionAlreadyExistsException)) {
+            cause = cause.getCause();
+        }
+        return cause != null;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * Log of published package versions.
+ * Every publish writes empty entry `.published/{time}/{nuspec key}`, where `time` is
+ * zero padded publish time in epoch milliseconds, before package files are moved,
+ * so entry may point to a version that failed to publish but every published version
+ * has an entry. Entries published since given time are found by listing the log only,
+ * without listing whole storage.
+ *
+ * @since 1.3
+ */
+public final class PublishLog {
+
+    /**
+     * Root key of the log.
+     */
+    static final Key ROOT = new Key.From(".published");
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     */
+    public PublishLog(final Storage storage) {
+        this(storage, Clock.systemUTC());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param clock Clock.
+     */
+    public PublishLog(final Storage storage, final Clock clock) {
+        this.storage = storage;
+        this.clock = clock;
+    }
+
+    /**
+     * Add entry for package version.
+     *
+     * @param id Package version identity.
+     * @return Completion of add operation.
+     */
+    public CompletionStage<Void> append(final PackageIdentity id) {
+        return this.storage.save(
+            new Key.From(
+                PublishLog.ROOT,
+                new Key.From(String.format("%013d", this.clock.millis()), id.nuspecKey().string())
+            ),
+            Content.EMPTY
+        );
+    }
+
+    /**
+     * Entries published at given time or later.
+     *
+     * @param time Time in epoch milliseconds.
+     * @return Entries.
+     */
+    public CompletionStage<List<Entry>> since(final long time) {
+        return this.storage.list(PublishLog.ROOT).thenApply(
+            keys -> PublishLog.entries(keys).stream()
+                .filter(entry -> entry.time() >= time)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Parse log entries, skipping keys which are not entries.
+     *
+     * @param keys Keys under log root.
+     * @return Entries.
+     */
+    private static List<Entry> entries(final Collection<Key> keys) {
+        return keys.stream()
+            .map(PublishLog::entry)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Parse log entry.
+     *
+     * @param key Key under log root.
+     * @return Entry, empty if key is not an entry.
+     */
+    private static Optional<Entry> entry(final Key key) {
+        final List<String> parts = key.parts();
+        Optional<Entry> entry = Optional.empty();
+        if (parts.size() > 2 && parts.get(1).matches("\\d+")) {
+            entry = Optional.of(
+                new Entry(
+                    Long.parseLong(parts.get(1)),
+                    new Key.From(parts.subList(2, parts.size()))
+                )
+            );
+        }
+        return entry;
+    }
+
+    /**
+     * Entry of the log.
+     *
+     * @since 1.3
+     */
+    public static final class Entry {
+
+        /**
+         * Publish time in epoch milliseconds.
+         */
+        private final long when;
+
+        /**
+         * Key of published nuspec.
+         */
+        private final Key key;
+
+        /**
+         * Ctor.
+         *
+         * @param when Publish time in epoch milliseconds.
+         * @param key Key of published nuspec.
+         */
+        Entry(final long when, final Key key) {
+            this.when = when;
+            this.key = key;
+        }
+
+        /**
+         * Publish time.
+         *
+         * @return Time in epoch milliseconds.
+         */
+        public long time() {
+            return this.when;
+        }
+
+        /**
+         * Key of published nuspec.
+         *
+         * @return Key.
+         */
+        public Key nuspec() {
+            return this.key;
+        }
+    }
+}
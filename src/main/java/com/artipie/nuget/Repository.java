@@ -26,6 +26,14 @@ public interface Repository {
      */
     CompletionStage<Optional<Content>> content(Key key);
 
+    /**
+     * Read package content size without reading the content itself.
+     *
+     * @param key Package content key.
+     * @return Size if content exists and storage knows its size, empty otherwise.
+     */
+    CompletionStage<Optional<Long>> size(Key key);
+
     /**
      * Adds NuGet package in .nupkg file format from storage.
      *
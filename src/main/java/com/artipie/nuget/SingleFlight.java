@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shares single in-flight operation among all concurrent callers with the same key.
+ * Operation result is not kept after operation completes,
+ * next call with the same key starts new operation.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @since 1.3
+ */
+public final class SingleFlight<K, V> {
+
+    /**
+     * Operations in flight by key.
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> flights;
+
+    /**
+     * Ctor.
+     */
+    public SingleFlight() {
+        this.flights = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Joins operation in flight for the key or starts new one.
+     *
+     * @param key Operation key.
+     * @param operation Operation to start if there is none in flight for the key.
+     * @return Completion of operation.
+     */
+    public CompletionStage<V> call(
+        final K key,
+        final Supplier<? extends CompletionStage<V>> operation
+    ) {
+        final CompletableFuture<V> fresh = new CompletableFuture<>();
+        final CompletableFuture<V> existing = this.flights.putIfAbsent(key, fresh);
+        final CompletableFuture<V> flight;
+        if (existing == null) {
+            flight = fresh;
+            CompletableFuture.completedFuture(operation)
+                .thenCompose(Supplier::get)
+                .whenComplete(
+                    (value, error) -> {
+                        this.flights.remove(key, fresh);
+                        if (error == null) {
+                            fresh.complete(value);
+                        } else {
+                            fresh.completeExceptionally(error);
+                        }
+                    }
+                );
+        } else {
+            flight = existing;
+        }
+        return flight.thenApply(Function.identity());
+    }
+
+    /**
+     * Number of operations in flight.
+     *
+     * @return Operations count.
+     */
+    public int inflight() {
+        return this.flights.size();
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.google.common.util.concurrent.RateLimiter;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Sweeper of orphaned uploads.
+ * Uploads are staged under `.upload/{created}-{uuid}` keys, where `created` is
+ * time in epoch milliseconds the upload was received completely,
+ * and are moved to their places when published.
+ * Upload that failed to publish is deleted by repository, but it stays in staging
+ * area if the process died, such uploads are deleted by {@link #sweep()}
+ * when they are older than configured age.
+ * Stale uploads are deleted in parallel batches, start of every batch is rate limited,
+ * so sweeping does not flood the storage with requests.
+ *
+ * @since 1.3
+ */
+public final class UploadSweeper {
+
+    /**
+     * Root key of staged uploads.
+     */
+    static final Key ROOT = new Key.From(".upload");
+
+    /**
+     * Default age of upload to be considered orphaned.
+     */
+    private static final Duration AGE = Duration.ofHours(1);
+
+    /**
+     * Default number of uploads deleted in parallel.
+     */
+    private static final int BATCH = 16;
+
+    /**
+     * Default maximum number of deletions per second.
+     */
+    private static final double RATE = 100;
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Age of upload to be considered orphaned.
+     */
+    private final Duration age;
+
+    /**
+     * Number of uploads deleted in parallel.
+     */
+    private final int batch;
+
+    /**
+     * Limiter of deletions rate.
+     */
+    private final RateLimiter limiter;
+
+    /**
+     * Executor to wait for rate limiter on.
+     */
+    private final Executor executor;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Total number of bytes reclaimed.
+     */
+    private final LongAdder bytes;
+
+    /**
+     * Total number of uploads deleted.
+     */
+    private final LongAdder uploads;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     */
+    public UploadSweeper(final Storage storage) {
+        this(storage, UploadSweeper.AGE, UploadSweeper.BATCH, UploadSweeper.RATE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param age Age of upload to be considered orphaned.
+     * @param batch Number of uploads deleted in parallel.
+     * @param rate Maximum number of deletions per second.
+     */
+    public UploadSweeper(
+        final Storage storage, final Duration age, final int batch, final double rate
+    ) {
+        this(storage, age, batch, rate, BlockingExecutor.SHARED, Clock.systemUTC());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param age Age of upload to be considered orphaned.
+     * @param batch Number of uploads deleted in parallel.
+     * @param rate Maximum number of deletions per second.
+     * @param executor Executor to wait for rate limiter on.
+     * @param clock Clock.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public UploadSweeper(
+        final Storage storage,
+        final Duration age,
+        final int batch,
+        final double rate,
+        final Executor executor,
+        final Clock clock
+    ) {
+        if (batch < 1) {
+            throw new IllegalArgumentException(
+                String.format("Batch size should be positive: %d", batch)
+            );
+        }
+        this.storage = storage;
+        this.age = age;
+        this.batch = batch;
+        this.limiter = RateLimiter.create(rate);
+        this.executor = executor;
+        this.clock = clock;
+        this.bytes = new LongAdder();
+        this.uploads = new LongAdder();
+    }
+
+    /**
+     * Delete orphaned uploads.
+     *
+     * @return Number of bytes reclaimed by this sweep.
+     */
+    public CompletionStage<Long> sweep() {
+        final long deadline = this.clock.millis() - this.age.toMillis();
+        return this.storage.list(UploadSweeper.ROOT).thenCompose(
+            keys -> this.delete(
+                keys.stream()
+                    .filter(
+                        key -> UploadSweeper.created(key).map(ms -> ms < deadline).orElse(false)
+                    )
+                    .collect(Collectors.toList()),
+                0,
+                0L
+            )
+        );
+    }
+
+    /**
+     * Delete orphaned uploads periodically.
+     * Next sweep starts after previous one is finished,
+     * failed sweep does not cancel next sweeps.
+     *
+     * @param scheduler Scheduler to run sweeps.
+     * @param period Period between sweeps.
+     * @param unit Period time unit.
+     * @return Scheduled sweeps, may be cancelled to stop sweeping.
+     */
+    public ScheduledFuture<?> schedule(
+        final ScheduledExecutorService scheduler, final long period, final TimeUnit unit
+    ) {
+        return scheduler.scheduleWithFixedDelay(
+            () -> this.sweep().toCompletableFuture().exceptionally(err -> 0L).join(),
+            period, period, unit
+        );
+    }
+
+    /**
+     * Total number of bytes reclaimed by all sweeps.
+     *
+     * @return Number of bytes.
+     */
+    public long reclaimed() {
+        return this.bytes.sum();
+    }
+
+    /**
+     * Total number of uploads deleted by all sweeps.
+     *
+     * @return Number of uploads.
+     */
+    public long deleted() {
+        return this.uploads.sum();
+    }
+
+    /**
+     * Generate key for new staged upload.
+     *
+     * @param created Creation time in epoch milliseconds.
+     * @return Upload key.
+     */
+    static Key key(final long created) {
+        return new Key.From(
+            UploadSweeper.ROOT, String.format("%d-%s", created, UUID.randomUUID().toString())
+        );
+    }
+
+    /**
+     * Delete stale uploads batch by batch.
+     *
+     * @param stale Stale uploads.
+     * @param from Index of first upload of the batch.
+     * @param reclaimed Bytes reclaimed by previous batches.
+     * @return Number of bytes reclaimed.
+     */
+    private CompletionStage<Long> delete(
+        final List<Key> stale, final int from, final long reclaimed
+    ) {
+        final CompletionStage<Long> result;
+        if (from >= stale.size()) {
+            result = CompletableFuture.completedFuture(reclaimed);
+        } else {
+            final List<Key> part = stale.subList(
+                from, Math.min(from + this.batch, stale.size())
+            );
+            result = CompletableFuture.runAsync(
+                () -> this.limiter.acquire(part.size()), this.executor
+            ).thenCompose(
+                nothing -> {
+                    final List<CompletableFuture<Long>> deleted = part.stream()
+                        .map(key -> this.delete(key).toCompletableFuture())
+                        .collect(Collectors.toList());
+                    return CompletableFuture.allOf(deleted.toArray(new CompletableFuture<?>[0]))
+                        .thenApply(
+                            all -> deleted.stream().mapToLong(CompletableFuture::join).sum()
+                        );
+                }
+            ).thenCompose(size -> this.delete(stale, from + part.size(), reclaimed + size));
+        }
+        return result;
+    }
+
+    /**
+     * Delete single upload.
+     * Upload which was published or deleted concurrently is skipped.
+     *
+     * @param key Upload key.
+     * @return Number of bytes reclaimed.
+     */
+    private CompletionStage<Long> delete(final Key key) {
+        return this.storage.metadata(key)
+            .thenApply(meta -> meta.read(Meta.OP_SIZE).<Long>map(size -> size).orElse(0L))
+            .thenCompose(size -> this.storage.delete(key).thenApply(nothing -> size))
+            .handle(
+                (size, err) -> {
+                    final long reclaimed;
+                    if (err == null) {
+                        this.bytes.add(size);
+                        this.uploads.increment();
+                        reclaimed = size;
+                    } else {
+                        reclaimed = 0L;
+                    }
+                    return reclaimed;
+                }
+            );
+    }
+
+    /**
+     * Creation time of staged upload.
+     *
+     * @param key Upload key.
+     * @return Creation time in epoch milliseconds, empty if key is not a staged upload.
+     */
+    private static Optional<Long> created(final Key key) {
+        final String name = key.string().substring(UploadSweeper.ROOT.string().length() + 1);
+        final int dash = name.indexOf('-');
+        Optional<Long> created = Optional.empty();
+        if (dash > 0 && name.indexOf('/') < 0) {
+            try {
+                created = Optional.of(Long.parseLong(name.substring(0, dash)));
+            } catch (final NumberFormatException ex) {
+                created = Optional.empty();
+            }
+        }
+        return created;
+    }
+}
@@ -4,12 +4,21 @@
  */
 package com.artipie.nuget.http;
 
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
 import com.artipie.http.auth.Authentication;
 import com.artipie.http.auth.BasicAuthSlice;
 import com.artipie.http.auth.Permission;
+import com.artipie.http.rq.RequestLineFrom;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import org.reactivestreams.Publisher;
 
 /**
  * Route supporting basic authentication.
+ * Authenticating slice is built once and shared by all resources of the route.
  *
  * @since 0.2
  */
@@ -21,14 +30,9 @@ final class BasicAuthRoute implements Route {
     private final Route origin;
 
     /**
-     * Authorization.
+     * Slice authenticating requests to origin route.
      */
-    private final Permission perm;
-
-    /**
-     * Authentication.
-     */
-    private final Authentication auth;
+    private final Slice slice;
 
     /**
      * Ctor.
@@ -39,8 +43,7 @@ final class BasicAuthRoute implements Route {
      */
     BasicAuthRoute(final Route origin, final Permission perm, final Authentication auth) {
         this.origin = origin;
-        this.auth = auth;
-        this.perm = perm;
+        this.slice = new BasicAuthSlice(new RouteSlice(origin), auth, perm);
     }
 
     @Override
@@ -50,13 +53,53 @@ final class BasicAuthRoute implements Route {
 
     @Override
     public Resource resource(final String path) {
-        return new ResourceFromSlice(
-            path,
-            new BasicAuthSlice(
-                new SliceFromResource(this.origin.resource(path)),
-                this.auth,
-                this.perm
-            )
-        );
+        return this.resource(path, "");
+    }
+
+    @Override
+    public Resource resource(final String path, final String query) {
+        final String uri;
+        if (query.isEmpty()) {
+            uri = path;
+        } else {
+            uri = String.format("%s?%s", path, query);
+        }
+        return new ResourceFromSlice(uri, this.slice);
+    }
+
+    /**
+     * Slice handling requests with resources of route found by request path.
+     *
+     * @since 1.3
+     */
+    private static final class RouteSlice implements Slice {
+
+        /**
+         * Route.
+         */
+        private final Route route;
+
+        /**
+         * Ctor.
+         *
+         * @param route Route.
+         */
+        RouteSlice(final Route route) {
+            this.route = route;
+        }
+
+        @Override
+        public Response response(
+            final String line,
+            final Iterable<Map.Entry<String, String>> headers,
+            final Publisher<ByteBuffer> body
+        ) {
+            final URI uri = new RequestLineFrom(line).uri();
+            return new SliceFromResource(
+                this.route.resource(
+                    uri.getPath(), Optional.ofNullable(uri.getRawQuery()).orElse("")
+                )
+            ).response(line, headers, body);
+        }
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http;
+
+import com.artipie.http.Headers;
+import com.artipie.http.rq.RqHeaders;
+
+/**
+ * HTTP 'If-None-Match' request header.
+ * See <a href="https://datatracker.ietf.org/doc/html/rfc7232#section-3.2">RFC 7232</a>
+ *
+ * @since 1.3
+ */
+public final class IfNoneMatch {
+
+    /**
+     * Header name.
+     */
+    public static final String NAME = "If-None-Match";
+
+    /**
+     * Weak entity tag prefix.
+     */
+    private static final String WEAK = "W/";
+
+    /**
+     * Request headers.
+     */
+    private final Headers headers;
+
+    /**
+     * Ctor.
+     *
+     * @param headers Request headers.
+     */
+    public IfNoneMatch(final Headers headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Checks if entity tag of current representation matches the header,
+     * so the response should be '304 Not Modified'.
+     * Weak comparison is used as required for this header.
+     *
+     * @param etag Quoted entity tag of current representation.
+     * @return True if header matches the entity tag.
+     */
+    public boolean matches(final String etag) {
+        final String opaque = IfNoneMatch.opaque(etag);
+        boolean matches = false;
+        for (final String header : new RqHeaders(this.headers, IfNoneMatch.NAME)) {
+            for (final String tag : header.split(",")) {
+                final String trimmed = tag.trim();
+                if ("*".equals(trimmed) || opaque.equals(IfNoneMatch.opaque(trimmed))) {
+                    matches = true;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Entity tag without weakness indicator.
+     *
+     * @param tag Entity tag.
+     * @return Opaque tag.
+     */
+    private static String opaque(final String tag) {
+        final String opaque;
+        if (tag.startsWith(IfNoneMatch.WEAK)) {
+            opaque = tag.substring(IfNoneMatch.WEAK.length());
+        } else {
+            opaque = tag;
+        }
+        return opaque;
+    }
+}
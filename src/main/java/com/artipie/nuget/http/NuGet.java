@@ -15,19 +15,34 @@ import com.artipie.http.rq.RequestLineFrom;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithStatus;
+import com.artipie.nuget.BlockingExecutor;
+import com.artipie.nuget.Downloads;
 import com.artipie.nuget.Repository;
 import com.artipie.nuget.http.content.PackageContent;
+import com.artipie.nuget.http.index.Service;
 import com.artipie.nuget.http.index.ServiceIndex;
 import com.artipie.nuget.http.metadata.PackageMetadata;
+import com.artipie.nuget.http.publish.Admission;
 import com.artipie.nuget.http.publish.PackagePublish;
+import com.artipie.nuget.http.search.SearchAutocompleteService;
+import com.artipie.nuget.http.search.SearchQueryService;
+import com.artipie.nuget.search.SearchIndex;
 import java.net.URL;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 import org.reactivestreams.Publisher;
 
 /**
  * NuGet repository HTTP front end.
+ * Authentication and permissions are consulted on every request as given,
+ * wrap them with {@link com.artipie.nuget.http.auth.CachedAuthentication} and
+ * {@link com.artipie.nuget.http.auth.CachedPermissions} to cache their results.
+ * Search results are generated in executor of their own, so clients slowly reading
+ * results do not hold threads parsing uploaded packages.
  *
  * @since 0.1
  * @todo #84:30min Refactor NuGet class, reduce number of fields.
@@ -40,33 +55,75 @@ import org.reactivestreams.Publisher;
 public final class NuGet implements Slice {
 
     /**
-     * Base URL.
+     * Routes, built once and shared by all requests.
      */
-    private final URL url;
+    private final RouteTable routes;
 
     /**
-     * Repository.
+     * Ctor.
+     *
+     * @param url Base URL.
+     * @param repository Repository.
      */
-    private final Repository repository;
+    public NuGet(final URL url, final Repository repository) {
+        this(url, repository, Permissions.FREE, Authentication.ANONYMOUS);
+    }
 
     /**
-     * Access permissions.
+     * Ctor.
+     *
+     * @param url Base URL.
+     * @param repository Storage for packages.
+     * @param perms Access permissions.
+     * @param users User identities.
      */
-    private final Permissions perms;
+    public NuGet(
+        final URL url,
+        final Repository repository,
+        final Permissions perms,
+        final Authentication users
+    ) {
+        this(url, repository, perms, users, Downloads.NONE);
+    }
 
     /**
-     * User identities.
+     * Ctor.
+     *
+     * @param url Base URL.
+     * @param repository Storage for packages.
+     * @param perms Access permissions.
+     * @param users User identities.
+     * @param downloads Package downloads counters.
      */
-    private final Authentication users;
+    public NuGet(
+        final URL url,
+        final Repository repository,
+        final Permissions perms,
+        final Authentication users,
+        final Downloads downloads
+    ) {
+        this(url, repository, perms, users, downloads, BlockingExecutor.SHARED);
+    }
 
     /**
      * Ctor.
      *
      * @param url Base URL.
-     * @param repository Repository.
+     * @param repository Storage for packages.
+     * @param perms Access permissions.
+     * @param users User identities.
+     * @param downloads Package downloads counters.
+     * @param executor Executor for blocking parsing of uploaded packages.
      */
-    public NuGet(final URL url, final Repository repository) {
-        this(url, repository, Permissions.FREE, Authentication.ANONYMOUS);
+    public NuGet(
+        final URL url,
+        final Repository repository,
+        final Permissions perms,
+        final Authentication users,
+        final Downloads downloads,
+        final Executor executor
+    ) {
+        this(url, repository, perms, users, downloads, executor, Admission.UNLIMITED);
     }
 
     /**
@@ -76,17 +133,110 @@ public final class NuGet implements Slice {
      * @param repository Storage for packages.
      * @param perms Access permissions.
      * @param users User identities.
+     * @param downloads Package downloads counters.
+     * @param executor Executor for blocking parsing of uploaded packages.
+     * @param admission Admission control of package publishing.
      */
     public NuGet(
         final URL url,
         final Repository repository,
         final Permissions perms,
-        final Authentication users
+        final Authentication users,
+        final Downloads downloads,
+        final Executor executor,
+        final Admission admission
+    ) {
+        this(
+            url, repository, perms, users, downloads, executor, admission,
+            Optional.empty(), BlockingExecutor.SHARED
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param url Base URL.
+     * @param repository Storage for packages.
+     * @param perms Access permissions.
+     * @param users User identities.
+     * @param downloads Package downloads counters.
+     * @param executor Executor for blocking parsing of uploaded packages.
+     * @param admission Admission control of package publishing.
+     * @param search Search index of repository packages.
+     */
+    public NuGet(
+        final URL url,
+        final Repository repository,
+        final Permissions perms,
+        final Authentication users,
+        final Downloads downloads,
+        final Executor executor,
+        final Admission admission,
+        final SearchIndex search
+    ) {
+        this(
+            url, repository, perms, users, downloads, executor, admission, search,
+            BlockingExecutor.SHARED
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param url Base URL.
+     * @param repository Storage for packages.
+     * @param perms Access permissions.
+     * @param users User identities.
+     * @param downloads Package downloads counters.
+     * @param executor Executor for blocking parsing of uploaded packages.
+     * @param admission Admission control of package publishing.
+     * @param search Search index of repository packages.
+     * @param results Executor for blocking writing of search results.
+     */
+    public NuGet(
+        final URL url,
+        final Repository repository,
+        final Permissions perms,
+        final Authentication users,
+        final Downloads downloads,
+        final Executor executor,
+        final Admission admission,
+        final SearchIndex search,
+        final Executor results
+    ) {
+        this(
+            url, repository, perms, users, downloads, executor, admission,
+            Optional.of(search), results
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param url Base URL.
+     * @param repository Storage for packages.
+     * @param perms Access permissions.
+     * @param users User identities.
+     * @param downloads Package downloads counters.
+     * @param executor Executor for blocking parsing of uploaded packages.
+     * @param admission Admission control of package publishing.
+     * @param search Search index of repository packages, empty if search is not served.
+     * @param results Executor for blocking writing of search results.
+     */
+    private NuGet(
+        final URL url,
+        final Repository repository,
+        final Permissions perms,
+        final Authentication users,
+        final Downloads downloads,
+        final Executor executor,
+        final Admission admission,
+        final Optional<SearchIndex> search,
+        final Executor results
     ) {
-        this.url = url;
-        this.repository = repository;
-        this.perms = perms;
-        this.users = users;
+        this.routes = NuGet.routes(
+            url, repository, perms, users, downloads, executor, admission, search, results
+        );
     }
 
     @Override
@@ -97,11 +247,15 @@ public final class NuGet implements Slice {
     ) {
         final Response response;
         final RequestLineFrom request = new RequestLineFrom(line);
-        final String path = request.uri().getPath();
-        final Resource resource = this.resource(path);
+        final Resource resource = this.routes.resource(
+            request.uri().getPath(),
+            Optional.ofNullable(request.uri().getRawQuery()).orElse("")
+        );
         final RqMethod method = request.method();
         if (method.equals(RqMethod.GET)) {
             response = resource.get(new Headers.From(headers));
+        } else if (method.equals(RqMethod.HEAD)) {
+            response = resource.head(new Headers.From(headers));
         } else if (method.equals(RqMethod.PUT)) {
             response = resource.put(new Headers.From(headers), body);
         } else {
@@ -111,42 +265,73 @@ public final class NuGet implements Slice {
     }
 
     /**
-     * Find resource by relative path.
+     * Build routes of repository.
      *
-     * @param path Relative path.
-     * @return Resource found by path.
+     * @param url Base URL.
+     * @param repository Storage for packages.
+     * @param perms Access permissions.
+     * @param users User identities.
+     * @param downloads Package downloads counters.
+     * @param executor Executor for blocking parsing of uploaded packages.
+     * @param admission Admission control of package publishing.
+     * @param search Search index of repository packages, empty if search is not served.
+     * @param results Executor for blocking writing of search results.
+     * @return Routes table.
      */
-    private Resource resource(final String path) {
-        final PackagePublish publish = new PackagePublish(this.repository);
-        final PackageContent content = new PackageContent(this.url, this.repository);
-        final PackageMetadata metadata = new PackageMetadata(this.repository, content);
-        return new RoutingResource(
-            path,
-            new ServiceIndex(
-                Arrays.asList(
-                    new RouteService(this.url, publish, "PackagePublish/2.0.0"),
-                    new RouteService(this.url, metadata, "RegistrationsBaseUrl/Versioned"),
-                    new RouteService(this.url, content, "PackageBaseAddress/3.0.0")
-                )
-            ),
-            this.auth(publish, Action.Standard.WRITE),
-            this.auth(content, Action.Standard.READ),
-            this.auth(metadata, Action.Standard.READ)
-        );
+    private static RouteTable routes(
+        final URL url,
+        final Repository repository,
+        final Permissions perms,
+        final Authentication users,
+        final Downloads downloads,
+        final Executor executor,
+        final Admission admission,
+        final Optional<SearchIndex> search,
+        final Executor results
+    ) {
+        final PackagePublish publish = new PackagePublish(repository, executor, admission);
+        final PackageContent content = new PackageContent(url, repository, downloads);
+        final PackageMetadata metadata = new PackageMetadata(repository, content);
+        final List<Service> services = new ArrayList<>(5);
+        services.add(new RouteService(url, publish, "PackagePublish/2.0.0"));
+        services.add(new RouteService(url, metadata, "RegistrationsBaseUrl/Versioned"));
+        services.add(new RouteService(url, content, "PackageBaseAddress/3.0.0"));
+        final List<Route> routes = new ArrayList<>(6);
+        routes.add(NuGet.auth(publish, perms, users, Action.Standard.WRITE));
+        routes.add(NuGet.auth(content, perms, users, Action.Standard.READ));
+        routes.add(NuGet.auth(metadata, perms, users, Action.Standard.READ));
+        if (search.isPresent()) {
+            final SearchQueryService query = new SearchQueryService(
+                url, search.get(), downloads, results
+            );
+            services.add(new RouteService(url, query, "SearchQueryService/3.5.0"));
+            routes.add(NuGet.auth(query, perms, users, Action.Standard.READ));
+            final SearchAutocompleteService autocomplete =
+                new SearchAutocompleteService(search.get());
+            services.add(
+                new RouteService(url, autocomplete, "SearchAutocompleteService/3.5.0")
+            );
+            routes.add(NuGet.auth(autocomplete, perms, users, Action.Standard.READ));
+        }
+        routes.add(new ServiceIndex(services));
+        return new RouteTable(routes.toArray(new Route[0]));
     }
 
     /**
      * Create route supporting basic authentication.
      *
      * @param route Route requiring authentication.
+     * @param perms Access permissions.
+     * @param users User identities.
      * @param action Action.
      * @return Authenticated route.
      */
-    private Route auth(final Route route, final Action action) {
-        return new BasicAuthRoute(
-            route,
-            new Permission.ByName(this.perms, action),
-            this.users
-        );
+    private static Route auth(
+        final Route route,
+        final Permissions perms,
+        final Authentication users,
+        final Action action
+    ) {
+        return new BasicAuthRoute(route, new Permission.ByName(perms, action), users);
     }
 }
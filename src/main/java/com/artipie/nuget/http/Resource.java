@@ -4,6 +4,7 @@
  */
 package com.artipie.nuget.http;
 
+import com.artipie.asto.Content;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import java.nio.ByteBuffer;
@@ -23,6 +24,18 @@ public interface Resource {
      */
     Response get(Headers headers);
 
+    /**
+     * Serve HEAD method.
+     * Responds with the same status and headers as GET method, but without body.
+     * Resources may override it to avoid producing the body at all.
+     *
+     * @param headers Request headers.
+     * @return Response to request.
+     */
+    default Response head(final Headers headers) {
+        return new RsWithBodyNoHeaders(this.get(headers), Content.EMPTY);
+    }
+
     /**
      * Serve PUT method.
      *
@@ -46,6 +46,11 @@ final class ResourceFromSlice implements Resource {
         return this.delegate(RqMethod.GET, headers, Flowable.empty());
     }
 
+    @Override
+    public Response head(final Headers headers) {
+        return this.delegate(RqMethod.HEAD, headers, Flowable.empty());
+    }
+
     @Override
     public Response put(final Headers headers, final Publisher<ByteBuffer> body) {
         return this.delegate(RqMethod.PUT, headers, body);
@@ -26,4 +26,16 @@ public interface Route {
      * @return Resource by path.
      */
     Resource resource(String path);
+
+    /**
+     * Gets resource by path and query.
+     * Routes which resources do not depend on query find resource by path only.
+     *
+     * @param path Path to resource.
+     * @param query Raw query of request, empty string if request has no query.
+     * @return Resource by path and query.
+     */
+    default Resource resource(final String path, final String query) {
+        return this.resource(path);
+    }
 }
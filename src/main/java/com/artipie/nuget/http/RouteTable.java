@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Immutable table of routes with longest prefix lookup.
+ * Routes are sorted by path length once on construction,
+ * so finding resource by path is a single scan without any allocations.
+ *
+ * @since 1.3
+ */
+public final class RouteTable {
+
+    /**
+     * Resource for paths not covered by any route.
+     */
+    private static final Resource ABSENT = new Absent();
+
+    /**
+     * Routes sorted by path length, longest first.
+     */
+    private final Route[] routes;
+
+    /**
+     * Paths of routes, in the same order as routes.
+     */
+    private final String[] paths;
+
+    /**
+     * Ctor.
+     *
+     * @param routes Routes.
+     */
+    public RouteTable(final Route... routes) {
+        this.routes = Arrays.copyOf(routes, routes.length);
+        Arrays.sort(
+            this.routes,
+            Comparator.comparingInt((Route route) -> route.path().length()).reversed()
+        );
+        this.paths = new String[this.routes.length];
+        for (int idx = 0; idx < this.routes.length; idx += 1) {
+            this.paths[idx] = this.routes[idx].path();
+        }
+    }
+
+    /**
+     * Find resource by path.
+     * Route with longest path being a prefix of given path is used.
+     *
+     * @param path Resource path.
+     * @return Resource found by path, absent resource if no route covers the path.
+     */
+    public Resource resource(final String path) {
+        return this.resource(path, "");
+    }
+
+    /**
+     * Find resource by path and query.
+     * Route with longest path being a prefix of given path is used.
+     *
+     * @param path Resource path.
+     * @param query Raw query of request, empty string if request has no query.
+     * @return Resource found by path, absent resource if no route covers the path.
+     */
+    public Resource resource(final String path, final String query) {
+        Resource resource = RouteTable.ABSENT;
+        for (int idx = 0; idx < this.paths.length; idx += 1) {
+            if (path.startsWith(this.paths[idx])) {
+                resource = this.routes[idx].resource(path, query);
+                break;
+            }
+        }
+        return resource;
+    }
+}
@@ -7,8 +7,6 @@ package com.artipie.nuget.http;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.Comparator;
 import org.reactivestreams.Publisher;
 
 /**
@@ -26,7 +24,7 @@ public final class RoutingResource implements Resource {
     /**
      * Routes.
      */
-    private final Route[] routes;
+    private final RouteTable routes;
 
     /**
      * Ctor.
@@ -35,8 +33,18 @@ public final class RoutingResource implements Resource {
      * @param routes Routes.
      */
     public RoutingResource(final String path, final Route... routes) {
+        this(path, new RouteTable(routes));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param path Resource path.
+     * @param routes Routes table.
+     */
+    public RoutingResource(final String path, final RouteTable routes) {
         this.path = path;
-        this.routes = Arrays.copyOf(routes, routes.length);
+        this.routes = routes;
     }
 
     @Override
@@ -44,6 +52,11 @@ public final class RoutingResource implements Resource {
         return this.resource().get(headers);
     }
 
+    @Override
+    public Response head(final Headers headers) {
+        return this.resource().head(headers);
+    }
+
     @Override
     public Response put(
         final Headers headers,
@@ -57,11 +70,7 @@ public final class RoutingResource implements Resource {
      * @return Resource found by path.
      */
     private Resource resource() {
-        return Arrays.stream(this.routes)
-            .filter(r -> this.path.startsWith(r.path()))
-            .max(Comparator.comparing(Route::path))
-            .map(r -> r.resource(this.path))
-            .orElse(new Absent());
+        return this.routes.resource(this.path);
     }
 
 }
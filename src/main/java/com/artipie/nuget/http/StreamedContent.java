@@ -0,0 +1,397 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Content written by blocking writer to {@link OutputStream}, such as Jackson generator.
+ * Writer runs in given executor when content is requested by subscriber
+ * and fills fixed size chunks, every chunk is published as soon as it is full.
+ * Writer is blocked while subscriber has no demand, so no more than one chunk
+ * above requested ones is kept in memory whatever the size of content is.
+ * Writer is stopped with {@link IOException} when subscription is cancelled
+ * or when subscriber has no demand for longer than timeout, the latter fails subscriber,
+ * so stalled subscriber does not hold executor thread forever.
+ * Default timeout is a few seconds: writer parks executor thread while it waits,
+ * so the timeout bounds how long a slow client may hold the thread per chunk.
+ * Subscriber is signalled only by writer once it runs, so signals are never concurrent.
+ * Every subscriber gets content written by new writer run.
+ * Chunk buffers are not pooled: subscriber owns published chunk and may keep it after
+ * {@code onNext} returns, e.g. in write queue of the connection, and there is no signal
+ * when it is released, so reused buffer could be overwritten before it is sent.
+ *
+ * @since 1.3
+ */
+public final class StreamedContent implements Publisher<ByteBuffer> {
+
+    /**
+     * Default chunk size.
+     */
+    private static final int CHUNK = 8192;
+
+    /**
+     * Default time writer waits for demand.
+     */
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Writer.
+     */
+    private final Writer writer;
+
+    /**
+     * Executor for blocking writing.
+     */
+    private final Executor executor;
+
+    /**
+     * Chunk size.
+     */
+    private final int chunk;
+
+    /**
+     * Time writer waits for demand.
+     */
+    private final Duration timeout;
+
+    /**
+     * Ctor.
+     *
+     * @param writer Writer.
+     * @param executor Executor for blocking writing.
+     */
+    public StreamedContent(final Writer writer, final Executor executor) {
+        this(writer, executor, StreamedContent.CHUNK);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param writer Writer.
+     * @param executor Executor for blocking writing.
+     * @param chunk Chunk size.
+     */
+    public StreamedContent(final Writer writer, final Executor executor, final int chunk) {
+        this(writer, executor, chunk, StreamedContent.TIMEOUT);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param writer Writer.
+     * @param executor Executor for blocking writing.
+     * @param chunk Chunk size.
+     * @param timeout Time writer waits for demand before failing subscriber.
+     */
+    public StreamedContent(
+        final Writer writer, final Executor executor, final int chunk, final Duration timeout
+    ) {
+        if (chunk < 1) {
+            throw new IllegalArgumentException(
+                String.format("Chunk size should be positive: %d", chunk)
+            );
+        }
+        this.writer = writer;
+        this.executor = executor;
+        this.chunk = chunk;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new Emission(subscriber));
+    }
+
+    /**
+     * Writer of content.
+     *
+     * @since 1.3
+     */
+    @FunctionalInterface
+    public interface Writer {
+
+        /**
+         * Write content.
+         *
+         * @param out Output stream, may be closed by writer.
+         * @throws IOException On error.
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Subscription running writer and emitting chunks on demand.
+     *
+     * @since 1.3
+     */
+    private final class Emission implements Subscription {
+
+        /**
+         * Subscriber.
+         */
+        private final Subscriber<? super ByteBuffer> subscriber;
+
+        /**
+         * Number of chunks requested and not emitted yet.
+         */
+        private long demand;
+
+        /**
+         * Whether writer was started.
+         */
+        private boolean started;
+
+        /**
+         * Whether subscription is cancelled.
+         */
+        private boolean cancelled;
+
+        /**
+         * Whether writer signalled subscriber terminal signal or is about to.
+         */
+        private boolean done;
+
+        /**
+         * Error of subscription to be signalled by writer.
+         */
+        private Throwable failure;
+
+        /**
+         * Ctor.
+         *
+         * @param subscriber Subscriber.
+         */
+        Emission(final Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long count) {
+            final boolean start;
+            final boolean signal;
+            synchronized (this) {
+                if (count <= 0) {
+                    signal = !this.started && !this.cancelled;
+                    if (this.started && !this.done && this.failure == null) {
+                        this.failure = new IllegalArgumentException(
+                            String.format("Requested non-positive number of chunks: %d", count)
+                        );
+                    }
+                    this.started = true;
+                    this.cancelled = true;
+                    this.notifyAll();
+                    start = false;
+                } else {
+                    if (Long.MAX_VALUE - this.demand < count) {
+                        this.demand = Long.MAX_VALUE;
+                    } else {
+                        this.demand += count;
+                    }
+                    this.notifyAll();
+                    start = !this.started && !this.cancelled;
+                    this.started = true;
+                    signal = false;
+                }
+            }
+            if (signal) {
+                this.subscriber.onError(
+                    new IllegalArgumentException(
+                        String.format("Requested non-positive number of chunks: %d", count)
+                    )
+                );
+            } else if (start) {
+                StreamedContent.this.executor.execute(this::write);
+            }
+        }
+
+        @Override
+        public synchronized void cancel() {
+            this.cancelled = true;
+            this.notifyAll();
+        }
+
+        /**
+         * Run writer and complete subscriber.
+         * Partially filled chunk is not emitted if writer fails.
+         * Error of subscription set while writer runs is signalled instead of writer result.
+         */
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        private void write() {
+            Throwable error = null;
+            final Chunks out = new Chunks(this);
+            try {
+                StreamedContent.this.writer.write(out);
+                out.close();
+            } catch (final IOException | RuntimeException ex) {
+                error = ex;
+            }
+            final boolean signal;
+            synchronized (this) {
+                this.done = true;
+                if (this.failure != null) {
+                    error = this.failure;
+                    signal = true;
+                } else {
+                    signal = !this.cancelled;
+                }
+                this.cancelled = true;
+            }
+            if (signal) {
+                if (error == null) {
+                    this.subscriber.onComplete();
+                } else {
+                    this.subscriber.onError(error);
+                }
+            }
+        }
+
+        /**
+         * Emit chunk, waiting for demand no longer than timeout.
+         *
+         * @param chunk Chunk.
+         * @throws IOException If subscription is cancelled, waiting is interrupted
+         *  or timed out.
+         */
+        private void emit(final ByteBuffer chunk) throws IOException {
+            synchronized (this) {
+                final long until = System.nanoTime() + StreamedContent.this.timeout.toNanos();
+                long left = StreamedContent.this.timeout.toNanos();
+                while (this.demand == 0 && !this.cancelled && left > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, left);
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting for demand");
+                    }
+                    left = until - System.nanoTime();
+                }
+                if (this.cancelled) {
+                    throw new IOException("Subscription is cancelled");
+                }
+                if (this.demand == 0) {
+                    throw new InterruptedIOException(
+                        String.format(
+                            "No demand for %d ms", StreamedContent.this.timeout.toMillis()
+                        )
+                    );
+                }
+                this.demand -= 1;
+            }
+            this.subscriber.onNext(chunk);
+        }
+    }
+
+    /**
+     * Output stream filling chunks and emitting full ones.
+     * Flushing does not emit partially filled chunk, the last one is emitted on close.
+     *
+     * @since 1.3
+     */
+    private final class Chunks extends OutputStream {
+
+        /**
+         * Emission.
+         */
+        private final Emission emission;
+
+        /**
+         * Current chunk.
+         */
+        private byte[] current;
+
+        /**
+         * Number of bytes in current chunk.
+         */
+        private int size;
+
+        /**
+         * Whether stream is closed.
+         */
+        private boolean closed;
+
+        /**
+         * Ctor.
+         *
+         * @param emission Emission.
+         */
+        Chunks(final Emission emission) {
+            super();
+            this.emission = emission;
+            this.current = new byte[StreamedContent.this.chunk];
+        }
+
+        @Override
+        public void write(final int value) throws IOException {
+            this.open();
+            this.current[this.size] = (byte) value;
+            this.size += 1;
+            if (this.size == this.current.length) {
+                this.emit();
+            }
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int off, final int len) throws IOException {
+            this.open();
+            int pos = off;
+            int left = len;
+            while (left > 0) {
+                final int count = Math.min(left, this.current.length - this.size);
+                System.arraycopy(bytes, pos, this.current, this.size, count);
+                this.size += count;
+                pos += count;
+                left -= count;
+                if (this.size == this.current.length) {
+                    this.emit();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.closed) {
+                this.closed = true;
+                if (this.size > 0) {
+                    this.emit();
+                }
+            }
+        }
+
+        /**
+         * Check stream is not closed.
+         *
+         * @throws IOException If closed.
+         */
+        private void open() throws IOException {
+            if (this.closed) {
+                throw new IOException("Stream is closed");
+            }
+        }
+
+        /**
+         * Emit filled part of current chunk and start new one unless stream is closed.
+         *
+         * @throws IOException If emission fails.
+         */
+        private void emit() throws IOException {
+            final ByteBuffer full = ByteBuffer.wrap(this.current, 0, this.size);
+            if (!this.closed) {
+                this.current = new byte[StreamedContent.this.chunk];
+            }
+            this.size = 0;
+            this.emission.emit(full);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.auth;
+
+import com.artipie.http.auth.Authentication;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Authentication caching results of origin authentication.
+ * Results are kept by HMAC-SHA256 of credentials with random key generated for every
+ * instance, so passwords are never kept in memory and cached keys cannot be matched
+ * against precomputed hashes of common credentials.
+ * Successful results are kept for short time,
+ * failed results are kept for even shorter time to reduce load of repeated wrong attempts.
+ *
+ * @since 1.3
+ */
+public final class CachedAuthentication implements Authentication {
+
+    /**
+     * Default time to keep successful results.
+     */
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    /**
+     * Default time to keep failed results.
+     */
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(5);
+
+    /**
+     * Maximum number of results of each kind kept in memory.
+     */
+    private static final long MAX_SIZE = 10_000L;
+
+    /**
+     * Credentials hash algorithm.
+     */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * Credentials hash key size in bytes.
+     */
+    private static final int KEY_SIZE = 32;
+
+    /**
+     * Origin authentication.
+     */
+    private final Authentication origin;
+
+    /**
+     * Authenticated users by credentials hash.
+     */
+    private final Cache<String, User> users;
+
+    /**
+     * Hashes of credentials failed to authenticate.
+     */
+    private final Cache<String, Boolean> failures;
+
+    /**
+     * Random key of credentials hash.
+     */
+    private final SecretKeySpec key;
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin authentication.
+     */
+    public CachedAuthentication(final Authentication origin) {
+        this(origin, CachedAuthentication.TTL, CachedAuthentication.NEGATIVE_TTL);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin authentication.
+     * @param ttl Time to keep successful results.
+     * @param negative Time to keep failed results.
+     */
+    public CachedAuthentication(
+        final Authentication origin, final Duration ttl, final Duration negative
+    ) {
+        this(origin, ttl, negative, Ticker.systemTicker());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin authentication.
+     * @param ttl Time to keep successful results.
+     * @param negative Time to keep failed results.
+     * @param ticker Time source.
+     */
+    public CachedAuthentication(
+        final Authentication origin,
+        final Duration ttl,
+        final Duration negative,
+        final Ticker ticker
+    ) {
+        this.origin = origin;
+        this.users = CacheBuilder.newBuilder()
+            .maximumSize(CachedAuthentication.MAX_SIZE)
+            .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+            .ticker(ticker)
+            .build();
+        this.failures = CacheBuilder.newBuilder()
+            .maximumSize(CachedAuthentication.MAX_SIZE)
+            .expireAfterWrite(negative.toNanos(), TimeUnit.NANOSECONDS)
+            .ticker(ticker)
+            .build();
+        final byte[] secret = new byte[CachedAuthentication.KEY_SIZE];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, CachedAuthentication.ALGORITHM);
+    }
+
+    @Override
+    public Optional<User> user(final String name, final String password) {
+        final String hash = this.hash(name, password);
+        Optional<User> user = Optional.ofNullable(this.users.getIfPresent(hash));
+        if (!user.isPresent() && this.failures.getIfPresent(hash) == null) {
+            user = this.origin.user(name, password);
+            if (user.isPresent()) {
+                this.users.put(hash, user.get());
+            } else {
+                this.failures.put(hash, true);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Hash of credentials.
+     *
+     * @param name Username.
+     * @param password Password.
+     * @return Hex encoded HMAC-SHA256 of `name\0password`.
+     */
+    private String hash(final String name, final String password) {
+        try {
+            final Mac mac = Mac.getInstance(CachedAuthentication.ALGORITHM);
+            mac.init(this.key);
+            mac.update(name.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            return new BigInteger(1, mac.doFinal()).toString(16);
+        } catch (final NoSuchAlgorithmException | InvalidKeyException ex) {
+            throw new IllegalStateException("HMAC-SHA256 is not supported", ex);
+        }
+    }
+}
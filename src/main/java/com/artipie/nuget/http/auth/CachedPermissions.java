@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.auth;
+
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permissions memoizing decisions of origin permissions per user and action
+ * for short time.
+ *
+ * @since 1.3
+ */
+public final class CachedPermissions implements Permissions {
+
+    /**
+     * Default time to keep decisions.
+     */
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of decisions kept in memory.
+     */
+    private static final long MAX_SIZE = 10_000L;
+
+    /**
+     * Origin permissions.
+     */
+    private final Permissions origin;
+
+    /**
+     * Decisions by user and action.
+     */
+    private final Cache<Map.Entry<Authentication.User, String>, Boolean> decisions;
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin permissions.
+     */
+    public CachedPermissions(final Permissions origin) {
+        this(origin, CachedPermissions.TTL);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin permissions.
+     * @param ttl Time to keep decisions.
+     */
+    public CachedPermissions(final Permissions origin, final Duration ttl) {
+        this(origin, ttl, Ticker.systemTicker());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin permissions.
+     * @param ttl Time to keep decisions.
+     * @param ticker Time source.
+     */
+    public CachedPermissions(
+        final Permissions origin, final Duration ttl, final Ticker ticker
+    ) {
+        this.origin = origin;
+        this.decisions = CacheBuilder.newBuilder()
+            .maximumSize(CachedPermissions.MAX_SIZE)
+            .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+            .ticker(ticker)
+            .build();
+    }
+
+    @Override
+    public boolean allowed(final Authentication.User user, final String action) {
+        final Map.Entry<Authentication.User, String> key =
+            new AbstractMap.SimpleImmutableEntry<>(user, action);
+        Boolean allowed = this.decisions.getIfPresent(key);
+        if (allowed == null) {
+            allowed = this.origin.allowed(user, action);
+            this.decisions.put(key, allowed);
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,11 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+
+/**
+ * NuGet repository authentication and authorization.
+ *
+ * @since 1.3
+ */
+package com.artipie.nuget.http.auth;
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.content;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.nuget.Repository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Strong entity tags of package content.
+ * Entity tag of `.nupkg` file is its SHA-512 hash stored by {@link com.artipie.nuget.Hash}.
+ * Package version cannot be overwritten, so hashes read once are kept in memory.
+ *
+ * @since 1.3
+ */
+final class ContentETags {
+
+    /**
+     * Package file extension.
+     */
+    private static final String NUPKG = ".nupkg";
+
+    /**
+     * Maximum number of hashes kept in memory.
+     */
+    private static final long MAX_SIZE = 10_000L;
+
+    /**
+     * Repository to read hashes from.
+     */
+    private final Repository repository;
+
+    /**
+     * Entity tags by content key.
+     */
+    private final Cache<Key, String> cache;
+
+    /**
+     * Ctor.
+     *
+     * @param repository Repository to read hashes from.
+     */
+    ContentETags(final Repository repository) {
+        this.repository = repository;
+        this.cache = CacheBuilder.newBuilder().maximumSize(ContentETags.MAX_SIZE).build();
+    }
+
+    /**
+     * Get entity tag of content.
+     *
+     * @param key Content key.
+     * @return Quoted entity tag if content is a package with stored hash, empty otherwise.
+     */
+    public CompletionStage<Optional<String>> etag(final Key key) {
+        final CompletionStage<Optional<String>> result;
+        final String cached = this.cache.getIfPresent(key);
+        if (cached != null) {
+            result = CompletableFuture.completedFuture(Optional.of(cached));
+        } else if (key.string().endsWith(ContentETags.NUPKG)) {
+            result = this.repository.content(
+                new Key.From(String.format("%s.sha512", key.string()))
+            ).thenCompose(
+                hash -> hash.map(
+                    content -> new PublisherAs(content).asciiString().thenApply(
+                        value -> {
+                            final String etag = String.format("\"%s\"", value.trim());
+                            this.cache.put(key, etag);
+                            return Optional.of(etag);
+                        }
+                    )
+                ).orElse(CompletableFuture.completedFuture(Optional.empty()))
+            );
+        } else {
+            result = CompletableFuture.completedFuture(Optional.empty());
+        }
+        return result;
+    }
+}
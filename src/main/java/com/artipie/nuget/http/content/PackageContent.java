@@ -8,18 +8,31 @@ import com.artipie.asto.Key;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.ContentLength;
+import com.artipie.http.headers.Header;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
+import com.artipie.nuget.Downloads;
 import com.artipie.nuget.PackageIdentity;
 import com.artipie.nuget.Repository;
+import com.artipie.nuget.http.IfNoneMatch;
 import com.artipie.nuget.http.Resource;
 import com.artipie.nuget.http.Route;
 import com.artipie.nuget.http.RsWithBodyNoHeaders;
 import com.artipie.nuget.http.metadata.ContentLocation;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
 import org.reactivestreams.Publisher;
 
 /**
@@ -27,9 +40,15 @@ import org.reactivestreams.Publisher;
  * See <a href="https://docs.microsoft.com/en-us/nuget/api/package-base-address-resource">Package Content</a>
  *
  * @since 0.1
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class PackageContent implements Route, ContentLocation {
 
+    /**
+     * Number of parts in package file key.
+     */
+    private static final int PARTS = 3;
+
     /**
      * Base URL of repository.
      */
@@ -40,6 +59,16 @@ public final class PackageContent implements Route, ContentLocation {
      */
     private final Repository repository;
 
+    /**
+     * Entity tags of content.
+     */
+    private final ContentETags etags;
+
+    /**
+     * Package downloads counters.
+     */
+    private final Downloads downloads;
+
     /**
      * Ctor.
      *
@@ -47,8 +76,25 @@ public final class PackageContent implements Route, ContentLocation {
      * @param repository Repository to read content from.
      */
     public PackageContent(final URL base, final Repository repository) {
+        this(base, repository, Downloads.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL of repository.
+     * @param repository Repository to read content from.
+     * @param downloads Package downloads counters.
+     */
+    public PackageContent(
+        final URL base,
+        final Repository repository,
+        final Downloads downloads
+    ) {
         this.base = base;
         this.repository = repository;
+        this.etags = new ContentETags(repository);
+        this.downloads = downloads;
     }
 
     @Override
@@ -79,6 +125,20 @@ public final class PackageContent implements Route, ContentLocation {
         }
     }
 
+    /**
+     * Content response headers.
+     *
+     * @param etag Entity tag, if there is one.
+     * @param size Content size, if it is known.
+     * @return Headers.
+     */
+    private static Headers headers(final Optional<String> etag, final Optional<Long> size) {
+        final List<Map.Entry<String, String>> headers = new ArrayList<>(2);
+        size.ifPresent(value -> headers.add(new ContentLength(value)));
+        etag.ifPresent(value -> headers.add(new Header("ETag", value)));
+        return new Headers.From(headers);
+    }
+
     /**
      * Package content resource.
      *
@@ -109,15 +169,38 @@ public final class PackageContent implements Route, ContentLocation {
 
         @Override
         public Response get(final Headers headers) {
-            return this.key().<Response>map(
-                key -> new AsyncResponse(
-                    this.repository.content(key).thenApply(
-                        existing -> existing.<Response>map(
-                            data -> new RsWithBodyNoHeaders(new RsWithStatus(RsStatus.OK), data)
-                        ).orElse(new RsWithStatus(RsStatus.NOT_FOUND))
-                    )
+            return this.respond(
+                headers,
+                (key, etag) -> this.repository.content(key).thenApply(
+                    existing -> existing.<Response>map(
+                        data -> {
+                            this.count(key);
+                            return new RsWithBodyNoHeaders(
+                                new RsWithHeaders(
+                                    new RsWithStatus(RsStatus.OK),
+                                    PackageContent.headers(etag, data.size())
+                                ),
+                                data
+                            );
+                        }
+                    ).orElse(new RsWithStatus(RsStatus.NOT_FOUND))
                 )
-            ).orElse(new RsWithStatus(RsStatus.NOT_FOUND));
+            );
+        }
+
+        @Override
+        public Response head(final Headers headers) {
+            return this.respond(
+                headers,
+                (key, etag) -> this.repository.size(key).thenApply(
+                    size -> size.<Response>map(
+                        value -> new RsWithHeaders(
+                            new RsWithStatus(RsStatus.OK),
+                            PackageContent.headers(etag, size)
+                        )
+                    ).orElse(new RsWithStatus(RsStatus.NOT_FOUND))
+                )
+            );
         }
 
         @Override
@@ -127,6 +210,59 @@ public final class PackageContent implements Route, ContentLocation {
             return new RsWithStatus(RsStatus.METHOD_NOT_ALLOWED);
         }
 
+        /**
+         * Responds to request for content.
+         * Responds with '304 Not Modified' if request entity tag matches the content,
+         * so the content is not read in this case.
+         *
+         * @param headers Request headers.
+         * @param content Response with content by key and entity tag of the content.
+         * @return Response.
+         */
+        private Response respond(
+            final Headers headers,
+            final BiFunction<Key, Optional<String>, CompletionStage<Response>> content
+        ) {
+            return this.key().<Response>map(
+                key -> new AsyncResponse(
+                    PackageContent.this.etags.etag(key).thenCompose(
+                        etag -> {
+                            final CompletionStage<Response> res;
+                            if (etag.isPresent() && new IfNoneMatch(headers).matches(etag.get())) {
+                                res = CompletableFuture.completedFuture(
+                                    new RsWithHeaders(
+                                        new RsWithStatus(RsStatus.NOT_MODIFIED),
+                                        PackageContent.headers(etag, Optional.empty())
+                                    )
+                                );
+                            } else {
+                                res = content.apply(key, etag);
+                            }
+                            return res;
+                        }
+                    )
+                )
+            ).orElse(new RsWithStatus(RsStatus.NOT_FOUND));
+        }
+
+        /**
+         * Counts download if key points to package file
+         * in `{id}/{version}/{id}.{version}.nupkg` format.
+         *
+         * @param key Content key.
+         */
+        private void count(final Key key) {
+            final List<String> parts = key.parts();
+            if (parts.size() == PackageContent.PARTS
+                && parts.get(PackageContent.PARTS - 1).equals(
+                    String.format("%s.%s.nupkg", parts.get(0), parts.get(1))
+                )) {
+                PackageContent.this.downloads.increment(
+                    new PackageId(parts.get(0)), new Version(parts.get(1))
+                );
+            }
+        }
+
         /**
          * Tries to build key to storage value from path.
          *
@@ -4,17 +4,25 @@
  */
 package com.artipie.nuget.http.index;
 
+import com.artipie.asto.Content;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
+import com.artipie.http.headers.Header;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.nuget.http.Absent;
+import com.artipie.nuget.http.IfNoneMatch;
 import com.artipie.nuget.http.Resource;
 import com.artipie.nuget.http.Route;
 import com.artipie.nuget.http.RsWithBodyNoHeaders;
+import io.reactivex.Flowable;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -24,23 +32,62 @@ import org.reactivestreams.Publisher;
 /**
  * Service index route.
  * See <a href="https://docs.microsoft.com/en-us/nuget/api/service-index">Service Index</a>
+ * Index document is rendered once on first request and then served
+ * from immutable buffer with entity tag and caching headers.
  *
  * @since 0.1
  */
 public final class ServiceIndex implements Route {
 
+    /**
+     * Default max age of index document in seconds.
+     */
+    private static final long MAX_AGE = 300L;
+
+    /**
+     * Resource for paths other than index.
+     */
+    private static final Resource ABSENT = new Absent();
+
     /**
      * Services.
      */
     private final Iterable<Service> services;
 
+    /**
+     * Value of 'Cache-Control' header.
+     */
+    private final String cache;
+
+    /**
+     * Index resource.
+     */
+    private final Resource index;
+
+    /**
+     * Index document, rendered on first request.
+     */
+    private volatile Document document;
+
     /**
      * Ctor.
      *
      * @param services Services.
      */
     public ServiceIndex(final Iterable<Service> services) {
+        this(services, ServiceIndex.MAX_AGE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param services Services.
+     * @param maxage Max age of index document in seconds clients may cache it for.
+     */
+    public ServiceIndex(final Iterable<Service> services, final long maxage) {
         this.services = services;
+        this.cache = String.format("public, max-age=%d", maxage);
+        this.index = new Index();
     }
 
     @Override
@@ -52,13 +99,57 @@ public final class ServiceIndex implements Route {
     public Resource resource(final String path) {
         final Resource resource;
         if (path.equals("/index.json")) {
-            resource = new Index();
+            resource = this.index;
         } else {
-            resource = new Absent();
+            resource = ServiceIndex.ABSENT;
         }
         return resource;
     }
 
+    /**
+     * Index document, renders it if it was not rendered yet.
+     * Rendering is idempotent, so concurrent first requests may render it
+     * more than once, but all of them get the same document.
+     *
+     * @return Index document.
+     */
+    private Document document() {
+        Document doc = this.document;
+        if (doc == null) {
+            doc = new Document(this.render());
+            this.document = doc;
+        }
+        return doc;
+    }
+
+    /**
+     * Render services index JSON.
+     *
+     * @return JSON bytes.
+     */
+    private byte[] render() {
+        final JsonArrayBuilder resources = Json.createArrayBuilder();
+        for (final Service service : this.services) {
+            resources.add(
+                Json.createObjectBuilder()
+                    .add("@id", service.url())
+                    .add("@type", service.type())
+            );
+        }
+        final JsonObject json = Json.createObjectBuilder()
+            .add("version", "3.0.0")
+            .add("resources", resources)
+            .build();
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonWriter writer = Json.createWriter(out)) {
+            writer.writeObject(json);
+            out.flush();
+            return out.toByteArray();
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Failed to serialize JSON to bytes", ex);
+        }
+    }
+
     /**
      * Services index JSON "/index.json".
      *
@@ -68,29 +159,25 @@ public final class ServiceIndex implements Route {
 
         @Override
         public Response get(final Headers headers) {
-            final JsonArrayBuilder resources = Json.createArrayBuilder();
-            for (final Service service : ServiceIndex.this.services) {
-                resources.add(
-                    Json.createObjectBuilder()
-                        .add("@id", service.url())
-                        .add("@type", service.type())
+            final Document doc = ServiceIndex.this.document();
+            final Response response;
+            if (new IfNoneMatch(headers).matches(doc.etag)) {
+                response = new RsWithHeaders(
+                    new RsWithStatus(RsStatus.NOT_MODIFIED),
+                    new Header("ETag", doc.etag),
+                    new Header("Cache-Control", ServiceIndex.this.cache)
                 );
-            }
-            final JsonObject json = Json.createObjectBuilder()
-                .add("version", "3.0.0")
-                .add("resources", resources)
-                .build();
-            try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-                JsonWriter writer = Json.createWriter(out)) {
-                writer.writeObject(json);
-                out.flush();
-                return new RsWithStatus(
-                    new RsWithBodyNoHeaders(out.toByteArray()),
-                    RsStatus.OK
+            } else {
+                response = new RsWithBodyNoHeaders(
+                    new RsWithHeaders(
+                        new RsWithStatus(RsStatus.OK),
+                        new Header("ETag", doc.etag),
+                        new Header("Cache-Control", ServiceIndex.this.cache)
+                    ),
+                    doc.content()
                 );
-            } catch (final IOException ex) {
-                throw new IllegalStateException("Failed to serialize JSON to bytes", ex);
             }
+            return response;
         }
 
         @Override
@@ -100,4 +187,62 @@ public final class ServiceIndex implements Route {
             return new RsWithStatus(RsStatus.METHOD_NOT_ALLOWED);
         }
     }
+
+    /**
+     * Rendered index document.
+     *
+     * @since 1.3
+     */
+    private static final class Document {
+
+        /**
+         * Document bytes, never modified.
+         */
+        private final byte[] bytes;
+
+        /**
+         * Quoted entity tag of the document.
+         */
+        private final String etag;
+
+        /**
+         * Ctor.
+         *
+         * @param bytes Document bytes.
+         */
+        Document(final byte[] bytes) {
+            this.bytes = bytes;
+            this.etag = Document.etag(bytes);
+        }
+
+        /**
+         * Document content, every subscriber gets read-only view of the bytes.
+         *
+         * @return Content.
+         */
+        Content content() {
+            return new Content.From(
+                this.bytes.length,
+                Flowable.fromCallable(() -> ByteBuffer.wrap(this.bytes).asReadOnlyBuffer())
+            );
+        }
+
+        /**
+         * Entity tag of document bytes.
+         *
+         * @param bytes Document bytes.
+         * @return Quoted entity tag.
+         */
+        private static String etag(final byte[] bytes) {
+            try {
+                return String.format(
+                    "\"%s\"",
+                    new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(bytes))
+                        .toString(16)
+                );
+            } catch (final NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 is not supported", ex);
+            }
+        }
+    }
 }
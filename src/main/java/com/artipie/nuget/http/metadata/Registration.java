@@ -87,10 +87,8 @@ class Registration implements Resource {
                         JsonWriter writer = Json.createWriter(out)) {
                         writer.writeObject(json);
                         out.flush();
-                        return new RsWithStatus(
-                            new RsWithBodyNoHeaders(out.toByteArray()),
-                            RsStatus.OK
-                        );
+                        final byte[] bytes = out.toByteArray();
+                        return new RsWithBodyNoHeaders(new RsWithStatus(RsStatus.OK), bytes);
                     } catch (final IOException ex) {
                         throw new UncheckedIOException(ex);
                     }
@@ -99,6 +97,22 @@ class Registration implements Resource {
         );
     }
 
+    /**
+     * Serve HEAD method.
+     * Only versions index is read, nuspecs of versions are not.
+     *
+     * @param headers Request headers.
+     * @return Response to request.
+     */
+    @Override
+    public Response head(final Headers headers) {
+        return new AsyncResponse(
+            this.repository.versions(new PackageKeys(this.id)).thenApply(
+                versions -> new RsWithStatus(RsStatus.OK)
+            )
+        );
+    }
+
     @Override
     public Response put(
         final Headers headers,
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.publish;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control of package publishing.
+ * Limits number of publishes and number of bytes being published at the same time.
+ * Single publish larger than bytes limit is admitted only when no other bytes are in flight,
+ * so it is not rejected forever. Publish of unknown length, such as chunked upload,
+ * is charged configured number of bytes, by default the whole bytes limit.
+ *
+ * @since 1.3
+ */
+public final class Admission {
+
+    /**
+     * Admission without limits.
+     */
+    public static final Admission UNLIMITED = new Admission(
+        Integer.MAX_VALUE, Long.MAX_VALUE, Duration.ZERO, 0L
+    );
+
+    /**
+     * Maximum number of publishes in flight.
+     */
+    private final int requests;
+
+    /**
+     * Maximum number of bytes in flight.
+     */
+    private final long bytes;
+
+    /**
+     * Time clients are asked to wait before retrying rejected publish.
+     */
+    private final Duration retry;
+
+    /**
+     * Number of bytes charged for publish of unknown length.
+     */
+    private final long unknown;
+
+    /**
+     * Publishes in flight.
+     */
+    private final AtomicInteger current;
+
+    /**
+     * Bytes in flight.
+     */
+    private final AtomicLong size;
+
+    /**
+     * Ctor.
+     *
+     * @param requests Maximum number of publishes in flight.
+     * @param bytes Maximum number of bytes in flight.
+     * @param retry Time clients are asked to wait before retrying rejected publish.
+     */
+    public Admission(final int requests, final long bytes, final Duration retry) {
+        this(requests, bytes, retry, bytes);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param requests Maximum number of publishes in flight.
+     * @param bytes Maximum number of bytes in flight.
+     * @param retry Time clients are asked to wait before retrying rejected publish.
+     * @param unknown Number of bytes charged for publish of unknown length.
+     */
+    public Admission(
+        final int requests, final long bytes, final Duration retry, final long unknown
+    ) {
+        if (unknown < 0) {
+            throw new IllegalArgumentException(
+                String.format("Charge of unknown length should not be negative: %d", unknown)
+            );
+        }
+        this.requests = requests;
+        this.bytes = bytes;
+        this.retry = retry;
+        this.unknown = unknown;
+        this.current = new AtomicInteger();
+        this.size = new AtomicLong();
+    }
+
+    /**
+     * Try to admit publish.
+     * Admitted publish must be released by {@link #release(long)} when it completes.
+     *
+     * @param length Number of bytes published, see {@link #unknown()} if not known.
+     * @return True if publish is admitted.
+     */
+    public boolean acquire(final long length) {
+        if (length < 0) {
+            throw new IllegalArgumentException(
+                String.format("Publish length should not be negative: %d", length)
+            );
+        }
+        boolean admitted = false;
+        int count = this.current.get();
+        while (count < this.requests) {
+            if (this.current.compareAndSet(count, count + 1)) {
+                admitted = true;
+                break;
+            }
+            count = this.current.get();
+        }
+        if (admitted) {
+            long total = this.size.get();
+            while (true) {
+                if (total > 0 && length > this.bytes - total) {
+                    this.current.decrementAndGet();
+                    admitted = false;
+                    break;
+                }
+                if (this.size.compareAndSet(total, total + length)) {
+                    break;
+                }
+                total = this.size.get();
+            }
+        }
+        return admitted;
+    }
+
+    /**
+     * Number of bytes to charge for publish of unknown length.
+     *
+     * @return Bytes count.
+     */
+    public long unknown() {
+        return this.unknown;
+    }
+
+    /**
+     * Release admitted publish.
+     *
+     * @param length Number of bytes published, same as passed to {@link #acquire(long)}.
+     */
+    public void release(final long length) {
+        this.size.addAndGet(-length);
+        this.current.decrementAndGet();
+    }
+
+    /**
+     * Number of publishes in flight.
+     *
+     * @return Publishes count.
+     */
+    public int inflight() {
+        return this.current.get();
+    }
+
+    /**
+     * Number of bytes in flight.
+     *
+     * @return Bytes count.
+     */
+    public long inflightBytes() {
+        return this.size.get();
+    }
+
+    /**
+     * Seconds clients should wait before retrying rejected publish.
+     *
+     * @return Seconds, at least one.
+     */
+    public long retryAfter() {
+        return Math.max(1L, this.retry.getSeconds());
+    }
+}
@@ -8,20 +8,29 @@ package com.artipie.nuget.http.publish;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RqHeaders;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
+import com.artipie.nuget.BlockingExecutor;
 import com.artipie.nuget.InvalidPackageException;
 import com.artipie.nuget.PackageVersionAlreadyExistsException;
 import com.artipie.nuget.Repository;
 import com.artipie.nuget.http.Resource;
 import com.artipie.nuget.http.Route;
 import java.nio.ByteBuffer;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import org.reactivestreams.Publisher;
 
 /**
  * Package publish service, used to pushing new packages and deleting existing ones.
  * See <a href="https://docs.microsoft.com/en-us/nuget/api/package-publish-resource">Push and Delete</a>
+ * Publishes not admitted by {@link Admission} are rejected with '503 Service Unavailable'
+ * and 'Retry-After' header, publishes with invalid 'Content-Length' header
+ * are rejected with '400 Bad Request'.
  *
  * @since 0.1
  */
@@ -32,13 +41,48 @@ public final class PackagePublish implements Route {
      */
     private final Repository repository;
 
+    /**
+     * Executor for blocking parsing of request body.
+     */
+    private final Executor executor;
+
+    /**
+     * Admission control of publishing.
+     */
+    private final Admission admission;
+
     /**
      * Ctor.
      *
      * @param repository Repository for adding package.
      */
     public PackagePublish(final Repository repository) {
+        this(repository, BlockingExecutor.SHARED);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param repository Repository for adding package.
+     * @param executor Executor for blocking parsing of request body.
+     */
+    public PackagePublish(final Repository repository, final Executor executor) {
+        this(repository, executor, Admission.UNLIMITED);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param repository Repository for adding package.
+     * @param executor Executor for blocking parsing of request body.
+     * @param admission Admission control of publishing.
+     */
+    public PackagePublish(
+        final Repository repository, final Executor executor, final Admission admission
+    ) {
         this.repository = repository;
+        this.executor = executor;
+        this.admission = admission;
     }
 
     @Override
@@ -48,7 +92,7 @@ public final class PackagePublish implements Route {
 
     @Override
     public Resource resource(final String path) {
-        return new NewPackage(this.repository);
+        return new NewPackage(this.repository, this.executor, this.admission);
     }
 
     /**
@@ -64,13 +108,48 @@ public final class PackagePublish implements Route {
          */
         private final Repository repository;
 
+        /**
+         * Executor for blocking parsing of request body.
+         */
+        private final Executor executor;
+
+        /**
+         * Admission control of publishing.
+         */
+        private final Admission admission;
+
         /**
          * Ctor.
          *
          * @param repository Repository for adding package.
          */
         public NewPackage(final Repository repository) {
+            this(repository, BlockingExecutor.SHARED);
+        }
+
+        /**
+         * Ctor.
+         *
+         * @param repository Repository for adding package.
+         * @param executor Executor for blocking parsing of request body.
+         */
+        public NewPackage(final Repository repository, final Executor executor) {
+            this(repository, executor, Admission.UNLIMITED);
+        }
+
+        /**
+         * Ctor.
+         *
+         * @param repository Repository for adding package.
+         * @param executor Executor for blocking parsing of request body.
+         * @param admission Admission control of publishing.
+         */
+        public NewPackage(
+            final Repository repository, final Executor executor, final Admission admission
+        ) {
             this.repository = repository;
+            this.executor = executor;
+            this.admission = admission;
         }
 
         @Override
@@ -83,17 +162,49 @@ public final class PackagePublish implements Route {
             final Headers headers,
             final Publisher<ByteBuffer> body
         ) {
-            return new AsyncResponse(
-                CompletableFuture.supplyAsync(
-                    () -> new Multipart(headers, body).first()
-                ).thenCompose(
-                    content -> this.repository.add(content).thenApply(
-                        nothing -> RsStatus.CREATED
-                    ).exceptionally(
-                        throwable -> toStatus(throwable.getCause())
-                    ).thenApply(RsWithStatus::new)
-                )
-            );
+            final Optional<String> header = new RqHeaders(headers, "Content-Length").stream()
+                .findFirst();
+            final long length = header.map(NewPackage::length)
+                .orElseGet(this.admission::unknown);
+            final Response response;
+            if (length < 0) {
+                response = new RsWithStatus(RsStatus.BAD_REQUEST);
+            } else if (this.admission.acquire(length)) {
+                response = new AsyncResponse(
+                    CompletableFuture.supplyAsync(
+                        () -> new Multipart(headers, body).first(),
+                        this.executor
+                    ).thenCompose(
+                        content -> this.repository.add(content).thenApply(
+                            nothing -> RsStatus.CREATED
+                        ).exceptionally(
+                            throwable -> toStatus(throwable.getCause())
+                        ).thenApply(RsWithStatus::new)
+                    ).whenComplete((res, err) -> this.admission.release(length))
+                );
+            } else {
+                response = new RsWithHeaders(
+                    new RsWithStatus(RsStatus.UNAVAILABLE),
+                    new Header("Retry-After", String.valueOf(this.admission.retryAfter()))
+                );
+            }
+            return response;
+        }
+
+        /**
+         * Parse Content-Length header value.
+         *
+         * @param value Header value.
+         * @return Length, negative if value is not a non-negative number.
+         */
+        private static long length(final String value) {
+            long length;
+            try {
+                length = Long.parseLong(value.trim());
+            } catch (final NumberFormatException ex) {
+                length = -1L;
+            }
+            return length;
         }
 
         /**
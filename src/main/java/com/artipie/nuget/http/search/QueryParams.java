@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.search;
+
+import com.artipie.nuget.search.SearchQuery;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parameters of search services request query.
+ *
+ * @since 1.3
+ */
+final class QueryParams {
+
+    /**
+     * Default number of results to return.
+     */
+    private static final int TAKE = 20;
+
+    /**
+     * Maximum number of results to return.
+     */
+    private static final int MAX_TAKE = 1000;
+
+    /**
+     * Decoded parameters by name, first value wins.
+     */
+    private final Map<String, String> params;
+
+    /**
+     * Ctor.
+     *
+     * @param query Raw query.
+     */
+    QueryParams(final String query) {
+        this.params = QueryParams.parse(query);
+    }
+
+    /**
+     * Parameter value.
+     *
+     * @param name Parameter name.
+     * @return Value, empty if parameter is not specified.
+     */
+    String value(final String name) {
+        return this.params.getOrDefault(name, "");
+    }
+
+    /**
+     * Search query from `q`, `skip`, `take`, `prerelease`, `semVerLevel`,
+     * `packageType` and `fuzzy` parameters.
+     *
+     * @return Search query.
+     * @throws NumberFormatException If paging parameters are not non-negative integers.
+     */
+    SearchQuery query() {
+        return new SearchQuery(
+            this.value("q"),
+            QueryParams.number(this.params.get("skip"), 0),
+            Math.min(
+                QueryParams.number(this.params.get("take"), QueryParams.TAKE),
+                QueryParams.MAX_TAKE
+            ),
+            Boolean.parseBoolean(this.params.get("prerelease")),
+            QueryParams.semver(this.params.get("semVerLevel")),
+            this.value("packageType"),
+            Boolean.parseBoolean(this.params.get("fuzzy"))
+        );
+    }
+
+    /**
+     * Parse query parameters.
+     *
+     * @param query Raw query.
+     * @return Decoded parameters by name, first value wins.
+     */
+    private static Map<String, String> parse(final String query) {
+        final Map<String, String> params = new HashMap<>();
+        for (final String pair : query.split("&")) {
+            if (!pair.isEmpty()) {
+                final int eq = pair.indexOf('=');
+                final String name;
+                final String value;
+                if (eq < 0) {
+                    name = pair;
+                    value = "";
+                } else {
+                    name = pair.substring(0, eq);
+                    value = pair.substring(eq + 1);
+                }
+                params.putIfAbsent(QueryParams.decode(name), QueryParams.decode(value));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Decode URL encoded query part.
+     *
+     * @param encoded Encoded value.
+     * @return Decoded value.
+     */
+    private static String decode(final String encoded) {
+        try {
+            return URLDecoder.decode(encoded, StandardCharsets.UTF_8.name());
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Parse non-negative integer parameter.
+     *
+     * @param value Parameter value, may be null.
+     * @param def Default value.
+     * @return Parsed value.
+     * @throws NumberFormatException If value is not a non-negative integer.
+     */
+    private static int number(final String value, final int def) {
+        final int number;
+        if (value == null || value.isEmpty()) {
+            number = def;
+        } else {
+            number = Integer.parseInt(value);
+            if (number < 0) {
+                throw new NumberFormatException(value);
+            }
+        }
+        return number;
+    }
+
+    /**
+     * Check if SemVer level allows SemVer 2.0.0 versions.
+     *
+     * @param level SemVer level parameter value, may be null.
+     * @return True if SemVer 2.0.0 versions are allowed.
+     */
+    private static boolean semver(final String level) {
+        boolean semver = false;
+        if (level != null && !level.isEmpty()) {
+            try {
+                semver = Integer.parseInt(level.split("\\.")[0]) >= 2;
+            } catch (final NumberFormatException ex) {
+                semver = false;
+            }
+        }
+        return semver;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.search;
+
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.nuget.http.Absent;
+import com.artipie.nuget.http.Resource;
+import com.artipie.nuget.http.Route;
+import com.artipie.nuget.http.RsWithBodyNoHeaders;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
+import com.artipie.nuget.search.Hit;
+import com.artipie.nuget.search.Hits;
+import com.artipie.nuget.search.SearchIndex;
+import com.artipie.nuget.search.SearchQuery;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonWriter;
+import org.reactivestreams.Publisher;
+
+/**
+ * Search autocomplete service route.
+ * See <a href="https://docs.microsoft.com/en-us/nuget/api/search-autocomplete-service-resource">Autocomplete</a>
+ * Package ids starting with `q` parameter are found by binary search
+ * over sorted ids of {@link SearchIndex}, versions of package for `id` parameter
+ * are taken from the index too, so storage is never read.
+ *
+ * @since 1.3
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class SearchAutocompleteService implements Route {
+
+    /**
+     * Base path for the route.
+     */
+    private static final String BASE = "/autocomplete";
+
+    /**
+     * Resource for paths other than autocomplete.
+     */
+    private static final Resource ABSENT = new Absent();
+
+    /**
+     * Search index.
+     */
+    private final SearchIndex index;
+
+    /**
+     * Ctor.
+     *
+     * @param index Search index.
+     */
+    public SearchAutocompleteService(final SearchIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public String path() {
+        return SearchAutocompleteService.BASE;
+    }
+
+    @Override
+    public Resource resource(final String path) {
+        return this.resource(path, "");
+    }
+
+    @Override
+    public Resource resource(final String path, final String query) {
+        final Resource resource;
+        if (path.equals(SearchAutocompleteService.BASE)) {
+            resource = new Autocomplete(query);
+        } else {
+            resource = SearchAutocompleteService.ABSENT;
+        }
+        return resource;
+    }
+
+    /**
+     * Render JSON object to bytes.
+     *
+     * @param json JSON object.
+     * @return JSON bytes.
+     */
+    private static byte[] bytes(final JsonObject json) {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonWriter writer = Json.createWriter(out)) {
+            writer.writeObject(json);
+            out.flush();
+            return out.toByteArray();
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Failed to serialize JSON to bytes", ex);
+        }
+    }
+
+    /**
+     * Autocomplete resource.
+     *
+     * @since 1.3
+     */
+    private final class Autocomplete implements Resource {
+
+        /**
+         * Raw query.
+         */
+        private final String query;
+
+        /**
+         * Ctor.
+         *
+         * @param query Raw query.
+         */
+        Autocomplete(final String query) {
+            this.query = query;
+        }
+
+        @Override
+        public Response get(final Headers headers) {
+            final QueryParams params = new QueryParams(this.query);
+            Response response;
+            try {
+                final SearchQuery search = params.query();
+                final String id = params.value("id");
+                final JsonObject json;
+                if (id.isEmpty()) {
+                    json = this.ids(search);
+                } else {
+                    json = this.versions(new PackageId(id), search);
+                }
+                final byte[] bytes = SearchAutocompleteService.bytes(json);
+                response = new RsWithBodyNoHeaders(
+                    new RsWithHeaders(
+                        new RsWithStatus(RsStatus.OK),
+                        new Header("Content-Type", "application/json")
+                    ),
+                    bytes
+                );
+            } catch (final NumberFormatException ex) {
+                response = new RsWithStatus(RsStatus.BAD_REQUEST);
+            }
+            return response;
+        }
+
+        @Override
+        public Response put(final Headers headers, final Publisher<ByteBuffer> body) {
+            return new RsWithStatus(RsStatus.METHOD_NOT_ALLOWED);
+        }
+
+        /**
+         * Package ids starting with query prefix.
+         *
+         * @param search Search query.
+         * @return JSON with total number of ids and requested page of them.
+         */
+        private JsonObject ids(final SearchQuery search) {
+            final Hits hits = SearchAutocompleteService.this.index.autocomplete(search);
+            final JsonArrayBuilder data = Json.createArrayBuilder();
+            for (final Hit hit : hits.page()) {
+                data.add(hit.id().raw());
+            }
+            return Json.createObjectBuilder()
+                .add("totalHits", hits.total())
+                .add("data", data)
+                .build();
+        }
+
+        /**
+         * Versions of package.
+         *
+         * @param id Package id.
+         * @param search Search query.
+         * @return JSON with versions, empty if package is not found.
+         */
+        private JsonObject versions(final PackageId id, final SearchQuery search) {
+            final Optional<Hit> hit = SearchAutocompleteService.this.index.exact(id, search);
+            final JsonArrayBuilder data = Json.createArrayBuilder();
+            if (hit.isPresent()) {
+                for (final Version version : hit.get().versions()) {
+                    data.add(version.normalized());
+                }
+            }
+            return Json.createObjectBuilder().add("data", data).build();
+        }
+    }
+}
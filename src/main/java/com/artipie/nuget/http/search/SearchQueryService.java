@@ -0,0 +1,249 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.search;
+
+import com.artipie.asto.Content;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.nuget.Downloads;
+import com.artipie.nuget.http.Absent;
+import com.artipie.nuget.http.Resource;
+import com.artipie.nuget.http.Route;
+import com.artipie.nuget.http.RsWithBodyNoHeaders;
+import com.artipie.nuget.http.StreamedContent;
+import com.artipie.nuget.metadata.SearchResults;
+import com.artipie.nuget.metadata.Version;
+import com.artipie.nuget.search.Hit;
+import com.artipie.nuget.search.Hits;
+import com.artipie.nuget.search.SearchIndex;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import org.reactivestreams.Publisher;
+
+/**
+ * Search query service route.
+ * See <a href="https://docs.microsoft.com/en-us/nuget/api/search-query-service-resource">Search</a>
+ * Queries are served from in-memory {@link SearchIndex} without reading storage,
+ * results JSON is streamed to response body as it is generated.
+ *
+ * @since 1.3
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class SearchQueryService implements Route {
+
+    /**
+     * Base path for the route.
+     */
+    private static final String BASE = "/query";
+
+    /**
+     * Resource for paths other than query.
+     */
+    private static final Resource ABSENT = new Absent();
+
+    /**
+     * Base URL of repository.
+     */
+    private final URL base;
+
+    /**
+     * Search index.
+     */
+    private final SearchIndex index;
+
+    /**
+     * Package downloads counters.
+     */
+    private final Downloads downloads;
+
+    /**
+     * Executor for blocking generation of results JSON.
+     */
+    private final Executor executor;
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL of repository.
+     * @param index Search index.
+     * @param downloads Package downloads counters.
+     * @param executor Executor for blocking generation of results JSON.
+     */
+    public SearchQueryService(
+        final URL base,
+        final SearchIndex index,
+        final Downloads downloads,
+        final Executor executor
+    ) {
+        this.base = base;
+        this.index = index;
+        this.downloads = downloads;
+        this.executor = executor;
+    }
+
+    @Override
+    public String path() {
+        return SearchQueryService.BASE;
+    }
+
+    @Override
+    public Resource resource(final String path) {
+        return this.resource(path, "");
+    }
+
+    @Override
+    public Resource resource(final String path, final String query) {
+        final Resource resource;
+        if (path.equals(SearchQueryService.BASE)) {
+            resource = new Search(query);
+        } else {
+            resource = SearchQueryService.ABSENT;
+        }
+        return resource;
+    }
+
+    /**
+     * URL of package registration index.
+     *
+     * @param hit Package found.
+     * @return URL.
+     */
+    private String registration(final Hit hit) {
+        return this.url(
+            String.format(
+                "%s/registrations/%s/index.json", this.base.getPath(), hit.id().normalized()
+            )
+        );
+    }
+
+    /**
+     * URL of package version registration leaf.
+     *
+     * @param hit Package found.
+     * @param version Version of the package.
+     * @return URL.
+     */
+    private String leaf(final Hit hit, final Version version) {
+        return this.url(
+            String.format(
+                "%s/registrations/%s/%s.json",
+                this.base.getPath(), hit.id().normalized(), version.normalized()
+            )
+        );
+    }
+
+    /**
+     * Absolute URL resolved against base.
+     *
+     * @param relative Relative URL.
+     * @return URL.
+     */
+    private String url(final String relative) {
+        try {
+            return new URL(this.base, relative).toString();
+        } catch (final MalformedURLException ex) {
+            throw new IllegalStateException(
+                String.format("Failed to build URL from base: '%s'", this.base),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Search resource.
+     *
+     * @since 1.3
+     */
+    private final class Search implements Resource {
+
+        /**
+         * Raw query.
+         */
+        private final String query;
+
+        /**
+         * Ctor.
+         *
+         * @param query Raw query.
+         */
+        Search(final String query) {
+            this.query = query;
+        }
+
+        @Override
+        public Response get(final Headers headers) {
+            Response response;
+            try {
+                final Hits hits = SearchQueryService.this.index.search(
+                    new QueryParams(this.query).query()
+                );
+                response = new RsWithBodyNoHeaders(
+                    new RsWithHeaders(
+                        new RsWithStatus(RsStatus.OK),
+                        new Header("Content-Type", "application/json")
+                    ),
+                    new Content.From(this.json(hits))
+                );
+            } catch (final NumberFormatException ex) {
+                response = new RsWithStatus(RsStatus.BAD_REQUEST);
+            }
+            return response;
+        }
+
+        @Override
+        public Response put(final Headers headers, final Publisher<ByteBuffer> body) {
+            return new RsWithStatus(RsStatus.METHOD_NOT_ALLOWED);
+        }
+
+        /**
+         * Search results JSON.
+         * JSON is generated while response body is read.
+         *
+         * @param hits Packages found.
+         * @return JSON content.
+         */
+        private Publisher<ByteBuffer> json(final Hits hits) {
+            final List<SearchResults.Package> packages = new ArrayList<>(hits.page().size());
+            for (final Hit hit : hits.page()) {
+                final String registration = SearchQueryService.this.registration(hit);
+                final List<SearchResults.Version> versions =
+                    new ArrayList<>(hit.versions().size());
+                for (final Version version : hit.versions()) {
+                    versions.add(
+                        new SearchResults.Version(
+                            version.normalized(),
+                            SearchQueryService.this.downloads.count(hit.id(), version),
+                            SearchQueryService.this.leaf(hit, version)
+                        )
+                    );
+                }
+                final Map<String, String> fields = new LinkedHashMap<>();
+                fields.put("@id", registration);
+                fields.put("registration", registration);
+                fields.put("title", hit.title());
+                fields.put("description", hit.description());
+                fields.put("authors", hit.authors());
+                fields.put("tags", hit.tags());
+                packages.add(
+                    new SearchResults.Package(hit.id().raw(), hit.types(), versions, fields)
+                );
+            }
+            return new StreamedContent(
+                out -> new SearchResults(out).generate(hits.total(), packages),
+                SearchQueryService.this.executor
+            );
+        }
+    }
+}
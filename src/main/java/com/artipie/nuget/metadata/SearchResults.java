@@ -9,6 +9,8 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * NugetRepository search function results.
@@ -37,15 +39,29 @@ public final class SearchResults {
      * @throws IOException On IO error
      */
     void generate(final Collection<Package> packages) throws IOException {
+        this.generate(packages.size(), packages);
+    }
+
+    /**
+     * Generates search resulting json for single page of results.
+     * @param total Total number of packages found on all pages
+     * @param packages Packages of the page to write results from
+     * @throws IOException On IO error
+     */
+    public void generate(final long total, final Collection<Package> packages)
+        throws IOException {
         final JsonGenerator gen = new JsonFactory().createGenerator(this.out);
         gen.writeStartObject();
-        gen.writeNumberField("totalHits", packages.size());
+        gen.writeNumberField("totalHits", total);
         gen.writeFieldName("data");
         gen.writeStartArray();
         for (final Package item : packages) {
             gen.writeStartObject();
             gen.writeStringField("id", item.id);
             gen.writeStringField("version", item.version());
+            for (final Map.Entry<String, String> field : item.fields.entrySet()) {
+                gen.writeStringField(field.getKey(), field.getValue());
+            }
             gen.writeFieldName("packageTypes");
             gen.writeArray(item.types.toArray(new String[]{}), 0, item.types.size());
             gen.writeFieldName("versions");
@@ -83,6 +99,11 @@ public final class SearchResults {
          */
         private final Collection<Version> versions;
 
+        /**
+         * Additional string fields of the package, such as description or title.
+         */
+        private final Map<String, String> fields;
+
         /**
          * Ctor.
          * @param id Package id
@@ -91,9 +112,23 @@ public final class SearchResults {
          */
         public Package(final String id, final Collection<String> types,
             final Collection<Version> versions) {
+            this(id, types, versions, Collections.emptyMap());
+        }
+
+        /**
+         * Ctor.
+         * @param id Package id
+         * @param types Package types
+         * @param versions Package versions
+         * @param fields Additional string fields of the package, written in iteration order
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Package(final String id, final Collection<String> types,
+            final Collection<Version> versions, final Map<String, String> fields) {
             this.id = id;
             this.types = types;
             this.versions = versions;
+            this.fields = fields;
         }
 
         /**
@@ -134,7 +169,7 @@ public final class SearchResults {
          * @param downloads The number of downloads for this specific package version
          * @param id The absolute URL to the associated registration leaf
          */
-        Version(final String value, final long downloads, final String id) {
+        public Version(final String value, final long downloads, final String id) {
             this.value = value;
             this.downloads = downloads;
             this.id = id;
@@ -0,0 +1,234 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import com.artipie.ArtipieException;
+import com.artipie.nuget.metadata.Nuspec;
+import com.artipie.nuget.metadata.NuspecField;
+import com.artipie.nuget.metadata.OptFieldName;
+import com.artipie.nuget.metadata.Version;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Searchable fields of single package version.
+ * Fields are read from nuspec once, nuspec itself is not kept in memory.
+ *
+ * @since 1.3
+ */
+final class Entry {
+
+    /**
+     * Package id.
+     */
+    private final NuspecField id;
+
+    /**
+     * Package version.
+     */
+    private final Version version;
+
+    /**
+     * Package title.
+     */
+    private final String title;
+
+    /**
+     * Package description.
+     */
+    private final String description;
+
+    /**
+     * Package authors.
+     */
+    private final String authors;
+
+    /**
+     * Package tags.
+     */
+    private final String tags;
+
+    /**
+     * Package types names.
+     */
+    private final Collection<String> types;
+
+    /**
+     * Ctor.
+     *
+     * @param nuspec Nuspec of package version.
+     */
+    Entry(final Nuspec nuspec) {
+        this(
+            nuspec.id(),
+            new Version(nuspec.version().raw()),
+            nuspec.fieldByName(OptFieldName.TITLE).orElse(""),
+            Entry.optional(nuspec::description),
+            Entry.optional(nuspec::authors),
+            nuspec.fieldByName(OptFieldName.TAGS).orElse(""),
+            nuspec.packageTypes().stream()
+                .map(type -> type.substring(0, type.indexOf(':')))
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param id Package id.
+     * @param version Package version.
+     * @param title Package title.
+     * @param description Package description.
+     * @param authors Package authors.
+     * @param tags Package tags.
+     * @param types Package types names.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    Entry(
+        final NuspecField id,
+        final Version version,
+        final String title,
+        final String description,
+        final String authors,
+        final String tags,
+        final Collection<String> types
+    ) {
+        this.id = id;
+        this.version = version;
+        this.title = title;
+        this.description = description;
+        this.authors = authors;
+        this.tags = tags;
+        this.types = types;
+    }
+
+    /**
+     * Package id.
+     *
+     * @return Id.
+     */
+    NuspecField id() {
+        return this.id;
+    }
+
+    /**
+     * Package version.
+     *
+     * @return Version.
+     */
+    Version version() {
+        return this.version;
+    }
+
+    /**
+     * Package title.
+     *
+     * @return Title, empty if not specified.
+     */
+    String title() {
+        return this.title;
+    }
+
+    /**
+     * Package description.
+     *
+     * @return Description, empty if not specified.
+     */
+    String description() {
+        return this.description;
+    }
+
+    /**
+     * Package authors.
+     *
+     * @return Authors, empty if not specified.
+     */
+    String authors() {
+        return this.authors;
+    }
+
+    /**
+     * Package tags.
+     *
+     * @return Space separated tags, empty if not specified.
+     */
+    String tags() {
+        return this.tags;
+    }
+
+    /**
+     * Package types names.
+     *
+     * @return Names of package types.
+     */
+    Collection<String> types() {
+        return this.types;
+    }
+
+    /**
+     * Search terms of the version: id, id as a whole, title, tags, description and authors.
+     *
+     * @return Terms.
+     */
+    Set<String> terms() {
+        return this.weights().keySet();
+    }
+
+    /**
+     * Search terms of the version with their relevance weights.
+     * Term found in several fields gets weight of the most relevant one:
+     * id as a whole, then id tokens, title, tags, and description or authors.
+     *
+     * @return Weights by term.
+     * @checkstyle MagicNumberCheck (15 lines)
+     */
+    Map<String, Integer> weights() {
+        final Map<String, Integer> weights = new LinkedHashMap<>();
+        Entry.weigh(weights, new Tokens(this.id.normalized()).list(), 4);
+        Entry.weigh(weights, Collections.singletonList(this.id.normalized()), 8);
+        Entry.weigh(weights, new Tokens(this.title).list(), 3);
+        Entry.weigh(weights, new Tokens(this.tags).list(), 2);
+        Entry.weigh(weights, new Tokens(this.description).list(), 1);
+        Entry.weigh(weights, new Tokens(this.authors).list(), 1);
+        return weights;
+    }
+
+    /**
+     * Put terms of a field to weights.
+     *
+     * @param weights Weights by term.
+     * @param terms Terms of the field.
+     * @param weight Weight of the field.
+     */
+    private static void weigh(
+        final Map<String, Integer> weights, final List<String> terms, final int weight
+    ) {
+        for (final String term : terms) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    /**
+     * Read required nuspec field which may be missing in not validated nuspec.
+     *
+     * @param field Field reading.
+     * @return Field value, empty if field is missing.
+     */
+    private static String optional(final Supplier<String> field) {
+        String value;
+        try {
+            value = field.get();
+        } catch (final ArtipieException ex) {
+            value = "";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facets of indexed packages as bitsets over package ordinals.
+ * Package is in facet if some of its versions has the facet value:
+ * package type, tag, or stable and SemVer 1.0.0 version kinds.
+ * Query filters are computed as intersection of facet bitsets,
+ * so documents are not checked by predicates one by one.
+ *
+ * @since 1.3
+ */
+final class Facets {
+
+    /**
+     * Default package type of packages not specifying their types.
+     */
+    private static final String DEPENDENCY = "dependency";
+
+    /**
+     * Facet of packages with not pre-release versions.
+     */
+    private static final String STABLE = "version:stable";
+
+    /**
+     * Facet of packages with not SemVer 2.0.0 versions.
+     */
+    private static final String SEMVER_ONE = "version:semver1";
+
+    /**
+     * Facet of packages with versions that are neither pre-release nor SemVer 2.0.0.
+     */
+    private static final String STABLE_SEMVER_ONE = "version:stable-semver1";
+
+    /**
+     * Package ordinals by facet.
+     */
+    private final Map<String, BitSet> bits;
+
+    /**
+     * Lock guarding bitsets.
+     */
+    private final ReadWriteLock lock;
+
+    /**
+     * Ctor.
+     */
+    Facets() {
+        this.bits = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Add package versions to facets.
+     *
+     * @param ordinal Package ordinal.
+     * @param versions Versions of package.
+     */
+    void add(final int ordinal, final Collection<Entry> versions) {
+        final Set<String> facets = new LinkedHashSet<>();
+        for (final Entry entry : versions) {
+            facets.addAll(Facets.facets(entry));
+        }
+        this.lock.writeLock().lock();
+        try {
+            for (final String facet : facets) {
+                this.bits.computeIfAbsent(facet, key -> new BitSet()).set(ordinal);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals of packages passing query filters.
+     *
+     * @param query Search query.
+     * @return Package ordinals, empty if query has no filters.
+     */
+    Optional<BitSet> filter(final SearchQuery query) {
+        final List<String> facets = new ArrayList<>(1);
+        if (!query.type().isEmpty()) {
+            facets.add(Facets.type(query.type()));
+        }
+        for (final String tag : query.tags()) {
+            facets.add(Facets.tag(tag));
+        }
+        if (!query.prerelease() && !query.semver()) {
+            facets.add(Facets.STABLE_SEMVER_ONE);
+        } else if (!query.prerelease()) {
+            facets.add(Facets.STABLE);
+        } else if (!query.semver()) {
+            facets.add(Facets.SEMVER_ONE);
+        }
+        final Optional<BitSet> filter;
+        if (facets.isEmpty()) {
+            filter = Optional.empty();
+        } else {
+            filter = Optional.of(this.intersection(facets));
+        }
+        return filter;
+    }
+
+    /**
+     * Intersection of facets bitsets.
+     *
+     * @param facets Facets.
+     * @return Ordinals of packages in all facets.
+     */
+    private BitSet intersection(final List<String> facets) {
+        BitSet result = null;
+        this.lock.readLock().lock();
+        try {
+            for (final String facet : facets) {
+                final BitSet set = this.bits.get(facet);
+                if (set == null) {
+                    result = new BitSet();
+                    break;
+                }
+                if (result == null) {
+                    result = (BitSet) set.clone();
+                } else {
+                    result.and(set);
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Facets of package version.
+     *
+     * @param entry Package version.
+     * @return Facets.
+     */
+    private static Collection<String> facets(final Entry entry) {
+        final Collection<String> facets = new ArrayList<>(1);
+        if (entry.types().isEmpty()) {
+            facets.add(Facets.type(Facets.DEPENDENCY));
+        }
+        for (final String type : entry.types()) {
+            facets.add(Facets.type(type));
+        }
+        for (final String tag : entry.tags().trim().split("\\s+")) {
+            if (!tag.isEmpty()) {
+                facets.add(Facets.tag(tag));
+            }
+        }
+        final boolean stable = !entry.version().isPrerelease();
+        final boolean one = !entry.version().isSemVerTwo();
+        if (stable) {
+            facets.add(Facets.STABLE);
+        }
+        if (one) {
+            facets.add(Facets.SEMVER_ONE);
+        }
+        if (stable && one) {
+            facets.add(Facets.STABLE_SEMVER_ONE);
+        }
+        return facets;
+    }
+
+    /**
+     * Package type facet.
+     *
+     * @param type Package type name.
+     * @return Facet.
+     */
+    private static String type(final String type) {
+        return String.format("type:%s", type.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Tag facet.
+     *
+     * @param tag Tag.
+     * @return Facet.
+     */
+    private static String tag(final String tag) {
+        return String.format("tag:%s", tag.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import com.artipie.nuget.metadata.NuspecField;
+import com.artipie.nuget.metadata.Version;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Package found by search.
+ * Metadata is taken from the latest version matching the query.
+ *
+ * @since 1.3
+ */
+public final class Hit {
+
+    /**
+     * Latest version matching the query.
+     */
+    private final Entry latest;
+
+    /**
+     * All versions matching the query, ascending.
+     */
+    private final List<Version> versions;
+
+    /**
+     * Ctor.
+     *
+     * @param latest Latest version matching the query.
+     * @param versions All versions matching the query, ascending.
+     */
+    Hit(final Entry latest, final List<Version> versions) {
+        this.latest = latest;
+        this.versions = Collections.unmodifiableList(versions);
+    }
+
+    /**
+     * Package id.
+     *
+     * @return Id.
+     */
+    public NuspecField id() {
+        return this.latest.id();
+    }
+
+    /**
+     * Latest version matching the query.
+     *
+     * @return Version.
+     */
+    public Version version() {
+        return this.latest.version();
+    }
+
+    /**
+     * All versions matching the query.
+     *
+     * @return Versions, ascending.
+     */
+    public List<Version> versions() {
+        return this.versions;
+    }
+
+    /**
+     * Package title.
+     *
+     * @return Title, empty if not specified.
+     */
+    public String title() {
+        return this.latest.title();
+    }
+
+    /**
+     * Package description.
+     *
+     * @return Description, empty if not specified.
+     */
+    public String description() {
+        return this.latest.description();
+    }
+
+    /**
+     * Package authors.
+     *
+     * @return Authors, empty if not specified.
+     */
+    public String authors() {
+        return this.latest.authors();
+    }
+
+    /**
+     * Package tags.
+     *
+     * @return Space separated tags, empty if not specified.
+     */
+    public String tags() {
+        return this.latest.tags();
+    }
+
+    /**
+     * Package types names.
+     *
+     * @return Names of package types.
+     */
+    public Collection<String> types() {
+        return this.latest.types();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page of packages found by search.
+ *
+ * @since 1.3
+ */
+public final class Hits {
+
+    /**
+     * Total number of packages found.
+     */
+    private final int total;
+
+    /**
+     * Packages of requested page.
+     */
+    private final List<Hit> page;
+
+    /**
+     * Ctor.
+     *
+     * @param total Total number of packages found.
+     * @param page Packages of requested page.
+     */
+    Hits(final int total, final List<Hit> page) {
+        this.total = total;
+        this.page = Collections.unmodifiableList(page);
+    }
+
+    /**
+     * Total number of packages found, on all pages.
+     *
+     * @return Number of packages.
+     */
+    public int total() {
+        return this.total;
+    }
+
+    /**
+     * Packages of requested page.
+     *
+     * @return Packages.
+     */
+    public List<Hit> page() {
+        return this.page;
+    }
+}
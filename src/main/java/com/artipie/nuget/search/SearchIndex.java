@@ -0,0 +1,862 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.nuget.Downloads;
+import com.artipie.nuget.PackageListener;
+import com.artipie.nuget.PublishLog;
+import com.artipie.nuget.metadata.Nuspec;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index of packages.
+ * Packages are indexed by tokens of id, title, tags, description and authors
+ * of all their versions. Term postings are kept in sorted map, so query token
+ * matches every term it is a prefix of. Index is restored from {@link SearchSnapshot},
+ * filled from nuspecs stored in repository by {@link #load(Storage)} and is updated
+ * incrementally as {@link PackageListener} of repository, searching never reads storage.
+ * Ids of packages are also kept in concurrent sorted set for autocomplete,
+ * new id is inserted when package is added, so requests never sort ids.
+ * Packages get internal ordinals, query filters by package type, tags and version kinds
+ * are bitwise intersections of {@link Facets} over these ordinals.
+ * Postings are partitioned into shards by package ordinal, query is evaluated
+ * on all shards in parallel and top packages of shards are merged.
+ * Fuzzy queries match package ids within small edit distance found by {@link Trigrams}.
+ *
+ * @since 1.3
+ */
+public final class SearchIndex implements PackageListener {
+
+    /**
+     * Maximum number of nuspecs read from storage at once while loading.
+     */
+    private static final int READS = 16;
+
+    /**
+     * Publish log entries this older than the mark are read again on load,
+     * so entries written by hosts with clocks behind or whose files were moved
+     * after the entry was listed are not missed.
+     */
+    private static final Duration SKEW = Duration.ofMinutes(1);
+
+    /**
+     * Packages by lower case id.
+     */
+    private final ConcurrentMap<String, Document> documents;
+
+    /**
+     * Shards of postings, package belongs to shard by its ordinal.
+     */
+    private final Shard[] shards;
+
+    /**
+     * Pool to search shards in parallel.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Lower case ids of packages by ordinal.
+     */
+    private final ConcurrentMap<Integer, String> names;
+
+    /**
+     * Next package ordinal.
+     */
+    private final AtomicInteger ordinals;
+
+    /**
+     * Facets of packages.
+     */
+    private final Facets facets;
+
+    /**
+     * Trigrams of package ids.
+     */
+    private final Trigrams trigrams;
+
+    /**
+     * Sorted lower case ids of packages.
+     */
+    private final NavigableSet<String> sorted;
+
+    /**
+     * Package downloads counters used for ranking.
+     */
+    private final Downloads downloads;
+
+    /**
+     * Time of latest {@link PublishLog} entry applied by load, negative if unknown.
+     */
+    private final AtomicLong mark;
+
+    /**
+     * Ctor.
+     */
+    public SearchIndex() {
+        this(Downloads.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param downloads Package downloads counters used for ranking.
+     */
+    public SearchIndex(final Downloads downloads) {
+        this(downloads, 1, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param downloads Package downloads counters used for ranking.
+     * @param shards Number of shards to partition packages into.
+     * @param pool Pool to search shards in parallel.
+     */
+    public SearchIndex(final Downloads downloads, final int shards, final ForkJoinPool pool) {
+        if (shards < 1) {
+            throw new IllegalArgumentException(
+                String.format("Number of shards should be positive: %d", shards)
+            );
+        }
+        this.downloads = downloads;
+        this.pool = pool;
+        this.shards = new Shard[shards];
+        for (int idx = 0; idx < shards; idx += 1) {
+            this.shards[idx] = new Shard(idx);
+        }
+        this.documents = new ConcurrentHashMap<>();
+        this.names = new ConcurrentHashMap<>();
+        this.ordinals = new AtomicInteger();
+        this.facets = new Facets();
+        this.trigrams = new Trigrams();
+        this.sorted = new ConcurrentSkipListSet<>();
+        this.mark = new AtomicLong(-1);
+    }
+
+    /**
+     * Index nuspecs stored in repository storage which are not indexed yet.
+     * Index remembers time of latest {@link PublishLog} entry it has loaded,
+     * the mark is kept in {@link SearchSnapshot}. If the mark is known,
+     * only the publish log is listed and nuspecs of entries since the mark
+     * are indexed, otherwise whole storage is listed once.
+     * Versions already indexed are found by nuspec key and are not read.
+     * Internal data under keys starting with dot is skipped,
+     * nuspecs that fail to read or parse are skipped too.
+     * Nuspecs are read in batches of {@link #READS}, next batch is read
+     * when previous one is indexed, so only single batch is in memory at once.
+     *
+     * @param storage Repository storage.
+     * @return Completion of loading.
+     */
+    public CompletionStage<Void> load(final Storage storage) {
+        final long since = this.mark.get();
+        final PublishLog log = new PublishLog(storage);
+        final CompletionStage<List<PublishLog.Entry>> entries;
+        if (since < 0) {
+            entries = log.since(0);
+        } else {
+            entries = log.since(since - SearchIndex.SKEW.toMillis());
+        }
+        return entries.thenCompose(
+            published -> {
+                final CompletionStage<Collection<Key>> nuspecs;
+                if (since < 0) {
+                    nuspecs = storage.list(Key.ROOT);
+                } else {
+                    nuspecs = CompletableFuture.completedFuture(
+                        published.stream().map(PublishLog.Entry::nuspec)
+                            .collect(Collectors.toList())
+                    );
+                }
+                final long latest = published.stream().mapToLong(PublishLog.Entry::time)
+                    .max().orElse(0);
+                return nuspecs.thenCompose(keys -> this.load(storage, keys)).thenRun(
+                    () -> this.mark.accumulateAndGet(latest, Math::max)
+                );
+            }
+        );
+    }
+
+    @Override
+    public void published(final Nuspec nuspec) {
+        final Entry entry = new Entry(nuspec);
+        this.restore(Collections.singletonList(entry));
+        final Collection<String> ids = Collections.singleton(entry.id().normalized());
+        for (final String term : entry.terms()) {
+            this.post(term, ids);
+        }
+    }
+
+    /**
+     * Search packages.
+     * Package matches if every query token is a prefix of some of its terms
+     * and it has versions allowed by the query, for fuzzy query package matches if
+     * its id is close to the query text. Packages are ranked by relevance
+     * of matched terms boosted by downloads count, then by id. Every shard keeps
+     * only requested page and the packages before it in bounded heap while matches
+     * are scored, matches are counted but never sorted all together. Shards other
+     * than the first one are searched in the pool, the first one in calling thread.
+     *
+     * @param query Search query.
+     * @return Page of packages found.
+     */
+    public Hits search(final SearchQuery query) {
+        final List<String> terms = query.terms();
+        final Optional<BitSet> filter = this.facets.filter(query);
+        final Optional<Map<String, Integer>> near;
+        if (query.fuzzy()) {
+            near = Optional.of(this.trigrams.near(query.prefix()));
+        } else {
+            near = Optional.empty();
+        }
+        final int skip = Math.max(query.skip(), 0);
+        final int limit = (int) Math.min(
+            (long) skip + Math.max(query.take(), 0), Integer.MAX_VALUE
+        );
+        final List<ForkJoinTask<Top>> forked = new ArrayList<>(this.shards.length - 1);
+        for (int idx = 1; idx < this.shards.length; idx += 1) {
+            final Shard shard = this.shards[idx];
+            forked.add(
+                this.pool.submit(() -> shard.top(query, terms, near, filter, limit))
+            );
+        }
+        final Top first = this.shards[0].top(query, terms, near, filter, limit);
+        int total = first.total;
+        final List<Scored> best = new ArrayList<>(first.scored);
+        for (final ForkJoinTask<Top> task : forked) {
+            final Top top = task.join();
+            total += top.total;
+            best.addAll(top.scored);
+        }
+        Collections.sort(best);
+        final int until = Math.min(limit, best.size());
+        final List<Hit> page = new ArrayList<>(Math.max(until - skip, 0));
+        for (int idx = skip; idx < until; idx += 1) {
+            page.add(best.get(idx).hit);
+        }
+        return new Hits(total, page);
+    }
+
+    /**
+     * Autocomplete package ids.
+     * Package matches if its id starts with the query prefix
+     * and it has versions allowed by the query. Packages are ordered by id.
+     *
+     * @param query Search query.
+     * @return Page of packages found.
+     */
+    public Hits autocomplete(final SearchQuery query) {
+        final String prefix = query.prefix();
+        final Optional<BitSet> filter = this.facets.filter(query);
+        final int from = Math.max(query.skip(), 0);
+        final int take = Math.max(query.take(), 0);
+        final List<Hit> page = new ArrayList<>(Math.min(take, this.documents.size()));
+        int total = 0;
+        for (final String id : this.sorted.tailSet(prefix)) {
+            if (!id.startsWith(prefix)) {
+                break;
+            }
+            final Document doc = this.documents.get(id);
+            if (doc != null && doc.passes(filter)) {
+                final Optional<Hit> hit = doc.hit(query);
+                if (hit.isPresent()) {
+                    if (total >= from && total - from < take) {
+                        page.add(hit.get());
+                    }
+                    total += 1;
+                }
+            }
+        }
+        return new Hits(total, page);
+    }
+
+    /**
+     * Find package by id.
+     *
+     * @param id Package id.
+     * @param query Search query, only versions allowed by the query are included.
+     * @return Package found, empty if there is no package with allowed versions.
+     */
+    public Optional<Hit> exact(final PackageId id, final SearchQuery query) {
+        return Optional.ofNullable(this.documents.get(id.normalized()))
+            .flatMap(doc -> doc.hit(query));
+    }
+
+    /**
+     * Versions of all indexed packages.
+     *
+     * @return Versions of every package, ascending.
+     */
+    List<List<Entry>> packages() {
+        return this.documents.values().stream()
+            .map(doc -> doc.entries)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Put package versions to index without indexing their terms.
+     *
+     * @param versions Versions of single package, ascending.
+     */
+    void restore(final List<Entry> versions) {
+        final String id = versions.get(0).id().normalized();
+        final boolean added = !this.documents.containsKey(id);
+        final Document restored = this.documents.compute(
+            id,
+            (key, doc) -> {
+                Document updated;
+                if (doc == null) {
+                    final int ordinal = this.ordinals.getAndIncrement();
+                    this.names.put(ordinal, key);
+                    updated = new Document(ordinal, versions);
+                } else {
+                    updated = doc;
+                    for (final Entry entry : versions) {
+                        updated = updated.with(entry);
+                    }
+                }
+                return updated;
+            }
+        );
+        this.facets.add(restored.ordinal, versions);
+        this.shard(restored.ordinal).members.add(id);
+        if (added) {
+            this.trigrams.add(id);
+            this.sorted.add(id);
+        }
+    }
+
+    /**
+     * Add packages to postings of the term.
+     *
+     * @param term Term.
+     * @param ids Lower case ids of packages.
+     */
+    void post(final String term, final Collection<String> ids) {
+        for (final String id : ids) {
+            final Document doc = this.documents.get(id);
+            if (doc != null) {
+                this.shard(doc.ordinal).postings
+                    .computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet())
+                    .add(id);
+            }
+        }
+    }
+
+    /**
+     * Shard of package.
+     *
+     * @param ordinal Package ordinal.
+     * @return Shard.
+     */
+    private Shard shard(final int ordinal) {
+        return this.shards[ordinal % this.shards.length];
+    }
+
+    /**
+     * Time of latest publish log entry loaded into index.
+     *
+     * @return Time in epoch milliseconds, negative if unknown.
+     */
+    long mark() {
+        return this.mark.get();
+    }
+
+    /**
+     * Set time of latest publish log entry loaded into index, e.g. on restore.
+     *
+     * @param time Time in epoch milliseconds, negative if unknown.
+     */
+    void mark(final long time) {
+        this.mark.set(time);
+    }
+
+    /**
+     * Index nuspecs which are not indexed yet in batches.
+     *
+     * @param storage Repository storage.
+     * @param keys Keys, only nuspecs outside of internal data are read.
+     * @return Completion of loading.
+     */
+    private CompletableFuture<Void> load(final Storage storage, final Collection<Key> keys) {
+        final List<Key> unindexed = keys.stream()
+            .filter(
+                key -> !key.string().startsWith(".")
+                    && key.string().endsWith(".nuspec")
+            )
+            .filter(key -> !this.indexed(key))
+            .distinct()
+            .collect(Collectors.toList());
+        CompletableFuture<Void> loaded = CompletableFuture.completedFuture(null);
+        for (int from = 0; from < unindexed.size(); from += SearchIndex.READS) {
+            final List<Key> batch = unindexed.subList(
+                from, Math.min(from + SearchIndex.READS, unindexed.size())
+            );
+            loaded = loaded.thenCompose(nothing -> this.read(storage, batch));
+        }
+        return loaded;
+    }
+
+    /**
+     * Index nuspecs stored by keys, skipping nuspecs failed to read or parse.
+     *
+     * @param storage Repository storage.
+     * @param nuspecs Nuspec keys.
+     * @return Completion of loading.
+     */
+    private CompletableFuture<Void> read(final Storage storage, final List<Key> nuspecs) {
+        return CompletableFuture.allOf(
+            nuspecs.stream().map(
+                key -> storage.value(key)
+                    .thenCompose(content -> new PublisherAs(content).bytes())
+                    .thenAccept(bytes -> this.published(new Nuspec.Xml(bytes)))
+                    .exceptionally(err -> null)
+                    .toCompletableFuture()
+            ).toArray(CompletableFuture<?>[]::new)
+        );
+    }
+
+    /**
+     * Check if version stored by nuspec key is indexed.
+     * Nuspec key consists of lower case id, normalized version and file name.
+     *
+     * @param nuspec Nuspec key.
+     * @return True if the version is indexed.
+     */
+    private boolean indexed(final Key nuspec) {
+        final String[] parts = nuspec.string().split("/");
+        boolean indexed = false;
+        if (parts.length == 3) {
+            final Document doc = this.documents.get(parts[0]);
+            indexed = doc != null && doc.entries.stream().anyMatch(
+                entry -> entry.version().normalized().equals(parts[1])
+            );
+        }
+        return indexed;
+    }
+
+    /**
+     * Shard of index: postings of packages with ordinals of the same remainder.
+     * Shards are searched independently, every shard selects its own top packages.
+     *
+     * @since 1.3
+     */
+    private final class Shard {
+
+        /**
+         * Shard number.
+         */
+        private final int number;
+
+        /**
+         * Lower case ids of shard packages by term.
+         */
+        private final ConcurrentNavigableMap<String, Set<String>> postings;
+
+        /**
+         * Lower case ids of shard packages.
+         */
+        private final Set<String> members;
+
+        /**
+         * Ctor.
+         *
+         * @param number Shard number.
+         */
+        Shard(final int number) {
+            this.number = number;
+            this.postings = new ConcurrentSkipListMap<>();
+            this.members = ConcurrentHashMap.newKeySet();
+        }
+
+        /**
+         * Select top packages of shard matching the query.
+         * Only limit of best packages is kept in bounded heap while matches are scored.
+         *
+         * @param query Search query.
+         * @param terms Query tokens.
+         * @param near Edit distances of ids close to fuzzy query, empty if query is not fuzzy.
+         * @param filter Ordinals of packages passing filters, empty if there are no filters.
+         * @param limit Number of best packages to select.
+         * @return Number of packages matching and best of them.
+         * @checkstyle ParameterNumberCheck (10 lines)
+         */
+        Top top(
+            final SearchQuery query,
+            final List<String> terms,
+            final Optional<Map<String, Integer>> near,
+            final Optional<BitSet> filter,
+            final int limit
+        ) {
+            final Collection<String> ids = this.candidates(terms, near, filter);
+            final Queue<Scored> top = new PriorityQueue<>(
+                Math.min(limit, ids.size()) + 1, Comparator.reverseOrder()
+            );
+            int total = 0;
+            for (final String id : ids) {
+                final Document doc = SearchIndex.this.documents.get(id);
+                if (doc != null && doc.passes(filter)) {
+                    final Optional<Hit> hit = doc.hit(query);
+                    if (hit.isPresent()) {
+                        total += 1;
+                        if (limit > 0) {
+                            final double relevance;
+                            if (near.isPresent()) {
+                                relevance = Document.relevance(near.get().get(id));
+                            } else {
+                                relevance = doc.relevance(terms);
+                            }
+                            final Scored scored = new Scored(
+                                hit.get(), doc.score(relevance, SearchIndex.this.downloads)
+                            );
+                            if (top.size() < limit) {
+                                top.add(scored);
+                            } else if (scored.compareTo(top.peek()) < 0) {
+                                top.poll();
+                                top.add(scored);
+                            }
+                        }
+                    }
+                }
+            }
+            return new Top(total, new ArrayList<>(top));
+        }
+
+        /**
+         * Candidate packages of shard.
+         *
+         * @param terms Query tokens.
+         * @param near Edit distances of ids close to fuzzy query, empty if query is not fuzzy.
+         * @param filter Ordinals of packages passing filters, empty if there are no filters.
+         * @return Lower case ids of packages.
+         */
+        private Collection<String> candidates(
+            final List<String> terms,
+            final Optional<Map<String, Integer>> near,
+            final Optional<BitSet> filter
+        ) {
+            final Collection<String> ids;
+            if (near.isPresent()) {
+                ids = near.get().keySet().stream()
+                    .filter(this.members::contains)
+                    .collect(Collectors.toList());
+            } else if (!terms.isEmpty()) {
+                ids = this.matching(terms);
+            } else if (filter.isPresent()) {
+                final BitSet bits = filter.get();
+                ids = new ArrayList<>(bits.cardinality() / SearchIndex.this.shards.length + 1);
+                for (int ord = this.number; ord < bits.length();
+                    ord += SearchIndex.this.shards.length) {
+                    if (bits.get(ord)) {
+                        ids.add(SearchIndex.this.names.get(ord));
+                    }
+                }
+            } else {
+                ids = this.members;
+            }
+            return ids;
+        }
+
+        /**
+         * Ids of shard packages having terms for every query token.
+         *
+         * @param tokens Query tokens.
+         * @return Lower case ids of packages.
+         */
+        private Set<String> matching(final List<String> tokens) {
+            Set<String> result = null;
+            for (final String token : tokens) {
+                final Set<String> ids = new HashSet<>();
+                for (final Set<String> posting : this.postings.subMap(
+                    token, true, token + Character.MAX_VALUE, true
+                ).values()) {
+                    ids.addAll(posting);
+                }
+                if (result == null) {
+                    result = ids;
+                } else {
+                    result.retainAll(ids);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Top packages selected by shard.
+     *
+     * @since 1.3
+     */
+    private static final class Top {
+
+        /**
+         * Number of packages matching.
+         */
+        private final int total;
+
+        /**
+         * Best packages.
+         */
+        private final List<Scored> scored;
+
+        /**
+         * Ctor.
+         *
+         * @param total Number of packages matching.
+         * @param scored Best packages.
+         */
+        Top(final int total, final List<Scored> scored) {
+            this.total = total;
+            this.scored = scored;
+        }
+    }
+
+    /**
+     * Package found with its score.
+     * Natural order puts better packages first: higher score, then lower id.
+     *
+     * @since 1.3
+     */
+    private static final class Scored implements Comparable<Scored> {
+
+        /**
+         * Package found.
+         */
+        private final Hit hit;
+
+        /**
+         * Score.
+         */
+        private final double score;
+
+        /**
+         * Ctor.
+         *
+         * @param hit Package found.
+         * @param score Score.
+         */
+        Scored(final Hit hit, final double score) {
+            this.hit = hit;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(final Scored other) {
+            int res = Double.compare(other.score, this.score);
+            if (res == 0) {
+                res = this.hit.id().normalized().compareTo(other.hit.id().normalized());
+            }
+            return res;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Scored && this.compareTo((Scored) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hit.id().normalized().hashCode();
+        }
+    }
+
+    /**
+     * Indexed package: all its versions.
+     *
+     * @since 1.3
+     */
+    private static final class Document {
+
+        /**
+         * Package ordinal.
+         */
+        private final int ordinal;
+
+        /**
+         * Versions of package, ascending.
+         */
+        private final List<Entry> entries;
+
+        /**
+         * Weights of terms of all versions, computed on first scoring.
+         */
+        private volatile NavigableMap<String, Integer> weights;
+
+        /**
+         * Ctor.
+         *
+         * @param ordinal Package ordinal.
+         * @param entries Versions of package, ascending.
+         */
+        Document(final int ordinal, final List<Entry> entries) {
+            this.ordinal = ordinal;
+            this.entries = entries;
+        }
+
+        /**
+         * Check if package passes facet filter.
+         *
+         * @param filter Ordinals of packages passing filter, empty if there is no filter.
+         * @return True if package passes.
+         */
+        boolean passes(final Optional<BitSet> filter) {
+            return !filter.isPresent() || filter.get().get(this.ordinal);
+        }
+
+        /**
+         * Relevance of package for query tokens.
+         * Each token adds weight of the most relevant term it matches,
+         * exact match weights twice as much as prefix match.
+         *
+         * @param tokens Query tokens, all packages are equally relevant if empty.
+         * @return Relevance.
+         */
+        double relevance(final List<String> tokens) {
+            double relevance = 1;
+            if (!tokens.isEmpty()) {
+                relevance = 0;
+                final NavigableMap<String, Integer> terms = this.weights();
+                for (final String token : tokens) {
+                    int best = 0;
+                    for (final Map.Entry<String, Integer> term : terms.subMap(
+                        token, true, token + Character.MAX_VALUE, true
+                    ).entrySet()) {
+                        int weight = term.getValue();
+                        if (term.getKey().length() == token.length()) {
+                            weight *= 2;
+                        }
+                        best = Math.max(best, weight);
+                    }
+                    relevance += best;
+                }
+            }
+            return relevance;
+        }
+
+        /**
+         * Score package.
+         * Relevance is multiplied by logarithm of downloads of all versions.
+         *
+         * @param relevance Relevance of package for query.
+         * @param downloads Downloads counters.
+         * @return Score.
+         */
+        double score(final double relevance, final Downloads downloads) {
+            long count = 0;
+            for (final Entry entry : this.entries) {
+                count += downloads.count(entry.id(), entry.version());
+            }
+            return relevance * (1 + Math.log1p(count));
+        }
+
+        /**
+         * Relevance of package with id close to fuzzy query.
+         * Exact id weights as exact id term match, each edit halves it.
+         *
+         * @param distance Edit distance from query to id.
+         * @return Relevance.
+         * @checkstyle MagicNumberCheck (5 lines)
+         */
+        static double relevance(final int distance) {
+            return 16.0 / (1 << distance);
+        }
+
+        /**
+         * Document with version added or replaced.
+         *
+         * @param entry Version.
+         * @return Updated document.
+         */
+        Document with(final Entry entry) {
+            final List<Entry> updated = new ArrayList<>(this.entries.size() + 1);
+            for (final Entry existing : this.entries) {
+                if (!existing.version().normalized().equals(entry.version().normalized())) {
+                    updated.add(existing);
+                }
+            }
+            updated.add(entry);
+            updated.sort(Comparator.comparing(Entry::version));
+            return new Document(this.ordinal, updated);
+        }
+
+        /**
+         * Weights of terms of all versions.
+         * Computed once per document, concurrent first calls may compute it more than once.
+         *
+         * @return Weights by term.
+         */
+        private NavigableMap<String, Integer> weights() {
+            NavigableMap<String, Integer> terms = this.weights;
+            if (terms == null) {
+                terms = new TreeMap<>();
+                for (final Entry entry : this.entries) {
+                    for (final Map.Entry<String, Integer> term : entry.weights().entrySet()) {
+                        terms.merge(term.getKey(), term.getValue(), Math::max);
+                    }
+                }
+                this.weights = terms;
+            }
+            return terms;
+        }
+
+        /**
+         * Package as search hit, if it has versions allowed by the query.
+         *
+         * @param query Search query.
+         * @return Hit, empty if no versions are allowed by the query.
+         */
+        Optional<Hit> hit(final SearchQuery query) {
+            final List<Entry> allowed = this.entries.stream()
+                .filter(entry -> query.prerelease() || !entry.version().isPrerelease())
+                .filter(entry -> query.semver() || !entry.version().isSemVerTwo())
+                .collect(Collectors.toList());
+            final Optional<Hit> hit;
+            if (allowed.isEmpty()) {
+                hit = Optional.empty();
+            } else {
+                final List<Version> versions = allowed.stream()
+                    .map(Entry::version)
+                    .collect(Collectors.toList());
+                hit = Optional.of(new Hit(allowed.get(allowed.size() - 1), versions));
+            }
+            return hit;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import com.artipie.nuget.metadata.PackageId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search query.
+ * See <a href="https://docs.microsoft.com/en-us/nuget/api/search-query-service-resource">Search</a>
+ *
+ * @since 1.3
+ */
+public final class SearchQuery {
+
+    /**
+     * Search terms.
+     */
+    private final String text;
+
+    /**
+     * Number of results to skip.
+     */
+    private final int skip;
+
+    /**
+     * Number of results to return.
+     */
+    private final int take;
+
+    /**
+     * Should pre-release versions be included.
+     */
+    private final boolean prerelease;
+
+    /**
+     * Should SemVer 2.0.0 versions be included.
+     */
+    private final boolean semver;
+
+    /**
+     * Package type to filter by.
+     */
+    private final String type;
+
+    /**
+     * Should package ids be matched fuzzily.
+     */
+    private final boolean fuzzy;
+
+    /**
+     * Ctor.
+     *
+     * @param text Search terms.
+     * @param skip Number of results to skip.
+     * @param take Number of results to return.
+     * @param prerelease Should pre-release versions be included.
+     * @param semver Should SemVer 2.0.0 versions be included.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public SearchQuery(
+        final String text,
+        final int skip,
+        final int take,
+        final boolean prerelease,
+        final boolean semver
+    ) {
+        this(text, skip, take, prerelease, semver, "");
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param text Search terms.
+     * @param skip Number of results to skip.
+     * @param take Number of results to return.
+     * @param prerelease Should pre-release versions be included.
+     * @param semver Should SemVer 2.0.0 versions be included.
+     * @param type Package type to filter by, empty for any type.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public SearchQuery(
+        final String text,
+        final int skip,
+        final int take,
+        final boolean prerelease,
+        final boolean semver,
+        final String type
+    ) {
+        this(text, skip, take, prerelease, semver, type, false);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param text Search terms.
+     * @param skip Number of results to skip.
+     * @param take Number of results to return.
+     * @param prerelease Should pre-release versions be included.
+     * @param semver Should SemVer 2.0.0 versions be included.
+     * @param type Package type to filter by, empty for any type.
+     * @param fuzzy Should text be matched as possibly mistyped package id.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public SearchQuery(
+        final String text,
+        final int skip,
+        final int take,
+        final boolean prerelease,
+        final boolean semver,
+        final String type,
+        final boolean fuzzy
+    ) {
+        this.text = text;
+        this.skip = skip;
+        this.take = take;
+        this.prerelease = prerelease;
+        this.semver = semver;
+        this.type = type;
+        this.fuzzy = fuzzy;
+    }
+
+    /**
+     * Search terms.
+     * Field names of `field:value` terms are ignored, only the value is searched,
+     * except for `tag:value` and `tags:value` terms which are {@link #tags()} filters.
+     *
+     * @return Tokens to search for, empty if all packages match.
+     */
+    public List<String> terms() {
+        final List<String> terms = new ArrayList<>(1);
+        for (final String word : this.words()) {
+            if (!SearchQuery.tagged(word)) {
+                terms.addAll(new Tokens(word.substring(word.indexOf(':') + 1)).list());
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Tags to filter by, from `tag:value` and `tags:value` terms.
+     *
+     * @return Tags, package matches if it has all of them.
+     */
+    public List<String> tags() {
+        final List<String> tags = new ArrayList<>(0);
+        for (final String word : this.words()) {
+            final String tag = word.substring(word.indexOf(':') + 1);
+            if (SearchQuery.tagged(word) && !tag.isEmpty()) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Package type to filter by.
+     *
+     * @return Package type name, empty for any type.
+     */
+    public String type() {
+        return this.type;
+    }
+
+    /**
+     * Should text be matched as possibly mistyped package id.
+     *
+     * @return True if package ids close to {@link #prefix()} are searched
+     *  instead of {@link #terms()}.
+     */
+    public boolean fuzzy() {
+        return this.fuzzy;
+    }
+
+    /**
+     * Package id prefix to autocomplete.
+     *
+     * @return Normalized id prefix, empty if all packages match.
+     */
+    public String prefix() {
+        return new PackageId(this.text.trim()).normalized();
+    }
+
+    /**
+     * Number of results to skip.
+     *
+     * @return Number of results.
+     */
+    public int skip() {
+        return this.skip;
+    }
+
+    /**
+     * Number of results to return.
+     *
+     * @return Number of results.
+     */
+    public int take() {
+        return this.take;
+    }
+
+    /**
+     * Should pre-release versions be included.
+     *
+     * @return True if pre-release versions should be included.
+     */
+    public boolean prerelease() {
+        return this.prerelease;
+    }
+
+    /**
+     * Should SemVer 2.0.0 versions be included.
+     *
+     * @return True if SemVer 2.0.0 versions should be included.
+     */
+    public boolean semver() {
+        return this.semver;
+    }
+
+    /**
+     * Words of query text.
+     *
+     * @return Words separated by whitespaces.
+     */
+    private String[] words() {
+        return this.text.trim().split("\\s+");
+    }
+
+    /**
+     * Check if query word is a tag filter.
+     *
+     * @param word Query word.
+     * @return True for `tag:value` and `tags:value` words.
+     */
+    private static boolean tagged(final String word) {
+        final String lower = word.toLowerCase(Locale.ROOT);
+        return lower.startsWith("tag:") || lower.startsWith("tags:");
+    }
+}
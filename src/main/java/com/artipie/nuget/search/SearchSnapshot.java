@@ -0,0 +1,352 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary snapshot of {@link SearchIndex}.
+ * Snapshot is a flat big-endian layout: header with time of latest publish log
+ * entry loaded into index, packages with all their versions,
+ * then sorted term dictionary with postings as arrays of package ordinals.
+ * It is decoded in one sequential pass from {@link ByteBuffer}, so local file snapshot
+ * is memory-mapped instead of being read, and nuspecs are neither read nor parsed
+ * and terms are not tokenized again on restore. Decoded index lives on heap anyway.
+ * After restore {@link SearchIndex#load(Storage)} lists only publish log
+ * and reads versions published after the snapshot was taken.
+ *
+ * @since 1.3
+ */
+public final class SearchSnapshot {
+
+    /**
+     * Default key of snapshot in storage, internal data is not indexed.
+     */
+    public static final Key KEY = new Key.From(".search", "snapshot.bin");
+
+    /**
+     * Snapshot format magic number, "NGSI".
+     */
+    private static final int MAGIC = 0x4E475349;
+
+    /**
+     * Snapshot format version.
+     */
+    private static final int FORMAT = 2;
+
+    /**
+     * Snapshot format version without publish log mark.
+     */
+    private static final int UNMARKED = 1;
+
+    /**
+     * Index.
+     */
+    private final SearchIndex index;
+
+    /**
+     * Ctor.
+     *
+     * @param index Index.
+     */
+    public SearchSnapshot(final SearchIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Save snapshot of index to storage.
+     *
+     * @param storage Storage.
+     * @param executor Executor to encode snapshot in.
+     * @return Completion of save operation.
+     */
+    public CompletionStage<Void> save(final Storage storage, final Executor executor) {
+        return CompletableFuture.supplyAsync(this::bytes, executor)
+            .thenCompose(bytes -> storage.save(SearchSnapshot.KEY, new Content.From(bytes)));
+    }
+
+    /**
+     * Save snapshot of index to local file.
+     * Snapshot is written to temporary file first and then moved atomically,
+     * so the file is never seen half-written.
+     *
+     * @param file Snapshot file.
+     */
+    public void save(final Path file) {
+        try {
+            final Path tmp = Files.createTempFile(
+                file.toAbsolutePath().getParent(), "snapshot", ".tmp"
+            );
+            Files.write(tmp, this.bytes());
+            Files.move(
+                tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Restore index from snapshot in storage.
+     * Storage content is copied to heap as a whole before it is decoded,
+     * use {@link #restore(Path)} to decode memory-mapped local file instead.
+     *
+     * @param storage Storage.
+     * @return True if snapshot was found and restored.
+     */
+    public CompletionStage<Boolean> restore(final Storage storage) {
+        return storage.exists(SearchSnapshot.KEY).thenCompose(
+            exists -> {
+                final CompletionStage<Boolean> restored;
+                if (exists) {
+                    restored = storage.value(SearchSnapshot.KEY)
+                        .thenCompose(content -> new PublisherAs(content).bytes())
+                        .thenApply(
+                            bytes -> {
+                                this.restore(ByteBuffer.wrap(bytes));
+                                return true;
+                            }
+                        );
+                } else {
+                    restored = CompletableFuture.completedFuture(false);
+                }
+                return restored;
+            }
+        );
+    }
+
+    /**
+     * Restore index from memory-mapped snapshot file.
+     *
+     * @param file Snapshot file.
+     * @return True if snapshot file was found and restored.
+     */
+    public boolean restore(final Path file) {
+        boolean restored = false;
+        if (Files.exists(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                this.restore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            restored = true;
+        }
+        return restored;
+    }
+
+    /**
+     * Save snapshots of index to storage periodically.
+     * Snapshot is encoded in scheduler thread running the save.
+     *
+     * @param storage Storage.
+     * @param scheduler Scheduler to run saves.
+     * @param period Period between saves.
+     * @param unit Period time unit.
+     * @return Scheduled saves, may be cancelled to stop saving.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public ScheduledFuture<?> schedule(
+        final Storage storage,
+        final ScheduledExecutorService scheduler,
+        final long period,
+        final TimeUnit unit
+    ) {
+        return scheduler.scheduleWithFixedDelay(
+            () -> this.save(storage, Runnable::run).toCompletableFuture().exceptionally(err -> null).join(),
+            period, period, unit
+        );
+    }
+
+    /**
+     * Encode index.
+     * Postings are computed from the same versions being written,
+     * so snapshot stays consistent while index is updated concurrently.
+     *
+     * @return Snapshot bytes.
+     */
+    byte[] bytes() {
+        final long mark = this.index.mark();
+        final List<List<Entry>> packages = this.index.packages();
+        final Map<String, Set<Integer>> postings = new TreeMap<>();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(SearchSnapshot.MAGIC);
+            out.writeInt(SearchSnapshot.FORMAT);
+            out.writeLong(mark);
+            out.writeInt(packages.size());
+            for (int ord = 0; ord < packages.size(); ord += 1) {
+                final List<Entry> versions = packages.get(ord);
+                out.writeInt(versions.size());
+                for (final Entry entry : versions) {
+                    SearchSnapshot.write(out, entry);
+                    for (final String term : entry.terms()) {
+                        postings.computeIfAbsent(term, key -> new TreeSet<>()).add(ord);
+                    }
+                }
+            }
+            out.writeInt(postings.size());
+            for (final Map.Entry<String, Set<Integer>> posting : postings.entrySet()) {
+                SearchSnapshot.write(out, posting.getKey());
+                out.writeInt(posting.getValue().size());
+                for (final int ord : posting.getValue()) {
+                    out.writeInt(ord);
+                }
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Decode snapshot into index.
+     *
+     * @param buffer Snapshot bytes.
+     */
+    void restore(final ByteBuffer buffer) {
+        if (buffer.getInt() != SearchSnapshot.MAGIC) {
+            throw new IllegalStateException("Not a search index snapshot");
+        }
+        final int format = buffer.getInt();
+        if (format == SearchSnapshot.FORMAT) {
+            this.index.mark(buffer.getLong());
+        } else if (format != SearchSnapshot.UNMARKED) {
+            throw new IllegalStateException(
+                String.format("Unsupported search index snapshot format: %d", format)
+            );
+        }
+        final String[] ids = new String[buffer.getInt()];
+        for (int ord = 0; ord < ids.length; ord += 1) {
+            final int count = buffer.getInt();
+            final List<Entry> versions = new ArrayList<>(count);
+            for (int idx = 0; idx < count; idx += 1) {
+                versions.add(SearchSnapshot.entry(buffer));
+            }
+            ids[ord] = versions.get(0).id().normalized();
+            this.index.restore(versions);
+        }
+        final int terms = buffer.getInt();
+        for (int idx = 0; idx < terms; idx += 1) {
+            final String term = SearchSnapshot.string(buffer);
+            final int count = buffer.getInt();
+            this.index.post(term, SearchSnapshot.posting(buffer, ids, count));
+        }
+    }
+
+    /**
+     * Decode postings of term.
+     *
+     * @param buffer Snapshot bytes.
+     * @param ids Package ids by ordinal.
+     * @param count Number of packages.
+     * @return Package ids.
+     */
+    private static Collection<String> posting(
+        final ByteBuffer buffer, final String[] ids, final int count
+    ) {
+        final Collection<String> posting = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx += 1) {
+            posting.add(ids[buffer.getInt()]);
+        }
+        return posting;
+    }
+
+    /**
+     * Encode package version.
+     *
+     * @param out Output.
+     * @param entry Package version.
+     * @throws IOException On error.
+     */
+    private static void write(final DataOutputStream out, final Entry entry)
+        throws IOException {
+        SearchSnapshot.write(out, entry.id().raw());
+        SearchSnapshot.write(out, entry.version().raw());
+        SearchSnapshot.write(out, entry.title());
+        SearchSnapshot.write(out, entry.description());
+        SearchSnapshot.write(out, entry.authors());
+        SearchSnapshot.write(out, entry.tags());
+        out.writeInt(entry.types().size());
+        for (final String type : entry.types()) {
+            SearchSnapshot.write(out, type);
+        }
+    }
+
+    /**
+     * Decode package version.
+     *
+     * @param buffer Snapshot bytes.
+     * @return Package version.
+     */
+    private static Entry entry(final ByteBuffer buffer) {
+        final PackageId id = new PackageId(SearchSnapshot.string(buffer));
+        final Version version = new Version(SearchSnapshot.string(buffer));
+        final String title = SearchSnapshot.string(buffer);
+        final String description = SearchSnapshot.string(buffer);
+        final String authors = SearchSnapshot.string(buffer);
+        final String tags = SearchSnapshot.string(buffer);
+        final int count = buffer.getInt();
+        final List<String> types = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx += 1) {
+            types.add(SearchSnapshot.string(buffer));
+        }
+        return new Entry(id, version, title, description, authors, tags, types);
+    }
+
+    /**
+     * Encode string as length prefixed UTF-8 bytes.
+     *
+     * @param out Output.
+     * @param value String.
+     * @throws IOException On error.
+     */
+    private static void write(final DataOutputStream out, final String value)
+        throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Decode length prefixed UTF-8 string.
+     *
+     * @param buffer Snapshot bytes.
+     * @return String.
+     */
+    private static String string(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Search tokens of text: lower case runs of letters and digits.
+ *
+ * @since 1.3
+ */
+final class Tokens {
+
+    /**
+     * Separator of tokens.
+     */
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Text.
+     */
+    private final String text;
+
+    /**
+     * Ctor.
+     *
+     * @param text Text.
+     */
+    Tokens(final String text) {
+        this.text = text;
+    }
+
+    /**
+     * Tokens of text.
+     *
+     * @return Tokens in order of appearance.
+     */
+    List<String> list() {
+        final String[] parts = Tokens.SEPARATOR.split(this.text.toLowerCase(Locale.ROOT));
+        final List<String> tokens = new ArrayList<>(parts.length);
+        for (final String part : parts) {
+            if (!part.isEmpty()) {
+                tokens.add(part);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Trigram index of package ids for typo-tolerant lookup.
+ * Ids sharing enough trigrams with the text are candidates, as every edit
+ * changes at most three trigrams, and only candidates are verified
+ * with bounded edit distance, so ids are never scanned one by one
+ * and postings of frequent trigrams are not merged.
+ *
+ * @since 1.3
+ */
+final class Trigrams {
+
+    /**
+     * Trigram length.
+     */
+    private static final int LENGTH = 3;
+
+    /**
+     * Lower case ids by trigram.
+     */
+    private final ConcurrentMap<String, Set<String>> grams;
+
+    /**
+     * Ctor.
+     */
+    Trigrams() {
+        this.grams = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Add id to index.
+     *
+     * @param id Lower case package id.
+     */
+    void add(final String id) {
+        for (final String gram : Trigrams.grams(id)) {
+            this.grams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * Ids close to the text.
+     * Allowed edit distance depends on text length: none for texts shorter than
+     * four characters, one for texts shorter than eight characters and two otherwise.
+     *
+     * @param text Lower case text.
+     * @return Edit distance by id, for ids within allowed distance.
+     * @checkstyle MagicNumberCheck (20 lines)
+     */
+    Map<String, Integer> near(final String text) {
+        final int allowed;
+        if (text.length() < 4) {
+            allowed = 0;
+        } else if (text.length() < 8) {
+            allowed = 1;
+        } else {
+            allowed = 2;
+        }
+        return this.near(text, allowed);
+    }
+
+    /**
+     * Ids within edit distance from the text.
+     * Id within the distance misses at most three trigrams of the text per edit,
+     * so it has at least one of the rarest of them: only ids from postings
+     * of the rarest trigrams are candidates, then they are checked to share
+     * enough trigrams and verified by edit distance.
+     *
+     * @param text Lower case text.
+     * @param allowed Maximum edit distance.
+     * @return Edit distance by id.
+     */
+    Map<String, Integer> near(final String text, final int allowed) {
+        final List<Set<String>> postings = new ArrayList<>(text.length());
+        for (final String gram : Trigrams.grams(text)) {
+            postings.add(this.grams.getOrDefault(gram, Collections.emptySet()));
+        }
+        final int missing = Trigrams.LENGTH * allowed;
+        final int required = postings.size() - missing;
+        final Map<String, Integer> near = new HashMap<>();
+        if (required > 0) {
+            postings.sort(Comparator.comparingInt(Set::size));
+            final Set<String> candidates = new HashSet<>();
+            for (final Set<String> ids : postings.subList(0, missing + 1)) {
+                candidates.addAll(ids);
+            }
+            for (final String id : candidates) {
+                if (Math.abs(id.length() - text.length()) <= allowed
+                    && Trigrams.shared(postings, id) >= required) {
+                    final int distance = Trigrams.distance(text, id, allowed);
+                    if (distance <= allowed) {
+                        near.put(id, distance);
+                    }
+                }
+            }
+        }
+        return near;
+    }
+
+    /**
+     * Number of trigrams id shares with the text.
+     *
+     * @param postings Postings of text trigrams.
+     * @param id Lower case id.
+     * @return Number of shared trigrams.
+     */
+    private static int shared(final List<Set<String>> postings, final String id) {
+        int shared = 0;
+        for (final Set<String> ids : postings) {
+            if (ids.contains(id)) {
+                shared += 1;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Distinct trigrams of text padded with start and end marks.
+     * Marks are characters never found in package ids.
+     *
+     * @param text Text.
+     * @return Trigrams.
+     */
+    private static Collection<String> grams(final String text) {
+        final String padded = String.format("^%s$", text);
+        final Set<String> grams = new LinkedHashSet<>();
+        for (int idx = 0; idx + Trigrams.LENGTH <= padded.length(); idx += 1) {
+            grams.add(padded.substring(idx, idx + Trigrams.LENGTH));
+        }
+        return new ArrayList<>(grams);
+    }
+
+    /**
+     * Levenshtein distance bounded by maximum.
+     * Computation stops as soon as distance is known to exceed maximum.
+     *
+     * @param first First string.
+     * @param second Second string.
+     * @param max Maximum distance of interest.
+     * @return Distance, or a value greater than maximum if it is exceeded.
+     */
+    private static int distance(final String first, final String second, final int max) {
+        int[] prev = new int[second.length() + 1];
+        int[] curr = new int[second.length() + 1];
+        for (int col = 0; col <= second.length(); col += 1) {
+            prev[col] = col;
+        }
+        int result = max + 1;
+        boolean exceeded = false;
+        for (int row = 1; row <= first.length() && !exceeded; row += 1) {
+            curr[0] = row;
+            int best = curr[0];
+            for (int col = 1; col <= second.length(); col += 1) {
+                int cost = 1;
+                if (first.charAt(row - 1) == second.charAt(col - 1)) {
+                    cost = 0;
+                }
+                curr[col] = Math.min(
+                    Math.min(curr[col - 1] + 1, prev[col] + 1),
+                    prev[col - 1] + cost
+                );
+                best = Math.min(best, curr[col]);
+            }
+            exceeded = best > max;
+            final int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        if (!exceeded) {
+            result = prev[second.length()];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link AstoDownloads}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class AstoDownloadsTest {
+
+    /**
+     * Package id.
+     */
+    private static final PackageId ID = new PackageId("Newtonsoft.Json");
+
+    /**
+     * Package version.
+     */
+    private static final Version VERSION = new Version("12.0.3");
+
+    /**
+     * Storage used in tests.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void countsDownloadsInMemory() {
+        final AstoDownloads downloads = new AstoDownloads(this.storage, "node");
+        downloads.increment(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION);
+        downloads.increment(new PackageId("newtonsoft.json"), AstoDownloadsTest.VERSION);
+        MatcherAssert.assertThat(
+            "Downloads are counted",
+            downloads.count(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION),
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Nothing is written to storage before flush",
+            this.storage.exists(new Key.From(".downloads", "node.json")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void keepsCountsAfterFlush() {
+        final AstoDownloads downloads = new AstoDownloads(this.storage, "node");
+        downloads.increment(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION);
+        downloads.flush().toCompletableFuture().join();
+        downloads.increment(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION);
+        MatcherAssert.assertThat(
+            downloads.count(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION),
+            new IsEqual<>(2L)
+        );
+    }
+
+    @Test
+    void mergesCountsOfRestartsAndNodes() {
+        final AstoDownloads before = new AstoDownloads(this.storage, "first");
+        before.increment(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION);
+        before.flush().toCompletableFuture().join();
+        final AstoDownloads restarted = new AstoDownloads(this.storage, "first");
+        restarted.increment(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION);
+        restarted.flush().toCompletableFuture().join();
+        final AstoDownloads other = new AstoDownloads(this.storage, "second");
+        for (int idx = 0; idx < 3; idx += 1) {
+            other.increment(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION);
+        }
+        other.flush().toCompletableFuture().join();
+        final AstoDownloads reader = new AstoDownloads(this.storage, "third");
+        reader.load().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            reader.count(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION),
+            new IsEqual<>(5L)
+        );
+    }
+
+    @Test
+    void doesNotLoseDownloadsCountedDuringFlush() {
+        final AstoDownloads downloads = new AstoDownloads(this.storage, "node");
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<CompletableFuture<Void>> counting = new ArrayList<>(4);
+            for (int thread = 0; thread < 4; thread += 1) {
+                counting.add(
+                    CompletableFuture.runAsync(
+                        () -> {
+                            for (int idx = 0; idx < 10_000; idx += 1) {
+                                downloads.increment(
+                                    AstoDownloadsTest.ID, AstoDownloadsTest.VERSION
+                                );
+                            }
+                        },
+                        pool
+                    )
+                );
+            }
+            final CompletableFuture<Void> all =
+                CompletableFuture.allOf(counting.toArray(new CompletableFuture<?>[0]));
+            while (!all.isDone()) {
+                downloads.flush().toCompletableFuture().join();
+            }
+            downloads.flush().toCompletableFuture().join();
+        } finally {
+            pool.shutdown();
+        }
+        final AstoDownloads reader = new AstoDownloads(this.storage, "other");
+        reader.load().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            reader.count(AstoDownloadsTest.ID, AstoDownloadsTest.VERSION),
+            new IsEqual<>(40_000L)
+        );
+    }
+}
@@ -8,21 +8,37 @@ package com.artipie.nuget;
 import com.artipie.asto.ArtipieIOException;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.nuget.metadata.PackageId;
 import com.artipie.nuget.metadata.Version;
+import io.reactivex.Flowable;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import javax.json.Json;
 import javax.json.JsonReader;
 import javax.json.JsonString;
@@ -280,6 +296,285 @@ class AstoRepositoryTest {
         );
     }
 
+    @RepeatedTest(10)
+    void serializesSimultaneousAddsWithInProcessLock() throws Exception {
+        final AstoRepository repo = new AstoRepository(
+            this.asto, new BlockingExecutor(), new PackageLock.InProcess(this.asto)
+        );
+        final List<CompletableFuture<Void>> tasks = new ArrayList<>(3);
+        for (int number = 0; number < 3; number += 1) {
+            tasks.add(
+                repo.add(new Content.From(this.nupkg().bytes())).toCompletableFuture()
+            );
+        }
+        final List<Throwable> failures = new ArrayList<>(3);
+        for (final CompletableFuture<Void> task : tasks) {
+            try {
+                task.join();
+            } catch (final CompletionException ex) {
+                failures.add(ex.getCause());
+            }
+        }
+        MatcherAssert.assertThat(
+            "All but one adds fail because version already exists",
+            failures,
+            new AllOf<>(
+                Arrays.asList(
+                    Matchers.hasSize(2),
+                    new Every<>(new IsInstanceOf(PackageVersionAlreadyExistsException.class))
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Version is added once",
+            this.versions(new PackageKeys("Newtonsoft.Json").versionsKey()),
+            Matchers.contains("12.0.3")
+        );
+    }
+
+    @Test
+    void combinesOptimisticIndexBlobsAndListener() throws Exception {
+        final Storage shared = new InMemoryStorage();
+        final List<String> published = new CopyOnWriteArrayList<>();
+        final AstoRepository repo = new AstoRepository(
+            this.asto,
+            new BlockingExecutor(),
+            new PackageLock.InProcess(this.asto),
+            Optional.of(new ConditionalStorage.InProcess(this.asto)),
+            Optional.of(new Blobs(shared)),
+            nuspec -> published.add(nuspec.version().normalized())
+        );
+        repo.add(new Content.From(this.nupkg().bytes())).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Version is added to index",
+            this.versions(new PackageKeys("Newtonsoft.Json").versionsKey()),
+            Matchers.contains("12.0.3")
+        );
+        MatcherAssert.assertThat(
+            "Package bytes are stored in blobs",
+            new BlockingStorage(shared).list(Key.ROOT),
+            Matchers.hasSize(1)
+        );
+        MatcherAssert.assertThat(
+            "Listener is notified",
+            published,
+            Matchers.contains("12.0.3")
+        );
+    }
+
+    @Test
+    void addsVersionsOptimistically() throws Exception {
+        final AstoRepository repo = new AstoRepository(
+            this.asto,
+            new BlockingExecutor(),
+            new PackageLock.InProcess(this.asto),
+            new ConditionalStorage.InProcess(this.asto)
+        );
+        repo.add(new Content.From(this.nupkg().bytes())).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.versions(new PackageKeys("Newtonsoft.Json").versionsKey()),
+            Matchers.contains("12.0.3")
+        );
+    }
+
+    @Test
+    void updatesVersionsOptimisticallyWithoutPackageLock() throws Exception {
+        final PackageLock origin = new PackageLock.InProcess(this.asto);
+        final AtomicBoolean held = new AtomicBoolean();
+        final ConditionalStorage conditional = new ConditionalStorage.InProcess(this.asto);
+        final List<Boolean> writes = new CopyOnWriteArrayList<>();
+        final AstoRepository repo = new AstoRepository(
+            this.asto,
+            new BlockingExecutor(),
+            new PackageLock() {
+                @Override
+                public <T> CompletionStage<T> exclusively(
+                    final Key pkg, final Function<Storage, CompletionStage<T>> operation
+                ) {
+                    return origin.exclusively(
+                        pkg,
+                        target -> {
+                            held.set(true);
+                            return operation.apply(target)
+                                .whenComplete((res, err) -> held.set(false));
+                        }
+                    );
+                }
+            },
+            new ConditionalStorage() {
+                @Override
+                public CompletionStage<Optional<Value>> read(final Key key) {
+                    return conditional.read(key);
+                }
+
+                @Override
+                public CompletionStage<Boolean> write(
+                    final Key key, final Optional<String> expected, final byte[] bytes
+                ) {
+                    writes.add(held.get());
+                    return conditional.write(key, expected, bytes);
+                }
+            }
+        );
+        repo.add(new Content.From(this.nupkg().bytes())).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Versions index is written without package lock",
+            writes,
+            Matchers.contains(false)
+        );
+    }
+
+    @Test
+    void removesPackageFilesWhenOptimisticIndexUpdateFails() throws Exception {
+        final ConditionalStorage conditional = new ConditionalStorage.InProcess(this.asto);
+        final AtomicBoolean failing = new AtomicBoolean(true);
+        final AstoRepository repo = new AstoRepository(
+            this.asto,
+            new BlockingExecutor(),
+            new PackageLock.InProcess(this.asto),
+            new ConditionalStorage() {
+                @Override
+                public CompletionStage<Optional<Value>> read(final Key key) {
+                    return conditional.read(key);
+                }
+
+                @Override
+                public CompletionStage<Boolean> write(
+                    final Key key, final Optional<String> expected, final byte[] bytes
+                ) {
+                    final CompletionStage<Boolean> res;
+                    if (failing.get()) {
+                        res = CompletableFuture.completedFuture(false);
+                    } else {
+                        res = conditional.write(key, expected, bytes);
+                    }
+                    return res;
+                }
+            }
+        );
+        final byte[] bytes = this.nupkg().bytes();
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> repo.add(new Content.From(bytes)).toCompletableFuture().join()
+        );
+        final PackageIdentity identity = new PackageIdentity(
+            new PackageId("newtonsoft.json"), new Version("12.0.3")
+        );
+        MatcherAssert.assertThat(
+            "Package files are removed",
+            Stream.of(identity.nupkgKey(), identity.hashKey(), identity.nuspecKey())
+                .filter(this.storage::exists)
+                .collect(Collectors.toList()),
+            new IsEmptyCollection<>()
+        );
+        failing.set(false);
+        repo.add(new Content.From(bytes)).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Package is published on retry",
+            this.storage.exists(identity.nupkgKey()),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void storesIdenticalPackagesOnceInBlobs() throws Exception {
+        final Storage shared = new InMemoryStorage();
+        final Blobs blobs = new Blobs(shared);
+        final Storage other = new InMemoryStorage();
+        final List<AstoRepository> feeds = Arrays.asList(
+            new AstoRepository(
+                this.asto, new BlockingExecutor(), new PackageLock.InProcess(this.asto), blobs
+            ),
+            new AstoRepository(
+                other, new BlockingExecutor(), new PackageLock.InProcess(other), blobs
+            )
+        );
+        final byte[] bytes = this.nupkg().bytes();
+        final PackageIdentity identity = new PackageIdentity(
+            new PackageId("newtonsoft.json"), new Version("12.0.3")
+        );
+        for (final AstoRepository feed : feeds) {
+            feed.add(new Content.From(bytes)).toCompletableFuture().join();
+        }
+        MatcherAssert.assertThat(
+            "Blob is stored once",
+            new BlockingStorage(shared).list(Key.ROOT),
+            Matchers.hasSize(1)
+        );
+        for (final AstoRepository feed : feeds) {
+            MatcherAssert.assertThat(
+                "Package content is read from blob",
+                new PublisherAs(
+                    feed.content(identity.nupkgKey()).toCompletableFuture().join().get()
+                ).bytes().toCompletableFuture().join(),
+                new IsEqual<>(bytes)
+            );
+            MatcherAssert.assertThat(
+                "Package size is read from blob",
+                feed.size(identity.nupkgKey()).toCompletableFuture().join().get(),
+                new IsEqual<>((long) bytes.length)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Upload is not kept in feed storage",
+            new BlockingStorage(other).list(UploadSweeper.ROOT),
+            new IsEmptyCollection<>()
+        );
+        MatcherAssert.assertThat(
+            "Second publish of same version fails",
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> feeds.get(0).add(new Content.From(bytes)).toCompletableFuture().join()
+            ).getCause(),
+            new IsInstanceOf(PackageVersionAlreadyExistsException.class)
+        );
+    }
+
+    @Test
+    void publishesValidUploadsOfBatchWithDuplicate() throws Exception {
+        new AstoRepository(this.asto).add(
+            new Content.From(AstoRepositoryTest.nupkg("Foo", "2.0.0"))
+        ).toCompletableFuture().join();
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        final PackageLock origin = new PackageLock.InProcess(this.asto);
+        final AstoRepository repo = new AstoRepository(
+            this.asto,
+            Runnable::run,
+            new PackageLock() {
+                @Override
+                public <T> CompletionStage<T> exclusively(
+                    final Key pkg, final Function<Storage, CompletionStage<T>> operation
+                ) {
+                    return gate.thenCompose(nothing -> origin.exclusively(pkg, operation));
+                }
+            }
+        );
+        final CompletableFuture<Void> blocker = repo.add(
+            new Content.From(AstoRepositoryTest.nupkg("Foo", "0.1.0"))
+        ).toCompletableFuture();
+        final List<CompletableFuture<Void>> batch = new ArrayList<>(3);
+        for (final String version : Arrays.asList("1.0.0", "2.0.0", "3.0.0")) {
+            batch.add(
+                repo.add(new Content.From(AstoRepositoryTest.nupkg("Foo", version)))
+                    .toCompletableFuture()
+            );
+        }
+        gate.complete(null);
+        blocker.join();
+        batch.get(0).join();
+        MatcherAssert.assertThat(
+            "Duplicate upload fails alone",
+            Assertions.assertThrows(CompletionException.class, batch.get(1)::join).getCause(),
+            new IsInstanceOf(PackageVersionAlreadyExistsException.class)
+        );
+        batch.get(2).join();
+        MatcherAssert.assertThat(
+            "All published versions are in index",
+            this.versions(new PackageKeys("Foo").versionsKey()),
+            Matchers.containsInAnyOrder("0.1.0", "1.0.0", "2.0.0", "3.0.0")
+        );
+    }
+
     private List<String> versions(final Key key) throws Exception {
         final byte[] bytes = this.storage.value(key);
         try (JsonReader reader = Json.createReader(new ByteArrayInputStream(bytes))) {
@@ -292,7 +587,215 @@ class AstoRepositoryTest {
         }
     }
 
+    @RepeatedTest(10)
+    void publishesConcurrentSameVersionOnceWithoutListing() throws Exception {
+        final RecordingStorage recording = new RecordingStorage(this.asto);
+        final AstoRepository repo = new AstoRepository(
+            recording, new BlockingExecutor(), new PackageLock.InProcess(recording)
+        );
+        final byte[] bytes = this.nupkg().bytes();
+        final CountDownLatch latch = new CountDownLatch(2);
+        final ExecutorService threads = Executors.newFixedThreadPool(2);
+        final List<CompletableFuture<Void>> tasks = new ArrayList<>(2);
+        for (int number = 0; number < 2; number += 1) {
+            tasks.add(
+                CompletableFuture.runAsync(
+                    () -> {
+                        latch.countDown();
+                        try {
+                            latch.await();
+                        } catch (final InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException(ex);
+                        }
+                        repo.add(new Content.From(bytes)).toCompletableFuture().join();
+                    },
+                    threads
+                )
+            );
+        }
+        threads.shutdown();
+        final List<Class<?>> outcomes = new ArrayList<>(2);
+        for (final CompletableFuture<Void> task : tasks) {
+            try {
+                task.join();
+                outcomes.add(Void.class);
+            } catch (final CompletionException ex) {
+                Throwable cause = ex;
+                while (cause instanceof CompletionException) {
+                    cause = cause.getCause();
+                }
+                outcomes.add(cause.getClass());
+            }
+        }
+        MatcherAssert.assertThat(
+            "One add succeeds and the other finds existing version",
+            outcomes,
+            Matchers.containsInAnyOrder(Void.class, PackageVersionAlreadyExistsException.class)
+        );
+        MatcherAssert.assertThat(
+            "Storage is not listed",
+            recording.calls.stream()
+                .filter(call -> call.startsWith("list "))
+                .collect(Collectors.toList()),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void stagesUploadWhenItIsReceivedCompletely() throws Exception {
+        final RecordingStorage recording = new RecordingStorage(this.asto);
+        final AtomicLong received = new AtomicLong();
+        final byte[] bytes = this.nupkg().bytes();
+        new AstoRepository(recording).add(
+            new Content.From(
+                Flowable.fromCallable(
+                    () -> {
+                        Thread.sleep(50);
+                        received.set(System.currentTimeMillis());
+                        return ByteBuffer.wrap(bytes);
+                    }
+                )
+            )
+        ).toCompletableFuture().join();
+        final String prefix = String.format("%s/", UploadSweeper.ROOT.string());
+        MatcherAssert.assertThat(
+            recording.calls.stream()
+                .filter(call -> call.startsWith("move "))
+                .map(call -> call.substring(call.lastIndexOf(' ') + 1))
+                .filter(dest -> dest.startsWith(prefix))
+                .map(dest -> dest.substring(prefix.length()))
+                .map(name -> Long.parseLong(name.substring(0, name.indexOf('-'))))
+                .collect(Collectors.toList()),
+            Matchers.contains(Matchers.greaterThanOrEqualTo(received.get()))
+        );
+    }
+
+    @Test
+    void deletesStagedUploadWhenVersionExists() throws Exception {
+        final byte[] bytes = this.nupkg().bytes();
+        this.repository.add(new Content.From(bytes)).toCompletableFuture().join();
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> this.repository.add(new Content.From(bytes)).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            this.storage.list(UploadSweeper.ROOT),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void deletesStagedUploadWhenPackageIsInvalid() {
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> this.repository.add(
+                new Content.From("not a package".getBytes(StandardCharsets.UTF_8))
+            ).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            this.storage.list(UploadSweeper.ROOT),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    private static byte[] nupkg(final String id, final String version) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry(String.format("%s.nuspec", id)));
+            zip.write(
+                String.join(
+                    "",
+                    "<?xml version=\"1.0\" encoding=\"utf-8\"?>",
+                    "<package><metadata>",
+                    String.format("<id>%s</id><version>%s</version>", id, version),
+                    "<authors>Someone</authors><description>Test</description>",
+                    "</metadata></package>"
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
     private NewtonJsonResource nupkg() {
         return new NewtonJsonResource("newtonsoft.json.12.0.3.nupkg");
     }
+
+    /**
+     * Storage recording calls to it.
+     *
+     * @since 1.3
+     */
+    private static final class RecordingStorage implements Storage {
+
+        /**
+         * Origin storage.
+         */
+        private final Storage origin;
+
+        /**
+         * Calls as operation name followed by keys.
+         */
+        private final List<String> calls;
+
+        /**
+         * Ctor.
+         *
+         * @param origin Origin storage.
+         */
+        RecordingStorage(final Storage origin) {
+            this.origin = origin;
+            this.calls = new CopyOnWriteArrayList<>();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> exists(final Key key) {
+            this.calls.add(String.format("exists %s", key.string()));
+            return this.origin.exists(key);
+        }
+
+        @Override
+        public CompletableFuture<Collection<Key>> list(final Key prefix) {
+            this.calls.add(String.format("list %s", prefix.string()));
+            return this.origin.list(prefix);
+        }
+
+        @Override
+        public CompletableFuture<Void> save(final Key key, final Content content) {
+            this.calls.add(String.format("save %s", key.string()));
+            return this.origin.save(key, content);
+        }
+
+        @Override
+        public CompletableFuture<Void> move(final Key source, final Key destination) {
+            this.calls.add(String.format("move %s %s", source.string(), destination.string()));
+            return this.origin.move(source, destination);
+        }
+
+        @Override
+        public CompletableFuture<? extends Meta> metadata(final Key key) {
+            this.calls.add(String.format("metadata %s", key.string()));
+            return this.origin.metadata(key);
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            this.calls.add(String.format("value %s", key.string()));
+            return this.origin.value(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(final Key key) {
+            this.calls.add(String.format("delete %s", key.string()));
+            return this.origin.delete(key);
+        }
+
+        @Override
+        public <T> CompletionStage<T> exclusively(
+            final Key key, final Function<Storage, CompletionStage<T>> operation
+        ) {
+            return this.origin.exclusively(key, operation);
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BlockingExecutor}.
+ *
+ * @since 1.3
+ */
+class BlockingExecutorTest {
+
+    /**
+     * Single thread pool.
+     */
+    private ExecutorService pool;
+
+    @BeforeEach
+    void init() {
+        this.pool = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.pool.shutdownNow();
+    }
+
+    @Test
+    void countsPendingAndRunningTasks() throws Exception {
+        final BlockingExecutor executor = new BlockingExecutor(this.pool);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Void> first = CompletableFuture.runAsync(
+            () -> {
+                started.countDown();
+                BlockingExecutorTest.await(release);
+            },
+            executor
+        );
+        final CompletableFuture<Void> second = CompletableFuture.runAsync(() -> { }, executor);
+        started.await(1, TimeUnit.MINUTES);
+        MatcherAssert.assertThat(
+            "One task is running",
+            executor.running(),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "One task is pending",
+            executor.pending(),
+            new IsEqual<>(1L)
+        );
+        release.countDown();
+        CompletableFuture.allOf(first, second).join();
+        MatcherAssert.assertThat(
+            "Nothing is pending after completion",
+            executor.pending(),
+            new IsEqual<>(0L)
+        );
+    }
+
+    @Test
+    void shutsDownOwnedPoolOnClose() {
+        final BlockingExecutor executor = new BlockingExecutor();
+        executor.close();
+        Assertions.assertThrows(
+            RejectedExecutionException.class,
+            () -> executor.execute(() -> { })
+        );
+    }
+
+    @Test
+    void keepsGivenExecutorRunningOnClose() {
+        new BlockingExecutor(this.pool).close();
+        MatcherAssert.assertThat(
+            this.pool.isShutdown(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void runsTasksInDefaultExecutor() {
+        MatcherAssert.assertThat(
+            CompletableFuture.supplyAsync(() -> "done", new BlockingExecutor()).join(),
+            new IsEqual<>("done")
+        );
+    }
+
+    /**
+     * Await latch.
+     *
+     * @param latch Latch.
+     */
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.MINUTES);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
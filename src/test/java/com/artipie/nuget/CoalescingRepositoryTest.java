@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.nuget.metadata.Nuspec;
+import com.artipie.nuget.metadata.PackageId;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CoalescingRepository}.
+ *
+ * @since 1.3
+ */
+class CoalescingRepositoryTest {
+
+    /**
+     * Package keys used in tests.
+     */
+    private static final PackageKeys PKG = new PackageKeys(new PackageId("foo"));
+
+    @Test
+    void sharesSingleVersionsReadAmongConcurrentCallers() {
+        final CompletableFuture<Versions> read = new CompletableFuture<>();
+        final FakeRepository origin = new FakeRepository(read);
+        final Repository repo = new CoalescingRepository(origin);
+        final CompletionStage<Versions> first = repo.versions(CoalescingRepositoryTest.PKG);
+        final CompletionStage<Versions> second = repo.versions(CoalescingRepositoryTest.PKG);
+        final Versions versions = new Versions();
+        read.complete(versions);
+        MatcherAssert.assertThat(
+            "First caller receives versions",
+            first.toCompletableFuture().join(),
+            new IsSame<>(versions)
+        );
+        MatcherAssert.assertThat(
+            "Second caller receives versions",
+            second.toCompletableFuture().join(),
+            new IsSame<>(versions)
+        );
+        MatcherAssert.assertThat(
+            "Origin is read once",
+            origin.reads.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void readsOriginAgainAfterCompletion() {
+        final FakeRepository origin = new FakeRepository(
+            CompletableFuture.completedFuture(new Versions())
+        );
+        final Repository repo = new CoalescingRepository(origin);
+        repo.versions(CoalescingRepositoryTest.PKG).toCompletableFuture().join();
+        repo.versions(CoalescingRepositoryTest.PKG).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            origin.reads.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void streamsContentOfEveryRead() {
+        final FakeRepository origin = new FakeRepository(new CompletableFuture<>());
+        final Repository repo = new CoalescingRepository(origin);
+        final Key key = new Key.From("foo", "1.0.0", "foo.1.0.0.nupkg");
+        MatcherAssert.assertThat(
+            "Origin content is passed through without buffering",
+            repo.content(key).toCompletableFuture().join().get(),
+            new IsSame<>(origin.content)
+        );
+        repo.content(key).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Every content read goes to origin",
+            origin.contents.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    /**
+     * Fake repository counting reads.
+     *
+     * @since 1.3
+     */
+    private static final class FakeRepository implements Repository {
+
+        /**
+         * Versions reads count.
+         */
+        private final AtomicInteger reads;
+
+        /**
+         * Content reads count.
+         */
+        private final AtomicInteger contents;
+
+        /**
+         * Versions read result.
+         */
+        private final CompletableFuture<Versions> result;
+
+        /**
+         * Content returned by every content read.
+         */
+        private final Content content;
+
+        /**
+         * Ctor.
+         *
+         * @param result Versions read result.
+         */
+        FakeRepository(final CompletableFuture<Versions> result) {
+            this.result = result;
+            this.reads = new AtomicInteger();
+            this.contents = new AtomicInteger();
+            this.content = new Content.From("nupkg".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public CompletionStage<Optional<Content>> content(final Key key) {
+            this.contents.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.of(this.content));
+        }
+
+        @Override
+        public CompletionStage<Optional<Long>> size(final Key key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletionStage<Void> add(final Content data) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletionStage<Versions> versions(final PackageKeys id) {
+            this.reads.incrementAndGet();
+            return this.result;
+        }
+
+        @Override
+        public CompletionStage<Nuspec> nuspec(final PackageIdentity identity) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ConditionalStorage.InProcess}.
+ *
+ * @since 1.3
+ */
+class ConditionalStorageTest {
+
+    /**
+     * Key used in tests.
+     */
+    private static final Key KEY = new Key.From("foo", "index.json");
+
+    /**
+     * Tested storage.
+     */
+    private ConditionalStorage storage;
+
+    @BeforeEach
+    void init() {
+        final Storage asto = new InMemoryStorage();
+        this.storage = new ConditionalStorage.InProcess(asto);
+    }
+
+    @Test
+    void writesIfAbsent() {
+        MatcherAssert.assertThat(
+            "First write succeeds",
+            this.write(Optional.empty(), "one"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Second write expecting absent value fails",
+            this.write(Optional.empty(), "two"),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Value is not overwritten",
+            this.value(),
+            new IsEqual<>("one")
+        );
+    }
+
+    @Test
+    void writesIfRevisionMatches() {
+        this.write(Optional.empty(), "one");
+        final String rev = this.storage.read(ConditionalStorageTest.KEY)
+            .toCompletableFuture().join().get().revision();
+        MatcherAssert.assertThat(
+            "Write with current revision succeeds",
+            this.write(Optional.of(rev), "two"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Write with stale revision fails",
+            this.write(Optional.of(rev), "three"),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Value is written once",
+            this.value(),
+            new IsEqual<>("two")
+        );
+    }
+
+    private boolean write(final Optional<String> rev, final String value) {
+        return this.storage.write(
+            ConditionalStorageTest.KEY, rev, value.getBytes(StandardCharsets.UTF_8)
+        ).toCompletableFuture().join();
+    }
+
+    private String value() {
+        return new String(
+            this.storage.read(ConditionalStorageTest.KEY)
+                .toCompletableFuture().join().get().bytes(),
+            StandardCharsets.UTF_8
+        );
+    }
+}
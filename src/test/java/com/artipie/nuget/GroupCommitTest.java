@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.hamcrest.core.IsNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link GroupCommit}.
+ *
+ * @since 1.3
+ */
+class GroupCommitTest {
+
+    @Test
+    void commitsItemsQueuedDuringCommitAsSingleBatch() {
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final List<List<String>> batches = new ArrayList<>(2);
+        final GroupCommit<String> commits = new GroupCommit<>(
+            new PackageLock.InProcess(new InMemoryStorage()),
+            (storage, batch) -> {
+                batches.add(
+                    batch.stream().map(GroupCommit.Item::value).collect(Collectors.toList())
+                );
+                final CompletableFuture<Void> res;
+                if (batches.size() == 1) {
+                    res = first;
+                } else {
+                    res = CompletableFuture.completedFuture(null);
+                }
+                return res;
+            }
+        );
+        final Key pkg = new Key.From("foo");
+        final CompletionStage<Void> one = commits.submit(pkg, "1.0.0");
+        final CompletionStage<Void> two = commits.submit(pkg, "1.0.1");
+        final CompletionStage<Void> three = commits.submit(pkg, "1.0.2");
+        first.complete(null);
+        CompletableFuture.allOf(
+            one.toCompletableFuture(), two.toCompletableFuture(), three.toCompletableFuture()
+        ).join();
+        MatcherAssert.assertThat(
+            batches,
+            Matchers.contains(
+                Matchers.contains("1.0.0"),
+                Matchers.contains("1.0.1", "1.0.2")
+            )
+        );
+    }
+
+    @Test
+    void failsOnlyItemFailedByCommit() {
+        final GroupCommit<String> commits = new GroupCommit<>(
+            new PackageLock.InProcess(new InMemoryStorage()),
+            (storage, batch) -> {
+                for (final GroupCommit.Item<String> item : batch) {
+                    if ("bad".equals(item.value())) {
+                        item.fail(new IllegalArgumentException("bad item"));
+                    }
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+        );
+        final Key pkg = new Key.From("bar");
+        final CompletionStage<Void> bad = commits.submit(pkg, "bad");
+        final CompletionStage<Void> good = commits.submit(pkg, "good");
+        MatcherAssert.assertThat(
+            "Failed item fails its caller",
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> bad.toCompletableFuture().join()
+            ).getCause(),
+            new IsInstanceOf(IllegalArgumentException.class)
+        );
+        MatcherAssert.assertThat(
+            "Other item succeeds",
+            good.toCompletableFuture().join(),
+            new IsNull<>()
+        );
+    }
+
+    @Test
+    void commitsNextBatchWhileUnlockedCommitRuns() {
+        final CompletableFuture<Void> unlocked = new CompletableFuture<>();
+        final List<String> locked = new ArrayList<>(2);
+        final List<List<String>> passed = new ArrayList<>(2);
+        final GroupCommit<String> commits = new GroupCommit<>(
+            new PackageLock.InProcess(new InMemoryStorage()),
+            (storage, batch) -> {
+                for (final GroupCommit.Item<String> item : batch) {
+                    locked.add(item.value());
+                    if ("bad".equals(item.value())) {
+                        item.fail(new IllegalArgumentException("bad item"));
+                    }
+                }
+                return CompletableFuture.completedFuture(null);
+            },
+            batch -> {
+                passed.add(
+                    batch.stream().map(GroupCommit.Item::value).collect(Collectors.toList())
+                );
+                return unlocked;
+            }
+        );
+        final Key pkg = new Key.From("baz");
+        final CompletionStage<Void> first = commits.submit(pkg, "first");
+        final CompletionStage<Void> bad = commits.submit(pkg, "bad");
+        MatcherAssert.assertThat(
+            "Next batch is committed under lock before unlocked commit completes",
+            locked,
+            Matchers.contains("first", "bad")
+        );
+        MatcherAssert.assertThat(
+            "Item is completed after unlocked commit",
+            first.toCompletableFuture().isDone(),
+            Matchers.is(false)
+        );
+        unlocked.complete(null);
+        first.toCompletableFuture().join();
+        Assertions.assertThrows(CompletionException.class, bad.toCompletableFuture()::join);
+        MatcherAssert.assertThat(
+            "Failed item is not passed to unlocked commit",
+            passed,
+            new IsEqual<>(
+                Arrays.asList(Collections.singletonList("first"), Collections.emptyList())
+            )
+        );
+    }
+}
@@ -12,6 +12,8 @@ import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.nuget.metadata.PackageId;
 import com.artipie.nuget.metadata.Version;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
@@ -41,4 +43,25 @@ class HashTest {
             Matchers.equalTo("xwtd2ev7b1HQnUEytxcMnSB1CnhS8AaA9lZY8DEOgQBW5nY8NMmgCw6UAHb1RJXBafwjAszrMSA5JxxDRpUH3A==")
         );
     }
+
+    @Test
+    void shouldSaveHashCalculatedInExecutor() {
+        final Storage storage = new InMemoryStorage();
+        final PackageIdentity identity =
+            new PackageIdentity(new PackageId("abc"), new Version("0.0.1"));
+        new Hash(
+            new Content.From(
+                Flowable.just("abc".getBytes(), "123".getBytes()).map(ByteBuffer::wrap)
+            ),
+            new BlockingExecutor()
+        ).save(storage, identity).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            storage.value(identity.hashKey())
+                .thenApply(PublisherAs::new)
+                .thenCompose(PublisherAs::asciiString)
+                .toCompletableFuture().join(),
+            // @checkstyle LineLength (1 lines)
+            Matchers.equalTo("xwtd2ev7b1HQnUEytxcMnSB1CnhS8AaA9lZY8DEOgQBW5nY8NMmgCw6UAHb1RJXBafwjAszrMSA5JxxDRpUH3A==")
+        );
+    }
 }
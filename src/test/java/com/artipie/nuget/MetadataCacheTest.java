@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MetadataCache}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class MetadataCacheTest {
+
+    /**
+     * Clock.
+     */
+    private MovingClock clock;
+
+    /**
+     * Cache being tested, fresh for a minute, stale for an hour and negative for ten minutes.
+     */
+    private MetadataCache<String, String> cache;
+
+    /**
+     * Loads count.
+     */
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void init() {
+        this.clock = new MovingClock(Instant.parse("2021-03-01T10:00:00Z"));
+        this.cache = new MetadataCache<>(
+            Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofMinutes(10), this.clock
+        );
+        this.loads = new AtomicInteger();
+    }
+
+    @Test
+    void servesFreshValueWithoutLoad() {
+        this.get(CompletableFuture.completedFuture(Optional.of("first")));
+        this.clock.move(Duration.ofSeconds(30));
+        MatcherAssert.assertThat(
+            "Cached value is served",
+            this.get(CompletableFuture.completedFuture(Optional.of("second"))),
+            new IsEqual<>(Optional.of("first"))
+        );
+        MatcherAssert.assertThat("Value is loaded once", this.loads.get(), new IsEqual<>(1));
+        MatcherAssert.assertThat("Hit is counted", this.cache.hits(), new IsEqual<>(1L));
+        MatcherAssert.assertThat("Miss is counted", this.cache.misses(), new IsEqual<>(1L));
+    }
+
+    @Test
+    void servesStaleValueWhileSingleRefreshRuns() {
+        this.get(CompletableFuture.completedFuture(Optional.of("old")));
+        this.clock.move(Duration.ofMinutes(5));
+        final CompletableFuture<Optional<String>> refresh = new CompletableFuture<>();
+        MatcherAssert.assertThat(
+            "Stale value is served at once",
+            this.get(refresh),
+            new IsEqual<>(Optional.of("old"))
+        );
+        MatcherAssert.assertThat(
+            "Stale value is served during refresh",
+            this.get(refresh),
+            new IsEqual<>(Optional.of("old"))
+        );
+        refresh.complete(Optional.of("new"));
+        MatcherAssert.assertThat(
+            "Refreshed value is served",
+            this.get(CompletableFuture.completedFuture(Optional.of("newer"))),
+            new IsEqual<>(Optional.of("new"))
+        );
+        MatcherAssert.assertThat("Value is refreshed once", this.loads.get(), new IsEqual<>(2));
+        MatcherAssert.assertThat("Stale serves are counted", this.cache.stale(), new IsEqual<>(2L));
+        MatcherAssert.assertThat("Refresh is counted", this.cache.refreshes(), new IsEqual<>(1L));
+    }
+
+    @Test
+    void keepsStaleValueWhenRefreshFails() {
+        this.get(CompletableFuture.completedFuture(Optional.of("old")));
+        this.clock.move(Duration.ofMinutes(5));
+        final CompletableFuture<Optional<String>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("Upstream is down"));
+        this.get(failed);
+        MatcherAssert.assertThat(
+            this.get(failed),
+            new IsEqual<>(Optional.of("old"))
+        );
+    }
+
+    @Test
+    void loadsExpiredValueAgain() {
+        this.get(CompletableFuture.completedFuture(Optional.of("old")));
+        this.clock.move(Duration.ofHours(2));
+        MatcherAssert.assertThat(
+            this.get(CompletableFuture.completedFuture(Optional.of("new"))),
+            new IsEqual<>(Optional.of("new"))
+        );
+    }
+
+    @Test
+    void cachesAbsentValueForNegativePeriod() {
+        this.get(CompletableFuture.completedFuture(Optional.empty()));
+        this.clock.move(Duration.ofMinutes(5));
+        MatcherAssert.assertThat(
+            "Absent value is served from cache",
+            this.get(CompletableFuture.completedFuture(Optional.of("late"))),
+            new IsEqual<>(Optional.empty())
+        );
+        this.clock.move(Duration.ofMinutes(6));
+        MatcherAssert.assertThat(
+            "Absent value is loaded again when negative period ends",
+            this.get(CompletableFuture.completedFuture(Optional.of("late"))),
+            new IsEqual<>(Optional.of("late"))
+        );
+    }
+
+    @Test
+    void doesNotCacheLoadErrors() {
+        final CompletableFuture<Optional<String>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("Upstream is down"));
+        this.cache.get("key", () -> failed).toCompletableFuture().handle((val, err) -> val).join();
+        MatcherAssert.assertThat(
+            this.get(CompletableFuture.completedFuture(Optional.of("value"))),
+            new IsEqual<>(Optional.of("value"))
+        );
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryAboveMaximumSize() {
+        final MetadataCache<String, String> bounded = new MetadataCache<>(
+            Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofMinutes(10), 2L, this.clock
+        );
+        for (final String key : new String[] {"a", "b", "c"}) {
+            bounded.get(
+                key, () -> CompletableFuture.completedFuture(Optional.of(key))
+            ).toCompletableFuture().join();
+        }
+        bounded.get(
+            "a", () -> CompletableFuture.completedFuture(Optional.of("again"))
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Evicted entry is loaded again",
+            bounded.misses(),
+            new IsEqual<>(4L)
+        );
+    }
+
+    private Optional<String> get(final CompletionStage<Optional<String>> load) {
+        return this.cache.get(
+            "key",
+            () -> {
+                this.loads.incrementAndGet();
+                return load;
+            }
+        ).toCompletableFuture().join();
+    }
+
+    /**
+     * Clock moved by test.
+     *
+     * @since 1.3
+     */
+    private static final class MovingClock extends Clock {
+
+        /**
+         * Current instant.
+         */
+        private final AtomicReference<Instant> now;
+
+        /**
+         * Ctor.
+         *
+         * @param start Initial instant.
+         */
+        MovingClock(final Instant start) {
+            super();
+            this.now = new AtomicReference<>(start);
+        }
+
+        /**
+         * Move clock forward.
+         *
+         * @param duration Duration to move by.
+         */
+        void move(final Duration duration) {
+            this.now.updateAndGet(instant -> instant.plus(duration));
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return this.now.get();
+        }
+    }
+}
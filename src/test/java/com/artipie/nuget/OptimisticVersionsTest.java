@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.nuget.metadata.NuspecField;
+import com.artipie.nuget.metadata.Version;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link OptimisticVersions}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class OptimisticVersionsTest {
+
+    /**
+     * Versions index key.
+     */
+    private static final Key KEY = new Key.From("foo", "index.json");
+
+    @Test
+    void keepsAllConcurrentUpdates() {
+        final Storage asto = new InMemoryStorage();
+        final OptimisticVersions versions = new OptimisticVersions(
+            new ConditionalStorage.InProcess(asto), 100
+        );
+        final List<CompletableFuture<Versions>> updates = new ArrayList<>(10);
+        for (int idx = 0; idx < 10; idx += 1) {
+            final Version version = new Version(String.format("1.0.%d", idx));
+            updates.add(
+                CompletableFuture.supplyAsync(() -> null, ForkJoinPool.commonPool())
+                    .thenCompose(
+                        nothing -> versions.update(
+                            OptimisticVersionsTest.KEY, vers -> vers.add(version)
+                        )
+                    )
+            );
+        }
+        CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0])).join();
+        MatcherAssert.assertThat(
+            versions.update(OptimisticVersionsTest.KEY, vers -> vers)
+                .toCompletableFuture().join().all().stream()
+                .map(NuspecField::normalized)
+                .collect(Collectors.toList()),
+            Matchers.containsInAnyOrder(
+                "1.0.0", "1.0.1", "1.0.2", "1.0.3", "1.0.4",
+                "1.0.5", "1.0.6", "1.0.7", "1.0.8", "1.0.9"
+            )
+        );
+    }
+
+    @Test
+    void failsAfterAttemptsAreExhausted() {
+        final OptimisticVersions versions = new OptimisticVersions(
+            new ConditionalStorage() {
+                @Override
+                public CompletionStage<Optional<Value>> read(final Key key) {
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }
+
+                @Override
+                public CompletionStage<Boolean> write(
+                    final Key key, final Optional<String> expected, final byte[] bytes
+                ) {
+                    return CompletableFuture.completedFuture(false);
+                }
+            },
+            3
+        );
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> versions.update(
+                    OptimisticVersionsTest.KEY, vers -> vers.add(new Version("1.0.0"))
+                ).toCompletableFuture().join()
+            ).getCause(),
+            new IsInstanceOf(IllegalStateException.class)
+        );
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PackageLock.InProcess}.
+ *
+ * @since 1.3
+ */
+class PackageLockTest {
+
+    @Test
+    void runsOperationsOnSamePackageOneAfterAnother() {
+        final PackageLock.InProcess lock = new PackageLock.InProcess(new InMemoryStorage());
+        final Key pkg = new Key.From("foo");
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final List<String> order = new ArrayList<>(2);
+        final CompletionStage<Void> one = lock.exclusively(
+            pkg, storage -> first.thenRun(() -> order.add("first"))
+        );
+        final CompletionStage<Void> two = lock.exclusively(
+            pkg,
+            storage -> {
+                order.add("second");
+                return CompletableFuture.completedFuture(null);
+            }
+        );
+        MatcherAssert.assertThat(
+            "Second operation waits for first one",
+            order,
+            Matchers.empty()
+        );
+        first.complete(null);
+        CompletableFuture.allOf(one.toCompletableFuture(), two.toCompletableFuture()).join();
+        MatcherAssert.assertThat(
+            "Operations run in order",
+            order,
+            Matchers.contains("first", "second")
+        );
+        MatcherAssert.assertThat(
+            "Lock is released",
+            lock.locked(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void doesNotBlockOtherPackages() {
+        final PackageLock.InProcess lock = new PackageLock.InProcess(new InMemoryStorage());
+        lock.exclusively(new Key.From("foo"), storage -> new CompletableFuture<Void>());
+        MatcherAssert.assertThat(
+            lock.exclusively(
+                new Key.From("bar"), storage -> CompletableFuture.completedFuture("done")
+            ).toCompletableFuture().join(),
+            new IsEqual<>("done")
+        );
+    }
+
+    @Test
+    void runsNextOperationAfterFailure() {
+        final PackageLock.InProcess lock = new PackageLock.InProcess(new InMemoryStorage());
+        final Key pkg = new Key.From("foo");
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("error"));
+        lock.exclusively(pkg, storage -> failed);
+        MatcherAssert.assertThat(
+            lock.exclusively(pkg, storage -> CompletableFuture.completedFuture("next"))
+                .toCompletableFuture().join(),
+            new IsEqual<>("next")
+        );
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.http.misc.RandomFreePort;
+import com.artipie.nuget.http.NuGet;
+import com.artipie.nuget.metadata.NuspecField;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
+import com.artipie.vertx.VertxSliceServer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ProxyRepository}.
+ * Upstream is NuGet repository served by local HTTP server.
+ *
+ * @since 1.3
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+class ProxyRepositoryTest {
+
+    /**
+     * Package identity.
+     */
+    private static final PackageIdentity IDENTITY = new PackageIdentity(
+        new PackageId("Newtonsoft.Json"), new Version("12.0.3")
+    );
+
+    /**
+     * Upstream request lines.
+     */
+    private List<String> requests;
+
+    /**
+     * Upstream server.
+     */
+    private VertxSliceServer server;
+
+    /**
+     * Executor for upstream requests.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Local storage of proxy.
+     */
+    private Storage storage;
+
+    /**
+     * Repository being tested.
+     */
+    private Repository proxy;
+
+    @BeforeEach
+    void init() throws Exception {
+        final int port = new RandomFreePort().get();
+        final URL base = new URL(String.format("http://localhost:%d", port));
+        final Repository upstream = new AstoRepository(new InMemoryStorage());
+        upstream.add(
+            new Content.From(
+                new TestResource("newtonsoft.json/12.0.3/newtonsoft.json.12.0.3.nupkg").asBytes()
+            )
+        ).toCompletableFuture().join();
+        final NuGet nuget = new NuGet(base, upstream);
+        this.requests = new CopyOnWriteArrayList<>();
+        this.server = new VertxSliceServer(
+            (line, headers, body) -> {
+                this.requests.add(line);
+                return nuget.response(line, headers, body);
+            },
+            port
+        );
+        this.server.start();
+        this.executor = Executors.newCachedThreadPool();
+        this.storage = new InMemoryStorage();
+        this.proxy = new ProxyRepository(
+            new URL(base, "/index.json"), new AstoRepository(this.storage), this.executor
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.server.stop();
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void fetchesPackageAndServesItLocally() {
+        final byte[] expected =
+            new TestResource("newtonsoft.json/12.0.3/newtonsoft.json.12.0.3.nupkg").asBytes();
+        final Key key = ProxyRepositoryTest.IDENTITY.nupkgKey();
+        MatcherAssert.assertThat(
+            "Package is fetched from upstream",
+            ProxyRepositoryTest.bytes(this.proxy.content(key)),
+            new IsEqual<>(expected)
+        );
+        MatcherAssert.assertThat(
+            "Package is read locally afterwards",
+            ProxyRepositoryTest.bytes(this.proxy.content(key)),
+            new IsEqual<>(expected)
+        );
+        MatcherAssert.assertThat(
+            "Package is downloaded from upstream once",
+            this.downloads(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Package is stored in repository layout",
+            this.storage.list(Key.ROOT).join().stream()
+                .map(Key::string)
+                .collect(Collectors.toList()),
+            Matchers.hasItems(
+                key.string(),
+                ProxyRepositoryTest.IDENTITY.hashKey().string(),
+                ProxyRepositoryTest.IDENTITY.nuspecKey().string(),
+                new PackageKeys(new PackageId("Newtonsoft.Json")).versionsKey().string()
+            )
+        );
+    }
+
+    @Test
+    void collapsesConcurrentMisses() {
+        final List<CompletableFuture<Optional<Content>>> reads = new ArrayList<>(10);
+        for (int idx = 0; idx < 10; idx += 1) {
+            reads.add(
+                this.proxy.content(ProxyRepositoryTest.IDENTITY.nupkgKey()).toCompletableFuture()
+            );
+        }
+        CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0])).join();
+        MatcherAssert.assertThat(
+            "Every read finds package",
+            reads.stream().allMatch(read -> read.join().isPresent()),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Package is downloaded from upstream once",
+            this.downloads(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void readsNuspecOfUpstreamPackageWithoutDownload() {
+        MatcherAssert.assertThat(
+            "Nuspec has version",
+            this.proxy.nuspec(ProxyRepositoryTest.IDENTITY)
+                .toCompletableFuture().join()
+                .version().normalized(),
+            new IsEqual<>("12.0.3")
+        );
+        MatcherAssert.assertThat(
+            "Package is not downloaded to read nuspec",
+            this.downloads(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void servesCachedListingNuspecWhenUpstreamIsDown() {
+        this.proxy.versions(new PackageKeys(new PackageId("Newtonsoft.Json")))
+            .toCompletableFuture().join();
+        this.server.stop();
+        MatcherAssert.assertThat(
+            this.proxy.nuspec(ProxyRepositoryTest.IDENTITY)
+                .toCompletableFuture().join()
+                .version().normalized(),
+            new IsEqual<>("12.0.3")
+        );
+    }
+
+    @Test
+    void readsNuspecOfFetchedPackage() {
+        this.proxy.size(ProxyRepositoryTest.IDENTITY.nupkgKey()).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.proxy.nuspec(ProxyRepositoryTest.IDENTITY)
+                .toCompletableFuture().join()
+                .authors(),
+            new IsEqual<>("James Newton-King")
+        );
+    }
+
+    @Test
+    void listsUpstreamVersions() {
+        MatcherAssert.assertThat(
+            "Upstream versions are listed",
+            this.proxy.versions(new PackageKeys(new PackageId("Newtonsoft.Json")))
+                .toCompletableFuture().join()
+                .all().stream()
+                .map(NuspecField::normalized)
+                .collect(Collectors.toList()),
+            Matchers.contains("12.0.3")
+        );
+        MatcherAssert.assertThat(
+            "Package is not downloaded to list versions",
+            this.downloads(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void returnsEmptyForPackageUnknownUpstream() {
+        MatcherAssert.assertThat(
+            this.proxy.content(
+                new PackageIdentity(new PackageId("Unknown"), new Version("1.0.0")).nupkgKey()
+            ).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void doesNotRequestPackageUnknownUpstreamAgain() {
+        final Key key =
+            new PackageIdentity(new PackageId("Private.Lib"), new Version("1.0.0")).nupkgKey();
+        this.proxy.content(key).toCompletableFuture().join();
+        final long requested = this.requests.stream()
+            .filter(line -> line.contains("private.lib"))
+            .count();
+        this.proxy.content(key).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Unknown package is requested once",
+            this.requests.stream().filter(line -> line.contains("private.lib")).count(),
+            new IsEqual<>(requested)
+        );
+        MatcherAssert.assertThat(
+            "Package file is not requested when id is unknown",
+            this.downloads(),
+            new IsEqual<>(0)
+        );
+    }
+
+    private int downloads() {
+        return (int) this.requests.stream().filter(line -> line.contains(".nupkg ")).count();
+    }
+
+    private static byte[] bytes(final CompletionStage<Optional<Content>> content) {
+        return content.thenCompose(
+            opt -> new PublisherAs(opt.get()).bytes()
+        ).toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PublishLog}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class PublishLogTest {
+
+    @Test
+    void findsEntriesPublishedSinceTime() {
+        final InMemoryStorage storage = new InMemoryStorage();
+        new PublishLog(storage, Clock.fixed(Instant.ofEpochMilli(1000), ZoneOffset.UTC))
+            .append(new PackageIdentity(new PackageId("Old"), new Version("1.0")))
+            .toCompletableFuture().join();
+        new PublishLog(storage, Clock.fixed(Instant.ofEpochMilli(2000), ZoneOffset.UTC))
+            .append(new PackageIdentity(new PackageId("New"), new Version("2.0")))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublishLog(storage).since(1500).toCompletableFuture().join().stream()
+                .map(entry -> entry.nuspec().string())
+                .collect(Collectors.toList()),
+            Matchers.contains("new/2.0/new.nuspec")
+        );
+    }
+
+    @Test
+    void logsPublishedPackage() throws Exception {
+        final InMemoryStorage storage = new InMemoryStorage();
+        new AstoRepository(storage).add(
+            new Content.From(
+                new NewtonJsonResource("newtonsoft.json.12.0.3.nupkg").bytes()
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublishLog(storage).since(0).toCompletableFuture().join().stream()
+                .map(PublishLog.Entry::nuspec)
+                .collect(Collectors.toList()),
+            Matchers.contains(
+                new Key.From("newtonsoft.json", "12.0.3", "newtonsoft.json.nuspec")
+            )
+        );
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link UploadSweeper}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class UploadSweeperTest {
+
+    /**
+     * Current time.
+     */
+    private static final Instant NOW = Instant.parse("2021-03-01T12:00:00Z");
+
+    /**
+     * Storage used in tests.
+     */
+    private InMemoryStorage storage;
+
+    /**
+     * Tested sweeper.
+     */
+    private UploadSweeper sweeper;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        this.sweeper = new UploadSweeper(
+            this.storage, Duration.ofHours(1), 2, 1000,
+            ForkJoinPool.commonPool(), Clock.fixed(UploadSweeperTest.NOW, ZoneOffset.UTC)
+        );
+    }
+
+    @Test
+    void deletesStaleUploadsOnly() {
+        final BlockingStorage asto = new BlockingStorage(this.storage);
+        final long stale = UploadSweeperTest.NOW.minus(Duration.ofHours(2)).toEpochMilli();
+        for (int idx = 0; idx < 5; idx += 1) {
+            asto.save(UploadSweeper.key(stale), new byte[10]);
+        }
+        final Key fresh = UploadSweeper.key(UploadSweeperTest.NOW.toEpochMilli());
+        asto.save(fresh, new byte[7]);
+        final Key unknown = new Key.From(UploadSweeper.ROOT, "something");
+        asto.save(unknown, new byte[3]);
+        final Key pkg = new Key.From("newtonsoft.json", "12.0.3", "newtonsoft.json.nuspec");
+        asto.save(pkg, new byte[5]);
+        MatcherAssert.assertThat(
+            "Bytes of stale uploads are reclaimed",
+            this.sweeper.sweep().toCompletableFuture().join(),
+            new IsEqual<>(50L)
+        );
+        MatcherAssert.assertThat(
+            "Only stale uploads are deleted",
+            asto.list(Key.ROOT).stream().map(Key::string).collect(Collectors.toList()),
+            Matchers.containsInAnyOrder(fresh.string(), unknown.string(), pkg.string())
+        );
+        MatcherAssert.assertThat(
+            "Deleted uploads are counted",
+            this.sweeper.deleted(),
+            new IsEqual<>(5L)
+        );
+    }
+
+    @Test
+    void accumulatesReclaimedBytes() {
+        final BlockingStorage asto = new BlockingStorage(this.storage);
+        final long stale = UploadSweeperTest.NOW.minus(Duration.ofDays(1)).toEpochMilli();
+        asto.save(UploadSweeper.key(stale), new byte[4]);
+        this.sweeper.sweep().toCompletableFuture().join();
+        asto.save(UploadSweeper.key(stale), new byte[6]);
+        this.sweeper.sweep().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.sweeper.reclaimed(),
+            new IsEqual<>(10L)
+        );
+    }
+
+    @Test
+    void sweepsNothingWhenStagingIsEmpty() {
+        MatcherAssert.assertThat(
+            this.sweeper.sweep().toCompletableFuture().join(),
+            new IsEqual<>(0L)
+        );
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http;
+
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import java.nio.ByteBuffer;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.reactivestreams.Publisher;
+
+/**
+ * Tests for {@link RouteTable}.
+ *
+ * @since 1.3
+ */
+class RouteTableTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "/index.json,OK",
+        "/package,CREATED",
+        "/package/foo/1.0.0,CREATED",
+        "/package/admin/foo,ACCEPTED",
+        "/packages,CREATED"
+    })
+    void shouldFindRouteWithLongestPrefix(final String path, final RsStatus status) {
+        MatcherAssert.assertThat(
+            new RouteTable(
+                new FakeRoute("/package", RsStatus.CREATED),
+                new FakeRoute("/", RsStatus.OK),
+                new FakeRoute("/package/admin", RsStatus.ACCEPTED)
+            ).resource(path).get(Headers.EMPTY),
+            new RsHasStatus(status)
+        );
+    }
+
+    @Test
+    void shouldReturnAbsentWhenNoRouteMatches() {
+        MatcherAssert.assertThat(
+            new RouteTable(new FakeRoute("/package", RsStatus.CREATED))
+                .resource("/content/foo").get(Headers.EMPTY),
+            new RsHasStatus(RsStatus.NOT_FOUND)
+        );
+    }
+
+    /**
+     * Route with resources responding with fixed status.
+     *
+     * @since 1.3
+     */
+    private static final class FakeRoute implements Route {
+
+        /**
+         * Route path.
+         */
+        private final String path;
+
+        /**
+         * Response status.
+         */
+        private final RsStatus status;
+
+        /**
+         * Ctor.
+         *
+         * @param path Route path.
+         * @param status Response status.
+         */
+        FakeRoute(final String path, final RsStatus status) {
+            this.path = path;
+            this.status = status;
+        }
+
+        @Override
+        public String path() {
+            return this.path;
+        }
+
+        @Override
+        public Resource resource(final String ignored) {
+            return new Resource() {
+                @Override
+                public Response get(final Headers headers) {
+                    return new RsWithStatus(FakeRoute.this.status);
+                }
+
+                @Override
+                public Response put(final Headers headers, final Publisher<ByteBuffer> body) {
+                    return new RsWithStatus(FakeRoute.this.status);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.hamcrest.core.IsNot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Tests for {@link StreamedContent}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class StreamedContentTest {
+
+    /**
+     * Executor for writers.
+     */
+    private ExecutorService executor;
+
+    @BeforeEach
+    void init() {
+        this.executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void emitsContentInChunks() {
+        final byte[] data = new byte[20_000];
+        Arrays.fill(data, (byte) 'x');
+        final List<ByteBuffer> chunks = Flowable.fromPublisher(
+            new StreamedContent(
+                out -> {
+                    out.write(data, 0, 100);
+                    out.write(data, 100, data.length - 100);
+                },
+                this.executor,
+                8192
+            )
+        ).toList().blockingGet();
+        MatcherAssert.assertThat(
+            "Chunks are full except the last one",
+            chunks.stream().map(ByteBuffer::remaining).collect(Collectors.toList()),
+            Matchers.contains(8192, 8192, 3616)
+        );
+        final ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (final ByteBuffer chunk : chunks) {
+            final byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            joined.write(bytes, 0, bytes.length);
+        }
+        MatcherAssert.assertThat(
+            "All bytes are emitted",
+            joined.toByteArray(),
+            new IsEqual<>(data)
+        );
+    }
+
+    @Test
+    void waitsForDemand() throws Exception {
+        final AtomicInteger written = new AtomicInteger();
+        final TestSubscriber<ByteBuffer> subscriber = Flowable.fromPublisher(
+            new StreamedContent(
+                out -> {
+                    for (int idx = 0; idx < 10; idx += 1) {
+                        out.write(new byte[16]);
+                        written.incrementAndGet();
+                    }
+                },
+                this.executor,
+                16
+            )
+        ).test(1);
+        subscriber.awaitCount(1);
+        TimeUnit.MILLISECONDS.sleep(100);
+        MatcherAssert.assertThat(
+            "Writer is blocked without demand",
+            written.get(),
+            Matchers.lessThanOrEqualTo(2)
+        );
+        subscriber.requestMore(9);
+        subscriber.awaitDone(5, TimeUnit.SECONDS);
+        subscriber.assertValueCount(10).assertComplete();
+    }
+
+    @Test
+    void stopsWriterOnCancel() throws Exception {
+        final CompletableFuture<IOException> stopped = new CompletableFuture<>();
+        final TestSubscriber<ByteBuffer> subscriber = Flowable.fromPublisher(
+            new StreamedContent(
+                out -> {
+                    try {
+                        while (true) {
+                            out.write(new byte[8]);
+                        }
+                    } catch (final IOException ex) {
+                        stopped.complete(ex);
+                        throw ex;
+                    }
+                },
+                this.executor,
+                8
+            )
+        ).test(1);
+        subscriber.awaitCount(1);
+        subscriber.cancel();
+        MatcherAssert.assertThat(
+            stopped.get(5, TimeUnit.SECONDS),
+            new IsInstanceOf(IOException.class)
+        );
+    }
+
+    @Test
+    void signalsWriterError() {
+        Flowable.fromPublisher(
+            new StreamedContent(
+                out -> {
+                    out.write(1);
+                    throw new IOException("Failed to generate");
+                },
+                this.executor
+            )
+        ).test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertError(IOException.class)
+            .assertNoValues();
+    }
+
+    @Test
+    void failsSubscriberWithoutDemandAfterTimeout() {
+        Flowable.fromPublisher(
+            new StreamedContent(
+                out -> {
+                    while (true) {
+                        out.write(new byte[8]);
+                    }
+                },
+                this.executor,
+                8,
+                Duration.ofMillis(100)
+            )
+        ).test(1)
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertError(IOException.class)
+            .assertValueCount(1);
+    }
+
+    @Test
+    void signalsInvalidRequestFromWriterThread() throws Exception {
+        final CompletableFuture<Subscription> subscription = new CompletableFuture<>();
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final CompletableFuture<Thread> signalled = new CompletableFuture<>();
+        final CompletableFuture<Throwable> error = new CompletableFuture<>();
+        new StreamedContent(
+            out -> {
+                while (true) {
+                    out.write(new byte[8]);
+                }
+            },
+            this.executor,
+            8
+        ).subscribe(
+            new Subscriber<ByteBuffer>() {
+                @Override
+                public void onSubscribe(final Subscription sub) {
+                    subscription.complete(sub);
+                    sub.request(1);
+                }
+
+                @Override
+                public void onNext(final ByteBuffer chunk) {
+                    first.complete(null);
+                }
+
+                @Override
+                public void onError(final Throwable err) {
+                    signalled.complete(Thread.currentThread());
+                    error.complete(err);
+                }
+
+                @Override
+                public void onComplete() {
+                    error.complete(null);
+                }
+            }
+        );
+        first.get(5, TimeUnit.SECONDS);
+        subscription.get().request(0);
+        MatcherAssert.assertThat(
+            "Invalid request is signalled",
+            error.get(5, TimeUnit.SECONDS),
+            new IsInstanceOf(IllegalArgumentException.class)
+        );
+        MatcherAssert.assertThat(
+            "Error is signalled by writer",
+            signalled.get(),
+            new IsNot<>(new IsEqual<>(Thread.currentThread()))
+        );
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.auth;
+
+import com.artipie.http.auth.Authentication;
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CachedAuthentication}.
+ *
+ * @since 1.3
+ */
+class CachedAuthenticationTest {
+
+    /**
+     * Origin authentication calls count.
+     */
+    private AtomicInteger calls;
+
+    /**
+     * Current time in nanoseconds.
+     */
+    private AtomicLong time;
+
+    /**
+     * Tested authentication.
+     */
+    private Authentication auth;
+
+    @BeforeEach
+    void init() {
+        this.calls = new AtomicInteger();
+        this.time = new AtomicLong();
+        this.auth = new CachedAuthentication(
+            (name, pass) -> {
+                this.calls.incrementAndGet();
+                final Optional<Authentication.User> user;
+                if ("secret".equals(pass)) {
+                    user = Optional.of(new Authentication.User(name));
+                } else {
+                    user = Optional.empty();
+                }
+                return user;
+            },
+            Duration.ofSeconds(60),
+            Duration.ofSeconds(5),
+            new Ticker() {
+                @Override
+                public long read() {
+                    return CachedAuthenticationTest.this.time.get();
+                }
+            }
+        );
+    }
+
+    @Test
+    void authenticatesOnceWithinTtl() {
+        this.auth.user("alice", "secret");
+        this.time.addAndGet(Duration.ofSeconds(59).toNanos());
+        MatcherAssert.assertThat(
+            "User is authenticated",
+            this.auth.user("alice", "secret"),
+            new IsEqual<>(Optional.of(new Authentication.User("alice")))
+        );
+        MatcherAssert.assertThat(
+            "Origin is called once",
+            this.calls.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void authenticatesAgainAfterTtl() {
+        this.auth.user("alice", "secret");
+        this.time.addAndGet(Duration.ofSeconds(61).toNanos());
+        this.auth.user("alice", "secret");
+        MatcherAssert.assertThat(this.calls.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void keepsFailuresForShortTime() {
+        this.auth.user("alice", "wrong");
+        MatcherAssert.assertThat(
+            "Failure is cached",
+            this.auth.user("alice", "wrong"),
+            new IsEqual<>(Optional.empty())
+        );
+        this.time.addAndGet(Duration.ofSeconds(6).toNanos());
+        this.auth.user("alice", "wrong");
+        MatcherAssert.assertThat(
+            "Origin is called again after negative ttl",
+            this.calls.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void distinguishesCredentials() {
+        this.auth.user("alice", "wrong");
+        MatcherAssert.assertThat(
+            this.auth.user("alice", "secret"),
+            new IsEqual<>(Optional.of(new Authentication.User("alice")))
+        );
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.auth;
+
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CachedPermissions}.
+ *
+ * @since 1.3
+ */
+class CachedPermissionsTest {
+
+    @Test
+    void memoizesDecisionsPerUserAndAction() {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicLong time = new AtomicLong();
+        final Permissions perms = new CachedPermissions(
+            (user, action) -> {
+                calls.incrementAndGet();
+                return "alice".equals(user.name()) && "read".equals(action);
+            },
+            Duration.ofSeconds(10),
+            new Ticker() {
+                @Override
+                public long read() {
+                    return time.get();
+                }
+            }
+        );
+        final Authentication.User alice = new Authentication.User("alice");
+        perms.allowed(alice, "read");
+        MatcherAssert.assertThat(
+            "Read is allowed",
+            perms.allowed(alice, "read"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Write is denied",
+            perms.allowed(alice, "write"),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Other user is denied",
+            perms.allowed(new Authentication.User("bob"), "read"),
+            new IsEqual<>(false)
+        );
+        time.addAndGet(Duration.ofSeconds(11).toNanos());
+        perms.allowed(alice, "read");
+        MatcherAssert.assertThat(
+            "Origin is called once per user and action within ttl",
+            calls.get(),
+            new IsEqual<>(4)
+        );
+    }
+}
@@ -10,6 +10,7 @@ import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
+import com.artipie.http.headers.ContentLength;
 import com.artipie.http.headers.Header;
 import com.artipie.http.hm.ResponseMatcher;
 import com.artipie.http.hm.RsHasBody;
@@ -17,16 +18,22 @@ import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.nuget.AstoDownloads;
 import com.artipie.nuget.AstoRepository;
 import com.artipie.nuget.http.NuGet;
 import com.artipie.nuget.http.TestAuthentication;
 import com.artipie.nuget.http.TestPermissions;
+import com.artipie.nuget.metadata.PackageId;
+import com.artipie.nuget.metadata.Version;
 import io.reactivex.Flowable;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.AllOf;
+import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -87,6 +94,114 @@ class NuGetPackageContentTest {
         );
     }
 
+    @Test
+    void shouldGetPackageContentWithETag() throws Exception {
+        final byte[] data = "nupkg".getBytes();
+        final BlockingStorage blocking = new BlockingStorage(this.storage);
+        blocking.save(new Key.From("foo", "1.0.0", "foo.1.0.0.nupkg"), data);
+        blocking.save(new Key.From("foo", "1.0.0", "foo.1.0.0.nupkg.sha512"), "abc".getBytes());
+        MatcherAssert.assertThat(
+            this.nuget.response(
+                new RequestLine(
+                    RqMethod.GET,
+                    "/content/foo/1.0.0/foo.1.0.0.nupkg"
+                ).toString(),
+                new TestAuthentication.Headers(),
+                Flowable.empty()
+            ),
+            new ResponseMatcher(
+                RsStatus.OK,
+                data,
+                new ContentLength(data.length),
+                new Header("ETag", "\"abc\"")
+            )
+        );
+    }
+
+    @Test
+    void shouldHeadPackageContent() throws Exception {
+        final byte[] data = "package".getBytes();
+        final BlockingStorage blocking = new BlockingStorage(this.storage);
+        blocking.save(new Key.From("bar", "2.0.0", "bar.2.0.0.nupkg"), data);
+        blocking.save(new Key.From("bar", "2.0.0", "bar.2.0.0.nupkg.sha512"), "xyz".getBytes());
+        MatcherAssert.assertThat(
+            this.nuget.response(
+                new RequestLine(
+                    RqMethod.HEAD,
+                    "/content/bar/2.0.0/bar.2.0.0.nupkg"
+                ).toString(),
+                new TestAuthentication.Headers(),
+                Flowable.empty()
+            ),
+            new ResponseMatcher(
+                RsStatus.OK,
+                new byte[0],
+                new ContentLength(data.length),
+                new Header("ETag", "\"xyz\"")
+            )
+        );
+    }
+
+    @Test
+    void shouldFailHeadPackageContentWhenNotExists() {
+        MatcherAssert.assertThat(
+            this.nuget.response(
+                new RequestLine(
+                    RqMethod.HEAD,
+                    "/content/bar/2.0.0/bar.2.0.0.nupkg"
+                ).toString(),
+                new TestAuthentication.Headers(),
+                Flowable.empty()
+            ),
+            new RsHasStatus(RsStatus.NOT_FOUND)
+        );
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        final BlockingStorage blocking = new BlockingStorage(this.storage);
+        blocking.save(new Key.From("foo", "1.0.0", "foo.1.0.0.nupkg.sha512"), "abc".getBytes());
+        MatcherAssert.assertThat(
+            "Package content should not be read when entity tag matches",
+            this.nuget.response(
+                new RequestLine(
+                    RqMethod.GET,
+                    "/content/foo/1.0.0/foo.1.0.0.nupkg"
+                ).toString(),
+                new Headers.From(
+                    new TestAuthentication.Headers(),
+                    new Header("If-None-Match", "\"xyz\", \"abc\"")
+                ),
+                Flowable.empty()
+            ),
+            new ResponseMatcher(RsStatus.NOT_MODIFIED, new Header("ETag", "\"abc\""))
+        );
+    }
+
+    @Test
+    void shouldCountPackageDownloads() throws Exception {
+        final AstoDownloads downloads = new AstoDownloads(this.storage, "test");
+        new BlockingStorage(this.storage).save(
+            new Key.From("foo", "1.0.0", "foo.1.0.0.nupkg"),
+            "nupkg".getBytes()
+        );
+        new NuGet(
+            new URL("http://localhost"),
+            new AstoRepository(this.storage),
+            new TestPermissions.Read(TestAuthentication.USERNAME),
+            new TestAuthentication(),
+            downloads
+        ).response(
+            new RequestLine(RqMethod.GET, "/content/foo/1.0.0/foo.1.0.0.nupkg").toString(),
+            new TestAuthentication.Headers(),
+            Flowable.empty()
+        ).send((status, headers, body) -> CompletableFuture.allOf()).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            downloads.count(new PackageId("Foo"), new Version("1.0.0")),
+            new IsEqual<>(1L)
+        );
+    }
+
     @Test
     void shouldFailGetPackageContentWhenNotExists() {
         MatcherAssert.assertThat(
@@ -172,4 +287,29 @@ class NuGetPackageContentTest {
             new ResponseMatcher(RsStatus.UNAUTHORIZED, new Header("WWW-Authenticate", "Basic"))
         );
     }
+
+    @Test
+    void appliesRevokedPermissionToNextRequest() throws Exception {
+        final AtomicBoolean allowed = new AtomicBoolean(true);
+        final NuGet slice = new NuGet(
+            new URL("http://localhost"),
+            new AstoRepository(this.storage),
+            (user, action) -> allowed.get(),
+            new TestAuthentication()
+        );
+        final String line = new RequestLine(
+            RqMethod.GET, "/content/package/2.0.0/content.nupkg"
+        ).toString();
+        MatcherAssert.assertThat(
+            "Allowed user gets through",
+            slice.response(line, new TestAuthentication.Headers(), Flowable.empty()),
+            new RsHasStatus(RsStatus.NOT_FOUND)
+        );
+        allowed.set(false);
+        MatcherAssert.assertThat(
+            "Revoked user is rejected at once",
+            slice.response(line, new TestAuthentication.Headers(), Flowable.empty()),
+            new RsHasStatus(RsStatus.FORBIDDEN)
+        );
+    }
 }
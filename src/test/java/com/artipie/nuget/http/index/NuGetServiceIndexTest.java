@@ -5,10 +5,14 @@
 package com.artipie.nuget.http.index;
 
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
 import com.artipie.http.Response;
+import com.artipie.http.hm.IsHeader;
 import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasHeaders;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqHeaders;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.nuget.AstoRepository;
@@ -18,6 +22,8 @@ import java.io.ByteArrayInputStream;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
@@ -25,6 +31,7 @@ import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.TypeSafeMatcher;
 import org.hamcrest.core.AllOf;
 import org.junit.jupiter.api.BeforeEach;
@@ -102,6 +109,62 @@ class NuGetServiceIndexTest {
         );
     }
 
+    @Test
+    void shouldHeadIndex() {
+        final Response response = this.nuget.response(
+            new RequestLine(RqMethod.HEAD, "/index.json").toString(),
+            Collections.emptyList(),
+            Flowable.empty()
+        );
+        MatcherAssert.assertThat(
+            response,
+            new AllOf<>(
+                Arrays.asList(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(new byte[0])
+                )
+            )
+        );
+    }
+
+    @Test
+    void shouldGetIndexWithCachingHeaders() {
+        MatcherAssert.assertThat(
+            this.nuget.response(
+                new RequestLine(RqMethod.GET, "/index.json").toString(),
+                Collections.emptyList(),
+                Flowable.empty()
+            ),
+            new RsHasHeaders(
+                new IsHeader("ETag", Matchers.matchesPattern("\"[0-9a-f]+\"")),
+                new IsHeader("Cache-Control", "public, max-age=300")
+            )
+        );
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenETagMatches() {
+        final AtomicReference<String> etag = new AtomicReference<>();
+        this.nuget.response(
+            new RequestLine(RqMethod.GET, "/index.json").toString(),
+            Collections.emptyList(),
+            Flowable.empty()
+        ).send(
+            (status, headers, body) -> {
+                etag.set(new RqHeaders(headers, "ETag").get(0));
+                return CompletableFuture.allOf();
+            }
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.nuget.response(
+                new RequestLine(RqMethod.GET, "/index.json").toString(),
+                new Headers.From("If-None-Match", etag.get()),
+                Flowable.empty()
+            ),
+            new RsHasStatus(RsStatus.NOT_MODIFIED)
+        );
+    }
+
     @Test
     void shouldFailPutIndex() {
         final Response response = this.nuget.response(
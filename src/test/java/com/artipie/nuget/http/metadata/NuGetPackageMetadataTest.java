@@ -28,13 +28,21 @@ import io.reactivex.Flowable;
 import java.io.ByteArrayInputStream;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
 import org.hamcrest.Description;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.TypeSafeMatcher;
 import org.hamcrest.core.AllOf;
+import org.hamcrest.core.IsNot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -109,6 +117,55 @@ class NuGetPackageMetadataTest {
         );
     }
 
+    @Test
+    void shouldSendRegistrationWithoutContentLength() {
+        final AtomicReference<List<String>> names = new AtomicReference<>();
+        this.nuget.response(
+            new RequestLine(RqMethod.GET, "/registrations/my.lib/index.json").toString(),
+            new TestAuthentication.Headers(),
+            Flowable.empty()
+        ).send(
+            (status, headers, body) -> {
+                names.set(
+                    StreamSupport.stream(headers.spliterator(), false)
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList())
+                );
+                return CompletableFuture.allOf();
+            }
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            names.get(),
+            new IsNot<>(Matchers.hasItem(Matchers.equalToIgnoringCase("Content-Length")))
+        );
+    }
+
+    @Test
+    void shouldHeadRegistrationWithoutReadingNuspecs() {
+        new Versions()
+            .add(new Version("12.0.3"))
+            .save(
+                this.storage,
+                new PackageKeys("Newtonsoft.Json").versionsKey()
+            );
+        MatcherAssert.assertThat(
+            this.nuget.response(
+                new RequestLine(
+                    RqMethod.HEAD,
+                    "/registrations/newtonsoft.json/index.json"
+                ).toString(),
+                new TestAuthentication.Headers(),
+                Flowable.empty()
+            ),
+            new AllOf<>(
+                Arrays.asList(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(new byte[0])
+                )
+            )
+        );
+    }
+
     @Test
     void shouldGetRegistrationsWhenEmpty() {
         final Response response = this.nuget.response(
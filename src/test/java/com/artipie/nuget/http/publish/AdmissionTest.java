@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.publish;
+
+import java.time.Duration;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Admission}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class AdmissionTest {
+
+    @Test
+    void limitsNumberOfPublishes() {
+        final Admission admission = new Admission(2, Long.MAX_VALUE, Duration.ofSeconds(10));
+        admission.acquire(1);
+        admission.acquire(1);
+        MatcherAssert.assertThat(
+            "Third publish is rejected",
+            admission.acquire(1),
+            new IsEqual<>(false)
+        );
+        admission.release(1);
+        MatcherAssert.assertThat(
+            "Publish is admitted after release",
+            admission.acquire(1),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Publishes in flight are counted",
+            admission.inflight(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void limitsNumberOfBytes() {
+        final Admission admission = new Admission(10, 100L, Duration.ofSeconds(10));
+        admission.acquire(60L);
+        MatcherAssert.assertThat(
+            "Publish exceeding bytes limit is rejected",
+            admission.acquire(50L),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Rejected publish is not counted",
+            admission.inflight(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Publish fitting bytes limit is admitted",
+            admission.acquire(40L),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Bytes in flight are counted",
+            admission.inflightBytes(),
+            new IsEqual<>(100L)
+        );
+    }
+
+    @Test
+    void admitsLargePublishWhenNothingInFlight() {
+        MatcherAssert.assertThat(
+            new Admission(10, 100L, Duration.ofSeconds(10)).acquire(500L),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void chargesPublishOfUnknownLength() {
+        final Admission admission = new Admission(10, 100L, Duration.ofSeconds(10), 60L);
+        MatcherAssert.assertThat(
+            "Publish of known length is admitted",
+            admission.acquire(50L),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Publish of unknown length is charged configured bytes",
+            admission.acquire(admission.unknown()),
+            new IsEqual<>(false)
+        );
+    }
+}
@@ -14,6 +14,7 @@ import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.nuget.AstoRepository;
+import com.artipie.nuget.Downloads;
 import com.artipie.nuget.http.NuGet;
 import com.artipie.nuget.http.TestAuthentication;
 import com.artipie.nuget.http.TestPermissions;
@@ -22,12 +23,20 @@ import io.reactivex.Flowable;
 import java.io.ByteArrayOutputStream;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 /**
  * Tests for {@link NuGet}.
@@ -106,18 +115,47 @@ class NuGetPackagePublishTest {
         );
     }
 
-    private Response putPackage(final byte[] pack) throws Exception {
+    @Test
+    void shouldRejectPublishNotAdmitted() throws Exception {
+        final Admission admission = new Admission(1, Long.MAX_VALUE, Duration.ofSeconds(30));
+        admission.acquire(0L);
+        this.nuget = new NuGet(
+            new URL("http://localhost"),
+            new AstoRepository(new InMemoryStorage()),
+            new TestPermissions.Write(TestAuthentication.USERNAME),
+            new TestAuthentication(),
+            Downloads.NONE,
+            ForkJoinPool.commonPool(),
+            admission
+        );
+        MatcherAssert.assertThat(
+            this.putPackage(nupkg()),
+            new ResponseMatcher(RsStatus.UNAVAILABLE, new Header("Retry-After", "30"))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"abc", "-5", ""})
+    void shouldRejectInvalidContentLength(final String length) throws Exception {
+        MatcherAssert.assertThat(
+            this.putPackage(nupkg(), new Header("Content-Length", length)),
+            new RsHasStatus(RsStatus.BAD_REQUEST)
+        );
+    }
+
+    private Response putPackage(final byte[] pack, final Header... extra) throws Exception {
         final HttpEntity entity = MultipartEntityBuilder.create()
             .addBinaryBody("package.nupkg", pack)
             .build();
         final ByteArrayOutputStream sink = new ByteArrayOutputStream();
         entity.writeTo(sink);
+        final List<Map.Entry<String, String>> headers = new ArrayList<>(2 + extra.length);
+        headers.add(new TestAuthentication.Header());
+        headers.add(new Header("Content-Type", entity.getContentType().getValue()));
+        headers.addAll(Arrays.asList(extra));
         return this.nuget.response(
             new RequestLine(RqMethod.PUT, "/package").toString(),
-            new Headers.From(
-                new TestAuthentication.Header(),
-                new Header("Content-Type", entity.getContentType().getValue())
-            ),
+            new Headers.From(headers),
             Flowable.fromArray(ByteBuffer.wrap(sink.toByteArray()))
         );
     }
@@ -0,0 +1,231 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.http.search;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Response;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.nuget.AstoRepository;
+import com.artipie.nuget.BlockingExecutor;
+import com.artipie.nuget.Downloads;
+import com.artipie.nuget.NewtonJsonResource;
+import com.artipie.nuget.PackageLock;
+import com.artipie.nuget.http.NuGet;
+import com.artipie.nuget.http.publish.Admission;
+import com.artipie.nuget.search.SearchIndex;
+import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.TypeSafeMatcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wtf.g4s8.hamcrest.json.JsonContains;
+import wtf.g4s8.hamcrest.json.JsonHas;
+import wtf.g4s8.hamcrest.json.JsonValueIs;
+
+/**
+ * Tests for {@link NuGet}.
+ * Search query service resource.
+ *
+ * @since 1.3
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+class NuGetSearchTest {
+
+    /**
+     * Tested NuGet slice.
+     */
+    private NuGet nuget;
+
+    @BeforeEach
+    void init() throws Exception {
+        final InMemoryStorage storage = new InMemoryStorage();
+        final SearchIndex index = new SearchIndex();
+        final AstoRepository repository = new AstoRepository(
+            storage, new BlockingExecutor(), new PackageLock.InProcess(storage), index
+        );
+        this.nuget = new NuGet(
+            new URL("http://localhost:4321/repo"),
+            repository,
+            Permissions.FREE,
+            Authentication.ANONYMOUS,
+            Downloads.NONE,
+            new BlockingExecutor(),
+            Admission.UNLIMITED,
+            index
+        );
+        repository.add(
+            new Content.From(new NewtonJsonResource("newtonsoft.json.12.0.3.nupkg").bytes())
+        ).toCompletableFuture().join();
+    }
+
+    @Test
+    void findsPublishedPackage() {
+        MatcherAssert.assertThat(
+            this.get("/query?q=Newtonsoft&skip=0&take=10&prerelease=true&semVerLevel=2.0.0"),
+            new AllOf<>(
+                Arrays.asList(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(
+                        new IsJson(
+                            new AllOf<>(
+                                Arrays.asList(
+                                    new JsonHas("totalHits", new JsonValueIs(1)),
+                                    new JsonHas(
+                                        "data",
+                                        new JsonContains(
+                                            new JsonHas("id", new JsonValueIs("Newtonsoft.Json"))
+                                        )
+                                    )
+                                )
+                            )
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void referencesRegistrationLeafOfEachVersion() {
+        MatcherAssert.assertThat(
+            this.get("/query?q=Newtonsoft"),
+            new RsHasBody(
+                new IsJson(
+                    new JsonHas(
+                        "data",
+                        new JsonContains(
+                            new JsonHas(
+                                "versions",
+                                new JsonContains(
+                                    new JsonHas(
+                                        "@id",
+                                        new JsonValueIs(
+                                            // @checkstyle LineLengthCheck (1 line)
+                                            "http://localhost:4321/repo/registrations/newtonsoft.json/12.0.3.json"
+                                        )
+                                    )
+                                )
+                            )
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void writesResultsInGivenExecutor() throws Exception {
+        final InMemoryStorage storage = new InMemoryStorage();
+        final SearchIndex index = new SearchIndex();
+        final AtomicInteger runs = new AtomicInteger();
+        final NuGet slice = new NuGet(
+            new URL("http://localhost:4321/repo"),
+            new AstoRepository(storage),
+            Permissions.FREE,
+            Authentication.ANONYMOUS,
+            Downloads.NONE,
+            new BlockingExecutor(),
+            Admission.UNLIMITED,
+            index,
+            task -> {
+                runs.incrementAndGet();
+                task.run();
+            }
+        );
+        MatcherAssert.assertThat(
+            "Results are written",
+            slice.response(
+                new RequestLine(RqMethod.GET, "/query?q=json").toString(),
+                Collections.emptyList(),
+                Flowable.empty()
+            ),
+            new RsHasBody(new IsJson(new JsonHas("totalHits", new JsonValueIs(0))))
+        );
+        MatcherAssert.assertThat(
+            "Given executor is used",
+            runs.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void findsNothingForUnknownTerm() {
+        MatcherAssert.assertThat(
+            this.get("/query?q=unknown%20term"),
+            new AllOf<>(
+                Arrays.asList(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(new IsJson(new JsonHas("totalHits", new JsonValueIs(0))))
+                )
+            )
+        );
+    }
+
+    @Test
+    void rejectsInvalidPaging() {
+        MatcherAssert.assertThat(
+            this.get("/query?q=json&take=many"),
+            new RsHasStatus(RsStatus.BAD_REQUEST)
+        );
+    }
+
+    private Response get(final String uri) {
+        return this.nuget.response(
+            new RequestLine(RqMethod.GET, uri).toString(),
+            Collections.emptyList(),
+            Flowable.empty()
+        );
+    }
+
+    /**
+     * Matcher of JSON object bytes.
+     *
+     * @since 1.3
+     */
+    private static final class IsJson extends TypeSafeMatcher<byte[]> {
+
+        /**
+         * Matcher for JSON.
+         */
+        private final Matcher<? extends JsonObject> json;
+
+        IsJson(final Matcher<? extends JsonObject> json) {
+            this.json = json;
+        }
+
+        @Override
+        public void describeTo(final Description description) {
+            description.appendText("JSON ").appendDescriptionOf(this.json);
+        }
+
+        @Override
+        public boolean matchesSafely(final byte[] bytes) {
+            final JsonObject root;
+            try (JsonReader reader = Json.createReader(new ByteArrayInputStream(bytes))) {
+                root = reader.readObject();
+            }
+            return this.json.matches(root);
+        }
+    }
+}
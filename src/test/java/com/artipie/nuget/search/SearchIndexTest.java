@@ -0,0 +1,549 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.nuget.Downloads;
+import com.artipie.nuget.metadata.Nuspec;
+import com.artipie.nuget.metadata.NuspecField;
+import com.artipie.nuget.metadata.PackageId;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SearchIndex}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class SearchIndexTest {
+
+    /**
+     * Tested index.
+     */
+    private SearchIndex index;
+
+    @BeforeEach
+    void init() {
+        this.index = new SearchIndex();
+        this.index.published(
+            SearchIndexTest.nuspec(
+                "Newtonsoft.Json", "12.0.3", "Json.NET is a popular JSON framework", "json"
+            )
+        );
+        this.index.published(
+            SearchIndexTest.nuspec(
+                "Serilog", "2.10.0", "Simple .NET logging with structured events", "logging"
+            )
+        );
+        this.index.published(
+            SearchIndexTest.nuspec(
+                "Serilog.Sinks.Json", "1.0.0-beta", "Writes Serilog events as JSON", "json"
+            )
+        );
+    }
+
+    @Test
+    void findsByPrefixOfAnyField() {
+        MatcherAssert.assertThat(
+            "Id prefix matches",
+            this.ids(new SearchQuery("newton", 0, 20, false, false)),
+            Matchers.contains("newtonsoft.json")
+        );
+        MatcherAssert.assertThat(
+            "Description and tags match",
+            this.ids(new SearchQuery("json", 0, 20, true, false)),
+            Matchers.contains("newtonsoft.json", "serilog.sinks.json")
+        );
+    }
+
+    @Test
+    void requiresAllTerms() {
+        MatcherAssert.assertThat(
+            this.ids(new SearchQuery("serilog json", 0, 20, true, false)),
+            Matchers.contains("serilog.sinks.json")
+        );
+    }
+
+    @Test
+    void filtersPrereleaseVersions() {
+        MatcherAssert.assertThat(
+            this.ids(new SearchQuery("serilog", 0, 20, false, false)),
+            Matchers.contains("serilog")
+        );
+    }
+
+    @Test
+    void filtersSemVerTwoVersions() {
+        this.index.published(
+            SearchIndexTest.nuspec("Semver.Two", "1.0.0-rc.1", "Package", "semver")
+        );
+        MatcherAssert.assertThat(
+            "SemVer 2.0.0 version is skipped by default",
+            this.ids(new SearchQuery("semver", 0, 20, true, false)),
+            Matchers.empty()
+        );
+        MatcherAssert.assertThat(
+            "SemVer 2.0.0 version is found with SemVer level 2",
+            this.ids(new SearchQuery("semver", 0, 20, true, true)),
+            Matchers.contains("semver.two")
+        );
+    }
+
+    @Test
+    void pagesResults() {
+        final Hits hits = this.index.search(new SearchQuery("", 1, 1, true, false));
+        MatcherAssert.assertThat(
+            "Total counts all pages",
+            hits.total(),
+            new IsEqual<>(3)
+        );
+        MatcherAssert.assertThat(
+            "Page is skipped and taken",
+            hits.page().stream().map(hit -> hit.id().normalized()).collect(Collectors.toList()),
+            Matchers.contains("serilog")
+        );
+    }
+
+    @Test
+    void usesLatestVersionMetadata() {
+        this.index.published(
+            SearchIndexTest.nuspec("Serilog", "2.11.0", "Structured logging for .NET", "log")
+        );
+        final Hit hit = this.index.search(new SearchQuery("structured", 0, 20, false, false))
+            .page().get(0);
+        MatcherAssert.assertThat(
+            "Description of latest version is returned",
+            hit.description(),
+            new IsEqual<>("Structured logging for .NET")
+        );
+        MatcherAssert.assertThat(
+            "All versions are returned",
+            hit.versions().stream().map(NuspecField::normalized).collect(Collectors.toList()),
+            Matchers.contains("2.10.0", "2.11.0")
+        );
+    }
+
+    @Test
+    void loadsNuspecsFromStorage() {
+        final Storage storage = new InMemoryStorage();
+        final Nuspec nuspec = SearchIndexTest.nuspec("Foo.Bar", "1.0.0", "Foo", "bar");
+        storage.save(
+            new Key.From("foo.bar", "1.0.0", "foo.bar.nuspec"), new Content.From(nuspec.bytes())
+        ).join();
+        storage.save(
+            new Key.From(".upload", "foo.nuspec"),
+            new Content.From(
+                SearchIndexTest.nuspec("Hidden", "1.0.0", "Foo", "bar").bytes()
+            )
+        ).join();
+        storage.save(
+            new Key.From("broken", "1.0.0", "broken.nuspec"),
+            new Content.From("not xml".getBytes(StandardCharsets.UTF_8))
+        ).join();
+        final SearchIndex loaded = new SearchIndex();
+        loaded.load(storage).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            loaded.search(new SearchQuery("", 0, 20, false, false)).page().stream()
+                .map(hit -> hit.id().normalized())
+                .collect(Collectors.toList()),
+            Matchers.contains("foo.bar")
+        );
+    }
+
+    @Test
+    void capsNuspecReadsInFlight() {
+        final Storage origin = new InMemoryStorage();
+        for (int num = 0; num < 50; num += 1) {
+            final String id = String.format("pkg%d", num);
+            origin.save(
+                new Key.From(id, "1.0.0", String.format("%s.nuspec", id)),
+                new Content.From(SearchIndexTest.nuspec(id, "1.0.0", "Lib", "lib").bytes())
+            ).join();
+        }
+        final ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            final CountingStorage counting = new CountingStorage(origin, exec);
+            final SearchIndex loaded = new SearchIndex();
+            loaded.load(counting).toCompletableFuture().join();
+            MatcherAssert.assertThat(
+                "All nuspecs are indexed",
+                loaded.search(new SearchQuery("lib", 0, 100, false, false)).total(),
+                new IsEqual<>(50)
+            );
+            MatcherAssert.assertThat(
+                "Reads in flight are capped",
+                counting.max.get(),
+                Matchers.lessThanOrEqualTo(16)
+            );
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    void ranksByRelevance() {
+        this.index.published(
+            SearchIndexTest.nuspec("Zeta.Events", "1.0.0", "Event sourcing", "cqrs")
+        );
+        MatcherAssert.assertThat(
+            this.ids(new SearchQuery("events", 0, 20, true, false)),
+            Matchers.contains("zeta.events", "serilog", "serilog.sinks.json")
+        );
+    }
+
+    @Test
+    void boostsByDownloads() {
+        final SearchIndex ranked = new SearchIndex(
+            new Downloads() {
+                @Override
+                public void increment(final NuspecField id, final NuspecField version) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long count(final NuspecField id, final NuspecField version) {
+                    return Long.parseLong(id.raw().substring(1));
+                }
+            }
+        );
+        for (int num = 0; num < 30; num += 1) {
+            ranked.published(
+                SearchIndexTest.nuspec(String.format("p%d", num), "1.0.0", "Lib", "lib")
+            );
+        }
+        final Hits hits = ranked.search(new SearchQuery("lib", 5, 3, false, false));
+        MatcherAssert.assertThat(
+            "Total counts all matches",
+            hits.total(),
+            new IsEqual<>(30)
+        );
+        MatcherAssert.assertThat(
+            "Page of most downloaded is returned",
+            hits.page().stream().map(hit -> hit.id().raw()).collect(Collectors.toList()),
+            Matchers.contains("p24", "p23", "p22")
+        );
+    }
+
+    @Test
+    void filtersByPackageType() {
+        this.index.published(
+            new Nuspec.Xml(
+                String.join(
+                    "",
+                    "<?xml version=\"1.0\"?>",
+                    "<package xmlns=\"http://schemas.microsoft.com/packaging/2013/05/nuspec.xsd\">",
+                    "<metadata><id>Json.Tool</id><version>1.0.0</version>",
+                    "<description>Json tool</description><authors>Someone</authors>",
+                    "<packageTypes><packageType name=\"DotnetTool\"/></packageTypes>",
+                    "</metadata></package>"
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Package with type is found",
+            this.ids(new SearchQuery("json", 0, 20, true, false, "dotnettool")),
+            Matchers.contains("json.tool")
+        );
+        MatcherAssert.assertThat(
+            "Packages without types are dependencies",
+            this.ids(new SearchQuery("", 0, 20, true, false, "Dependency")),
+            Matchers.contains("newtonsoft.json", "serilog", "serilog.sinks.json")
+        );
+    }
+
+    @Test
+    void filtersByTags() {
+        this.index.published(
+            SearchIndexTest.nuspec("Json.Logging", "1.0.0", "Both", "json logging")
+        );
+        MatcherAssert.assertThat(
+            "All tags are required",
+            this.ids(new SearchQuery("tags:json TAG:Logging", 0, 20, true, false)),
+            Matchers.contains("json.logging")
+        );
+        MatcherAssert.assertThat(
+            "Tag filter is combined with terms",
+            this.ids(new SearchQuery("sinks tags:json", 0, 20, true, false)),
+            Matchers.contains("serilog.sinks.json")
+        );
+    }
+
+    @Test
+    void filtersPackagesWithoutStableVersions() {
+        MatcherAssert.assertThat(
+            this.ids(new SearchQuery("", 0, 20, false, true)),
+            Matchers.contains("newtonsoft.json", "serilog")
+        );
+    }
+
+    @Test
+    void mergesTopPackagesOfShards() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final SearchIndex single = new SearchIndex(Downloads.NONE);
+            final SearchIndex sharded = new SearchIndex(Downloads.NONE, 4, pool);
+            for (int num = 0; num < 50; num += 1) {
+                final Nuspec nuspec = SearchIndexTest.nuspec(
+                    String.format("Lib%02d", num),
+                    String.format("1.%d.0", num % 3),
+                    String.format("Library number %d", num),
+                    String.format("lib tag%d", num % 5)
+                );
+                single.published(nuspec);
+                sharded.published(nuspec);
+            }
+            for (final SearchQuery query : Arrays.asList(
+                new SearchQuery("lib", 7, 10, false, false),
+                new SearchQuery("library tags:tag3", 0, 20, false, false),
+                new SearchQuery("", 45, 10, true, true)
+            )) {
+                final Hits expected = single.search(query);
+                final Hits actual = sharded.search(query);
+                MatcherAssert.assertThat(
+                    "Total is the same as without shards",
+                    actual.total(),
+                    new IsEqual<>(expected.total())
+                );
+                MatcherAssert.assertThat(
+                    "Page is the same as without shards",
+                    actual.page().stream().map(hit -> hit.id().raw())
+                        .collect(Collectors.toList()),
+                    new IsEqual<>(
+                        expected.page().stream().map(hit -> hit.id().raw())
+                            .collect(Collectors.toList())
+                    )
+                );
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveShards() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new SearchIndex(Downloads.NONE, 0, ForkJoinPool.commonPool())
+        );
+    }
+
+    @Test
+    void findsMistypedIdFuzzily() {
+        MatcherAssert.assertThat(
+            "Mistyped id is not found by terms",
+            this.ids(new SearchQuery("Newtonsoft.Jsn", 0, 20, true, false)),
+            Matchers.empty()
+        );
+        MatcherAssert.assertThat(
+            "Mistyped id is found fuzzily, closest first",
+            this.ids(new SearchQuery("Serilog.Sinks.Jsn", 0, 20, true, false, "", true)),
+            Matchers.contains("serilog.sinks.json")
+        );
+        MatcherAssert.assertThat(
+            "Fuzzy query is filtered",
+            this.ids(new SearchQuery("Serilog.Sinks.Jsn", 0, 20, false, false, "", true)),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void autocompletesIdPrefix() {
+        final Hits hits = this.index.autocomplete(new SearchQuery("SERI", 0, 20, true, false));
+        MatcherAssert.assertThat(
+            "Total counts ids with prefix",
+            hits.total(),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Ids with prefix are found in order",
+            hits.page().stream().map(hit -> hit.id().raw()).collect(Collectors.toList()),
+            Matchers.contains("Serilog", "Serilog.Sinks.Json")
+        );
+    }
+
+    @Test
+    void autocompletesOnlyAllowedVersions() {
+        MatcherAssert.assertThat(
+            this.index.autocomplete(new SearchQuery("serilog.", 0, 20, false, false)).total(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void autocompletesPageOfIds() {
+        final Hits hits = this.index.autocomplete(new SearchQuery("", 1, 1, true, false));
+        MatcherAssert.assertThat(
+            "Total counts all pages",
+            hits.total(),
+            new IsEqual<>(3)
+        );
+        MatcherAssert.assertThat(
+            "Page is skipped and taken",
+            hits.page().stream().map(hit -> hit.id().normalized()).collect(Collectors.toList()),
+            Matchers.contains("serilog")
+        );
+    }
+
+    @Test
+    void autocompletesIdsAddedLater() {
+        this.index.autocomplete(new SearchQuery("", 0, 20, true, false));
+        this.index.published(SearchIndexTest.nuspec("Sentry", "3.0.0", "Errors", "errors"));
+        MatcherAssert.assertThat(
+            this.index.autocomplete(new SearchQuery("se", 0, 20, true, false)).page().stream()
+                .map(hit -> hit.id().normalized())
+                .collect(Collectors.toList()),
+            Matchers.contains("sentry", "serilog", "serilog.sinks.json")
+        );
+    }
+
+    @Test
+    void findsExactPackage() {
+        this.index.published(SearchIndexTest.nuspec("Serilog", "2.11.0-dev", "Logs", "log"));
+        MatcherAssert.assertThat(
+            this.index.exact(new PackageId("SERILOG"), new SearchQuery("", 0, 0, false, false))
+                .get().versions().stream()
+                .map(NuspecField::normalized)
+                .collect(Collectors.toList()),
+            Matchers.contains("2.10.0")
+        );
+    }
+
+    private List<String> ids(final SearchQuery query) {
+        return this.index.search(query).page().stream()
+            .map(hit -> hit.id().normalized())
+            .collect(Collectors.toList());
+    }
+
+    private static Nuspec nuspec(
+        final String id, final String version, final String description, final String tags
+    ) {
+        return new Nuspec.Xml(
+            String.join(
+                "",
+                "<?xml version=\"1.0\"?>",
+                "<package xmlns=\"http://schemas.microsoft.com/packaging/2013/05/nuspec.xsd\">",
+                "<metadata>",
+                String.format("<id>%s</id><version>%s</version>", id, version),
+                String.format("<description>%s</description>", description),
+                "<authors>Someone</authors>",
+                String.format("<tags>%s</tags>", tags),
+                "</metadata></package>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    /**
+     * Storage counting values read at once, values are read in executor.
+     *
+     * @since 1.3
+     */
+    private static final class CountingStorage implements Storage {
+
+        /**
+         * Origin storage.
+         */
+        private final Storage origin;
+
+        /**
+         * Executor to read values in.
+         */
+        private final Executor exec;
+
+        /**
+         * Values being read.
+         */
+        private final AtomicInteger inflight;
+
+        /**
+         * Maximum number of values read at once.
+         */
+        private final AtomicInteger max;
+
+        /**
+         * Ctor.
+         *
+         * @param origin Origin storage.
+         * @param exec Executor to read values in.
+         */
+        CountingStorage(final Storage origin, final Executor exec) {
+            this.origin = origin;
+            this.exec = exec;
+            this.inflight = new AtomicInteger();
+            this.max = new AtomicInteger();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> exists(final Key key) {
+            return this.origin.exists(key);
+        }
+
+        @Override
+        public CompletableFuture<Collection<Key>> list(final Key prefix) {
+            return this.origin.list(prefix);
+        }
+
+        @Override
+        public CompletableFuture<Void> save(final Key key, final Content content) {
+            return this.origin.save(key, content);
+        }
+
+        @Override
+        public CompletableFuture<Void> move(final Key source, final Key destination) {
+            return this.origin.move(source, destination);
+        }
+
+        @Override
+        public CompletableFuture<? extends Meta> metadata(final Key key) {
+            return this.origin.metadata(key);
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            this.max.accumulateAndGet(this.inflight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(
+                () -> {
+                    this.inflight.decrementAndGet();
+                    return this.origin.value(key).join();
+                },
+                this.exec
+            );
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(final Key key) {
+            return this.origin.delete(key);
+        }
+
+        @Override
+        public <T> CompletionStage<T> exclusively(
+            final Key key, final Function<Storage, CompletionStage<T>> operation
+        ) {
+            return this.origin.exclusively(key, operation);
+        }
+    }
+}
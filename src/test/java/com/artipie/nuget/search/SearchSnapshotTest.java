@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.nuget.PackageIdentity;
+import com.artipie.nuget.PublishLog;
+import com.artipie.nuget.metadata.Nuspec;
+import com.artipie.nuget.metadata.NuspecField;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link SearchSnapshot}.
+ *
+ * @since 1.3
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class SearchSnapshotTest {
+
+    /**
+     * Index snapshot is taken from.
+     */
+    private SearchIndex index;
+
+    @BeforeEach
+    void init() {
+        this.index = new SearchIndex();
+        this.index.published(SearchSnapshotTest.nuspec("Newtonsoft.Json", "12.0.3", "json"));
+        this.index.published(SearchSnapshotTest.nuspec("Newtonsoft.Json", "13.0.1", "json"));
+        this.index.published(SearchSnapshotTest.nuspec("Serilog", "2.10.0-dev", "logging"));
+    }
+
+    @Test
+    void encodesSnapshotInGivenExecutor() {
+        final AtomicInteger tasks = new AtomicInteger();
+        new SearchSnapshot(this.index).save(
+            new InMemoryStorage(),
+            task -> {
+                tasks.incrementAndGet();
+                task.run();
+            }
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(tasks.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void restoresFromStorage() {
+        final Storage storage = new InMemoryStorage();
+        new SearchSnapshot(this.index).save(storage, Runnable::run).toCompletableFuture().join();
+        final SearchIndex restored = new SearchIndex();
+        MatcherAssert.assertThat(
+            "Snapshot is found",
+            new SearchSnapshot(restored).restore(storage).toCompletableFuture().join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Restored index finds the same packages",
+            SearchSnapshotTest.found(restored, "json"),
+            new IsEqual<>(SearchSnapshotTest.found(this.index, "json"))
+        );
+        MatcherAssert.assertThat(
+            "Versions are restored",
+            restored.search(new SearchQuery("newtonsoft", 0, 20, false, false))
+                .page().get(0).versions().stream()
+                .map(NuspecField::normalized)
+                .collect(Collectors.toList()),
+            Matchers.contains("12.0.3", "13.0.1")
+        );
+    }
+
+    @Test
+    void restoresFromMappedFile(@TempDir final Path dir) {
+        final Path file = dir.resolve("search.bin");
+        new SearchSnapshot(this.index).save(file);
+        final SearchIndex restored = new SearchIndex();
+        MatcherAssert.assertThat(
+            "Snapshot file is found",
+            new SearchSnapshot(restored).restore(file),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Restored index finds prerelease package",
+            SearchSnapshotTest.found(restored, "logging"),
+            Matchers.contains("Serilog")
+        );
+    }
+
+    @Test
+    void reportsMissingSnapshot(@TempDir final Path dir) {
+        MatcherAssert.assertThat(
+            new SearchSnapshot(new SearchIndex()).restore(dir.resolve("absent.bin")),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void readsOnlyVersionsPublishedAfterSnapshot() {
+        final Storage storage = new InMemoryStorage();
+        new SearchSnapshot(this.index).save(storage, Runnable::run).toCompletableFuture().join();
+        SearchSnapshotTest.store(
+            storage, SearchSnapshotTest.nuspec("Newtonsoft.Json", "13.0.1", "changed")
+        );
+        SearchSnapshotTest.store(storage, SearchSnapshotTest.nuspec("Dapper", "2.0.90", "orm"));
+        final SearchIndex restored = new SearchIndex();
+        new SearchSnapshot(restored).restore(storage).toCompletableFuture().join();
+        restored.load(storage).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Version from snapshot is not read again",
+            SearchSnapshotTest.found(restored, "changed"),
+            Matchers.empty()
+        );
+        MatcherAssert.assertThat(
+            "Version published after snapshot is read",
+            SearchSnapshotTest.found(restored, "orm"),
+            Matchers.contains("Dapper")
+        );
+    }
+
+    @Test
+    void readsOnlyPublishLogAfterLoadedSnapshot() {
+        final Storage storage = new InMemoryStorage();
+        this.index.load(storage).toCompletableFuture().join();
+        new SearchSnapshot(this.index).save(storage, Runnable::run).toCompletableFuture().join();
+        final Nuspec logged = SearchSnapshotTest.nuspec("Dapper", "2.0.90", "orm");
+        SearchSnapshotTest.store(storage, logged);
+        new PublishLog(storage).append(new PackageIdentity(logged.id(), logged.version()))
+            .toCompletableFuture().join();
+        SearchSnapshotTest.store(storage, SearchSnapshotTest.nuspec("Orphan", "1.0.0", "orm"));
+        final SearchIndex restored = new SearchIndex();
+        new SearchSnapshot(restored).restore(storage).toCompletableFuture().join();
+        restored.load(storage).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Only version from publish log is read, storage is not listed",
+            SearchSnapshotTest.found(restored, "orm"),
+            Matchers.contains("Dapper")
+        );
+    }
+
+    @Test
+    void failsOnCorruptedSnapshot() {
+        final Storage storage = new InMemoryStorage();
+        storage.save(
+            SearchSnapshot.KEY, new Content.From("garbage!".getBytes(StandardCharsets.UTF_8))
+        ).join();
+        Assertions.assertThrows(
+            Exception.class,
+            () -> new SearchSnapshot(new SearchIndex()).restore(storage)
+                .toCompletableFuture().join()
+        );
+    }
+
+    private static List<String> found(final SearchIndex index, final String text) {
+        return index.search(new SearchQuery(text, 0, 20, true, false)).page().stream()
+            .map(hit -> hit.id().raw())
+            .collect(Collectors.toList());
+    }
+
+    private static void store(final Storage storage, final Nuspec nuspec) {
+        storage.save(
+            new Key.From(
+                nuspec.id().normalized(),
+                nuspec.version().normalized(),
+                String.format("%s.nuspec", nuspec.id().normalized())
+            ),
+            new Content.From(nuspec.bytes())
+        ).join();
+    }
+
+    private static Nuspec nuspec(final String id, final String version, final String tags) {
+        return new Nuspec.Xml(
+            String.join(
+                "",
+                "<?xml version=\"1.0\"?>",
+                "<package xmlns=\"http://schemas.microsoft.com/packaging/2013/05/nuspec.xsd\">",
+                "<metadata>",
+                String.format("<id>%s</id><version>%s</version>", id, version),
+                "<description>Package</description><authors>Someone</authors>",
+                String.format("<tags>%s</tags>", tags),
+                "</metadata></package>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+    }
+}
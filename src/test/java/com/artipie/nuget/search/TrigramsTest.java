@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/nuget-adapter/artipie/LICENSE.txt
+ */
+package com.artipie.nuget.search;
+
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Trigrams}.
+ *
+ * @since 1.3
+ */
+class TrigramsTest {
+
+    /**
+     * Tested index.
+     */
+    private Trigrams trigrams;
+
+    @BeforeEach
+    void init() {
+        this.trigrams = new Trigrams();
+        this.trigrams.add("newtonsoft.json");
+        this.trigrams.add("newtonsoft.json.bson");
+        this.trigrams.add("serilog");
+        this.trigrams.add("nunit");
+    }
+
+    @Test
+    void findsMistypedIds() {
+        MatcherAssert.assertThat(
+            this.trigrams.near("newtonsoft.jsn"),
+            new IsEqual<>(Collections.singletonMap("newtonsoft.json", 1))
+        );
+    }
+
+    @Test
+    void findsTranspositionAsTwoEdits() {
+        MatcherAssert.assertThat(
+            this.trigrams.near("serliog"),
+            Matchers.anEmptyMap()
+        );
+        MatcherAssert.assertThat(
+            this.trigrams.near("serliog", 2),
+            new IsEqual<>(Collections.singletonMap("serilog", 2))
+        );
+    }
+
+    @Test
+    void requiresExactShortIds() {
+        MatcherAssert.assertThat(
+            "Short text with typo is not matched",
+            this.trigrams.near("nut").isEmpty(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Id is found by itself",
+            this.trigrams.near("nunit"),
+            new IsEqual<>(Collections.singletonMap("nunit", 0))
+        );
+    }
+
+    @Test
+    void skipsIdsBeyondDistance() {
+        MatcherAssert.assertThat(
+            this.trigrams.near("newtonsoft.js.bs"),
+            Matchers.anEmptyMap()
+        );
+    }
+}